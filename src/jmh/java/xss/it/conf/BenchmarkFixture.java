@@ -0,0 +1,108 @@
+package xss.it.conf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Generates the settings files used by the benchmarks.
+ * A file holds {@code keys} entries named {@code key.<i>} with values of {@code valueSize} characters,
+ * a share of them encrypted under the name {@code secret.<i>}, plus {@value #TYPED_KEYS} integer entries
+ * named {@code int.<i>} for the typed getters.
+ */
+final class BenchmarkFixture {
+    /**
+     * The secret key of the generated files, 16 characters long so it is used as is.
+     */
+    static final String SECRET_KEY = "BenchmarkKey1234";
+
+    /**
+     * The number of integer entries of the generated files.
+     */
+    static final int TYPED_KEYS = 100;
+
+    private BenchmarkFixture() {
+    }
+
+    /**
+     * Writes a settings file in a new temporary directory.
+     *
+     * @param keys           the number of string entries
+     * @param valueSize      the number of characters of each string value
+     * @param encryptedShare the share of the string entries that are encrypted, between 0 and 1
+     * @return the path of the settings file
+     * @throws IOException if the file cannot be written
+     */
+    static Path write(int keys, int valueSize, double encryptedShare) throws IOException {
+        CipherEngine cipher = new CipherEngine(SECRET_KEY.getBytes());
+        String value = "v".repeat(valueSize);
+        Properties properties = new Properties();
+        for (int i = 0; i < keys; i++) {
+            if (isEncrypted(i, encryptedShare)) {
+                properties.setProperty(cipher.encrypt("secret." + i), cipher.encrypt(value));
+            } else {
+                properties.setProperty("key." + i, value);
+            }
+        }
+        for (int i = 0; i < TYPED_KEYS; i++) {
+            properties.setProperty("int." + i, String.valueOf(i));
+        }
+        Path file = Files.createTempDirectory("jconfig-bench").resolve("bench.properties");
+        try (OutputStream outputStream = Files.newOutputStream(file)) {
+            properties.store(outputStream, "Benchmark Settings");
+        }
+        return file;
+    }
+
+    /**
+     * Gets the names used to look up the generated entries, in the order they were generated.
+     *
+     * @param keys           the number of string entries
+     * @param encryptedShare the share of the string entries that are encrypted
+     * @param encrypted      whether to get the names of the encrypted entries or of the plain ones
+     * @return the names, never empty; a missing name is used when there is no such entry
+     */
+    static String[] names(int keys, double encryptedShare, boolean encrypted) {
+        String[] names = new String[keys];
+        int count = 0;
+        for (int i = 0; i < keys; i++) {
+            if (isEncrypted(i, encryptedShare) == encrypted) {
+                names[count++] = (encrypted ? "secret." : "key.") + i;
+            }
+        }
+        if (count == 0) {
+            return new String[]{"missing"};
+        }
+        String[] result = new String[count];
+        System.arraycopy(names, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Deletes a generated settings file along with everything saved next to it.
+     *
+     * @param file the path of the settings file
+     * @throws IOException if a file cannot be deleted
+     */
+    static void delete(Path file) throws IOException {
+        Path dir = file.getParent();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    /**
+     * Checks if the entry at the given index is encrypted, spreading the encrypted entries evenly.
+     */
+    private static boolean isEncrypted(int index, double encryptedShare) {
+        return Math.floor((index + 1) * encryptedShare) > Math.floor(index * encryptedShare);
+    }
+}
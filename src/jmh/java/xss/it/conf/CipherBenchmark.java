@@ -0,0 +1,91 @@
+package xss.it.conf;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Compares the throughput of {@link JConfig#getDecrypted(String)} against the former implementation,
+ * which built a new key spec and a new cipher for every encrypt and decrypt call.
+ * Run with {@code -t} to compare the throughput under several threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CipherBenchmark {
+    private static final String SECRET_KEY = "MySecretKey";
+
+    private Path file;
+    private JConfig config;
+    private String legacyKey;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("jconfig-bench", ".properties");
+        config = new JConfig(file.toString(), SECRET_KEY);
+        config.setEncrypted("database.password", "s3cr3t-password");
+        legacyKey = config.getSecretKey();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        config.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public String getDecrypted() {
+        return config.getDecrypted("database.password");
+    }
+
+    @Benchmark
+    public boolean isSet() {
+        return config.isSet("database.password");
+    }
+
+    @Benchmark
+    public String legacyGetDecrypted() {
+        String encryptedValue = config.get(legacyEncrypt("database.password"));
+        return encryptedValue == null ? null : legacyDecrypt(encryptedValue);
+    }
+
+    /**
+     * The former per-call encryption, kept as the baseline. Like the former code, it reads the key from a String field,
+     * since {@link JConfig#getSecretKey()} now copies the key on every call.
+     */
+    private String legacyEncrypt(String value) {
+        try {
+            SecretKeySpec secretKeySpec = new SecretKeySpec(legacyKey.getBytes(), "AES");
+            Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
+            cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec);
+            return Base64.getEncoder().encodeToString(cipher.doFinal(value.getBytes()));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The former per-call decryption, kept as the baseline.
+     */
+    private String legacyDecrypt(String encryptedValue) {
+        try {
+            SecretKeySpec secretKeySpec = new SecretKeySpec(legacyKey.getBytes(), "AES");
+            Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
+            cipher.init(Cipher.DECRYPT_MODE, secretKeySpec);
+            return new String(cipher.doFinal(Base64.getDecoder().decode(encryptedValue)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
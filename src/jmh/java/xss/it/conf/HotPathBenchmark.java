@@ -0,0 +1,192 @@
+package xss.it.conf;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Measures the read paths of {@link JConfig} across config sizes, value sizes and shares of encrypted entries.
+ * Each thread cycles through the entries, so run with {@code -t N} to measure N concurrent readers.
+ * When there are no encrypted entries, {@code getDecrypted} and {@code isSetEncrypted} measure a miss.
+ * With {@code metrics} set, the JConfig records its {@link ConfigMetrics}, to measure their overhead.
+ * {@code getLayered} reads through a {@link LayeredConfig} whose defaults, environment and system properties
+ * layers each hold a copy of the plain entries.
+ * {@code getByPrefix} reads the 11 typed entries starting with {@code int.1} through the prefix index, and
+ * {@code scanPrefix} finds them by scanning every property. {@code getScoped} reads through the {@code key} scope.
+ * {@code getBound} reads three {@code int} entries through a {@link ConfigBinding}, and {@code getIntegers}
+ * reads the same entries through {@link JConfig#getInteger(String)}.
+ * {@code getSecret} reads the encrypted entries as {@link ConfigSecret}s held in direct memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotPathBenchmark {
+    @Param({"10", "1000", "100000", "1000000"})
+    public int keys;
+
+    @Param({"16", "256"})
+    public int valueSize;
+
+    @Param({"0", "0.1"})
+    public double encryptedShare;
+
+    @Param({"LOCKED", "SNAPSHOT"})
+    public JConfig.Concurrency concurrency;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private Path file;
+    private JConfig config;
+    private LayeredConfig layered;
+    private ConfigScope scope;
+    private ConfigBinding<Ints> bound;
+    private String[] plainNames;
+    private String[] secretNames;
+    private String[] typedNames;
+    private String[] scopedNames;
+
+    @Setup
+    public void setup() throws IOException {
+        file = BenchmarkFixture.write(keys, valueSize, encryptedShare);
+        System.setProperty(ConfigMetrics.ENABLED_PROPERTY, String.valueOf(metrics));
+        try {
+            config = new JConfig(file.toString(), BenchmarkFixture.SECRET_KEY, concurrency);
+        } finally {
+            System.clearProperty(ConfigMetrics.ENABLED_PROPERTY);
+        }
+        plainNames = BenchmarkFixture.names(keys, encryptedShare, false);
+        secretNames = BenchmarkFixture.names(keys, encryptedShare, true);
+        Map<String, String> copy = new HashMap<>();
+        for (String name : plainNames) {
+            copy.put(name, "layered");
+        }
+        layered = new LayeredConfig(config);
+        layered.setLayer(LayeredConfig.Layer.DEFAULTS, copy);
+        layered.setLayer(LayeredConfig.Layer.ENVIRONMENT, copy);
+        layered.setLayer(LayeredConfig.Layer.SYSTEM_PROPERTIES, copy);
+        typedNames = new String[BenchmarkFixture.TYPED_KEYS];
+        for (int i = 0; i < typedNames.length; i++) {
+            typedNames[i] = "int." + i;
+        }
+        scope = config.scope("key");
+        scopedNames = new String[plainNames.length];
+        for (int i = 0; i < scopedNames.length; i++) {
+            scopedNames[i] = plainNames[i].substring(scope.getPrefix().length());
+        }
+        bound = config.bind(Ints.class, "int");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        bound.close();
+        layered.close();
+        config.close();
+        BenchmarkFixture.delete(file);
+    }
+
+    /**
+     * The position of each reader thread in the lists of names.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        String next(String[] names) {
+            int index = next++;
+            if (next == Integer.MAX_VALUE) {
+                next = 0;
+            }
+            return names[index % names.length];
+        }
+    }
+
+    @Benchmark
+    public String get(Cursor cursor) {
+        return config.get(cursor.next(plainNames));
+    }
+
+    @Benchmark
+    public String getLayered(Cursor cursor) {
+        return layered.get(cursor.next(plainNames));
+    }
+
+    @Benchmark
+    public String getScoped(Cursor cursor) {
+        return scope.get(cursor.next(scopedNames));
+    }
+
+    @Benchmark
+    public Map<String, String> getByPrefix() {
+        return config.getByPrefix("int.1");
+    }
+
+    @Benchmark
+    public Map<String, String> scanPrefix() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        config.getProperties().forEach((k, v) -> {
+            if (k.toString().startsWith("int.1")) {
+                entries.put(k.toString(), v.toString());
+            }
+        });
+        return entries;
+    }
+
+    @Benchmark
+    public int getInteger(Cursor cursor) {
+        return config.getInteger(cursor.next(typedNames));
+    }
+
+    @Benchmark
+    public int getBound() {
+        Ints ints = bound.get();
+        return ints.first() + ints.second() + ints.third();
+    }
+
+    @Benchmark
+    public int getIntegers() {
+        return config.getInteger("int.1") + config.getInteger("int.2") + config.getInteger("int.3");
+    }
+
+    @Benchmark
+    public Boolean getBoolean(Cursor cursor) {
+        return config.getBoolean(cursor.next(plainNames));
+    }
+
+    @Benchmark
+    public String getDecrypted(Cursor cursor) {
+        return config.getDecrypted(cursor.next(secretNames));
+    }
+
+    @Benchmark
+    public int getSecret(Cursor cursor) {
+        ConfigSecret secret = config.getSecret(cursor.next(secretNames));
+        return secret != null ? secret.length() : 0;
+    }
+
+    @Benchmark
+    public boolean isSet(Cursor cursor) {
+        return config.isSet(cursor.next(plainNames));
+    }
+
+    @Benchmark
+    public boolean isSetEncrypted(Cursor cursor) {
+        return config.isSet(cursor.next(secretNames));
+    }
+
+    /**
+     * The entries bound by {@code getBound}.
+     */
+    public record Ints(@ConfigKey("1") int first, @ConfigKey("2") int second, @ConfigKey("3") int third) {
+    }
+}
@@ -0,0 +1,117 @@
+package xss.it.conf;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Measures the write and file paths of {@link JConfig} across config sizes, value sizes and shares
+ * of encrypted entries, with the default synchronous persistence.
+ * {@code rotateSecretKey} alternates between two secret keys, re-encrypting every encrypted entry each time.
+ * {@code loadAutoFromFile} loads in the opt-in {@link JConfig.Loading#AUTO} mode, mapping the file or not
+ * depending on its size and the {@link JPlatform.IoProfile} of its directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenceBenchmark {
+    @Param({"10", "1000", "100000", "1000000"})
+    public int keys;
+
+    @Param({"16", "256"})
+    public int valueSize;
+
+    @Param({"0", "0.1"})
+    public double encryptedShare;
+
+    private Path file;
+    private byte[] content;
+    private JConfig config;
+    private int counter;
+
+    @Setup
+    public void setup() throws IOException {
+        file = BenchmarkFixture.write(keys, valueSize, encryptedShare);
+        content = Files.readAllBytes(file);
+        config = new JConfig(file.toString(), BenchmarkFixture.SECRET_KEY);
+        // Writes the startup snapshot used by loadSnapshotFromFile
+        new JConfig(file.toString(), BenchmarkFixture.SECRET_KEY, JConfig.Concurrency.LOCKED, JConfig.Loading.SNAPSHOT);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        config.close();
+        BenchmarkFixture.delete(file);
+    }
+
+    @Benchmark
+    public void set() {
+        config.setInteger("int.0", counter++);
+    }
+
+    @Benchmark
+    public void setEncrypted() {
+        config.setEncrypted("secret.bench", String.valueOf(counter++));
+    }
+
+    @Benchmark
+    public void setBatch() {
+        int value = counter++;
+        config.update(tx -> {
+            for (int i = 0; i < 10; i++) {
+                tx.setInteger("int." + i, value);
+            }
+        });
+    }
+
+    @Benchmark
+    public void rotateSecretKey() throws IOException {
+        config.rotateSecretKey("RotatedKey" + (counter++ & 1));
+    }
+
+    @Benchmark
+    public void saveToFile() {
+        config.saveToFile();
+    }
+
+    @Benchmark
+    public JConfig loadFromFile() {
+        return new JConfig(file.toString(), BenchmarkFixture.SECRET_KEY);
+    }
+
+    @Benchmark
+    public JConfig loadAutoFromFile() {
+        return new JConfig(file.toString(), BenchmarkFixture.SECRET_KEY, JConfig.Concurrency.LOCKED, JConfig.Loading.AUTO);
+    }
+
+    @Benchmark
+    public JConfig loadMappedFromFile() {
+        return new JConfig(file.toString(), BenchmarkFixture.SECRET_KEY, JConfig.Concurrency.LOCKED, JConfig.Loading.MAPPED);
+    }
+
+    @Benchmark
+    public JConfig loadSnapshotFromFile() {
+        return new JConfig(file.toString(), BenchmarkFixture.SECRET_KEY, JConfig.Concurrency.LOCKED, JConfig.Loading.SNAPSHOT);
+    }
+
+    @Benchmark
+    public void copyFromResource() throws IOException {
+        config.copyFromResource(new ByteArrayInputStream(content), false);
+    }
+
+    @Benchmark
+    public int diff() throws IOException {
+        int[] changes = new int[1];
+        config.diff(new ByteArrayInputStream(content), change -> changes[0]++);
+        return changes[0];
+    }
+}
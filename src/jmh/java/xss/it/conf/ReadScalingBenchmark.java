@@ -0,0 +1,102 @@
+package xss.it.conf;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Measures how reads scale with the number of threads under each concurrency mode,
+ * while one extra thread keeps writing about ten thousand changes per second and saving them.
+ * The same read runs on 1, 2 and 4 threads and on one thread per core, so a single run gives the curve.
+ * The throughput is per thread count, not per thread: reads scale when it grows with the threads.
+ * Only the thread counts up to the number of cores of the host measure scaling; above it the threads share the cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadScalingBenchmark {
+    @Param({"LOCKED", "SNAPSHOT"})
+    public JConfig.Concurrency concurrency;
+
+    @Param({"1000"})
+    public int keys;
+
+    private Path file;
+    private JConfig config;
+    private String[] names;
+    private volatile boolean writing;
+    private Thread writer;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("jconfig-bench", ".properties");
+        config = new JConfig(file.toString(), null, concurrency);
+        config.enableWriteBehind(10, Integer.MAX_VALUE);
+        names = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            names[i] = "key." + i;
+            config.setInteger(names[i], i);
+        }
+        writing = true;
+        writer = new Thread(() -> {
+            int i = 0;
+            while (writing) {
+                config.setInteger(names[i++ % keys], i);
+                LockSupport.parkNanos(100_000);
+            }
+        });
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        writing = false;
+        writer.join();
+        config.close();
+        Files.deleteIfExists(file);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void get1(Cursor cursor, Blackhole blackhole) {
+        read(cursor, blackhole);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void get2(Cursor cursor, Blackhole blackhole) {
+        read(cursor, blackhole);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void get4(Cursor cursor, Blackhole blackhole) {
+        read(cursor, blackhole);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void getPerCore(Cursor cursor, Blackhole blackhole) {
+        read(cursor, blackhole);
+    }
+
+    private void read(Cursor cursor, Blackhole blackhole) {
+        blackhole.consume(config.get(names[cursor.next++ % keys]));
+    }
+}
@@ -0,0 +1,57 @@
+package xss.it.conf;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Measures the latency of a full save of the settings file under each durability policy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaveBenchmark {
+    @Param({"NONE", "FSYNC_DATA", "FSYNC_DATA_AND_DIR"})
+    public JConfig.Durability durability;
+
+    @Param({"100", "10000"})
+    public int keys;
+
+    private Path dir;
+    private JConfig config;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("jconfig-bench");
+        config = new JConfig(dir.resolve("bench.properties").toString(), null);
+        for (int i = 0; i < keys; i++) {
+            config.getProperties().setProperty("key." + i, "value." + i);
+        }
+        config.setDurability(durability);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        config.close();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public void save() {
+        config.saveToFile();
+    }
+}
@@ -0,0 +1,79 @@
+package xss.it.conf;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.filechooser.FileSystemView;
+import java.io.File;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Measures the first call resolving the documents directory in a fresh JVM, through {@link JPlatform#getDocumentsDir()}
+ * and through Swing, as the former implementation did. Each measurement runs in its own fork, so it includes the
+ * class loading and initialization. The {@code loadedClasses} and {@code metaspaceBytes} counters report the classes
+ * loaded and the metaspace used by the call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+    /**
+     * The classes loaded and the metaspace used by the measured call.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Loading {
+        private ClassLoadingMXBean classLoading;
+        private MemoryPoolMXBean metaspace;
+        private long classesBefore;
+        private long metaspaceBefore;
+        public long loadedClasses;
+        public long metaspaceBytes;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            classLoading = ManagementFactory.getClassLoadingMXBean();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getName().equals("Metaspace")) {
+                    metaspace = pool;
+                }
+            }
+            // Read once so the counters themselves are loaded before the measured call
+            stop();
+        }
+
+        void start() {
+            classesBefore = classLoading.getTotalLoadedClassCount();
+            metaspaceBefore = metaspace != null ? metaspace.getUsage().getUsed() : 0;
+        }
+
+        void stop() {
+            loadedClasses = classLoading.getTotalLoadedClassCount() - classesBefore;
+            metaspaceBytes = metaspace != null ? metaspace.getUsage().getUsed() - metaspaceBefore : 0;
+        }
+    }
+
+    @Benchmark
+    public String documentsDir(Loading loading) {
+        loading.start();
+        String directory = JPlatform.getDocumentsDir();
+        loading.stop();
+        return directory;
+    }
+
+    @Benchmark
+    public String swingDocumentsDir(Loading loading) {
+        loading.start();
+        String directory = FileSystemView.getFileSystemView().getDefaultDirectory().getPath() + File.separator;
+        loading.stop();
+        return directory;
+    }
+}
@@ -0,0 +1,58 @@
+package xss.it.conf;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Compares the typed getters of {@link JConfig} against parsing the string value on every call.
+ * Run with {@code -prof gc} to check that a steady-state typed read does not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypedGetBenchmark {
+    private Path file;
+    private JConfig config;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("jconfig-bench", ".properties");
+        config = new JConfig(file.toString(), null);
+        config.setInteger("app.timeout", 30);
+        config.setDouble("app.ratio", 0.75);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int getInteger() {
+        return config.getInteger("app.timeout");
+    }
+
+    @Benchmark
+    public double getDouble() {
+        return config.getDouble("app.ratio");
+    }
+
+    @Benchmark
+    public int parseInteger() {
+        return Integer.parseInt(config.get("app.timeout"));
+    }
+
+    @Benchmark
+    public double parseDouble() {
+        return Double.parseDouble(config.get("app.ratio"));
+    }
+}
@@ -0,0 +1,171 @@
+package xss.it.conf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Crash-safe file writer used by {@link JConfig} to save the settings file.
+ * The content is written to a temporary file in the same directory, optionally forced to disk,
+ * and then atomically renamed over the target, so readers only ever see the old or the new file.
+ * A symbolic link is followed, so the link stays in place and the file it points to is replaced,
+ * and on POSIX file systems the new file gets the permissions, owner and group of the file it replaces.
+ * A new file is only readable and writable by its owner.
+ */
+final class AtomicFileWriter {
+    /**
+     * The maximum number of symbolic links followed to reach the target.
+     */
+    private static final int MAX_LINKS = 40;
+
+    /**
+     * Writes content to an output stream.
+     */
+    @FunctionalInterface
+    interface Content {
+        /**
+         * Writes the content to the given stream.
+         *
+         * @param outputStream the stream to write to
+         * @throws IOException if an I/O error occurs while writing
+         */
+        void writeTo(OutputStream outputStream) throws IOException;
+    }
+
+    private AtomicFileWriter() {
+    }
+
+    /**
+     * Atomically replaces the target file with the given content.
+     *
+     * @param target     the file to replace
+     * @param content    the content to write
+     * @param durability the durability policy of the write
+     * @return the number of bytes written
+     * @throws IOException if an I/O error occurs, in which case the target file is left untouched
+     */
+    static long write(Path target, Content content, JConfig.Durability durability) throws IOException {
+        Path absolute = resolve(target);
+        Path dir = absolute.getParent();
+        Path temp = Files.createTempFile(dir, "." + absolute.getFileName(), ".tmp");
+        long size;
+        try {
+            copyAttributes(absolute, temp);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                OutputStream outputStream = Channels.newOutputStream(channel);
+                content.writeTo(outputStream);
+                outputStream.flush();
+                size = channel.position();
+                if (durability != JConfig.Durability.NONE) {
+                    channel.force(false);
+                }
+            }
+            move(temp, absolute);
+            if (durability == JConfig.Durability.FSYNC_DATA_AND_DIR) {
+                forceDirectory(dir);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return size;
+    }
+
+    /**
+     * Follows the symbolic links leading to the target, even a dangling one, so the file they point to is replaced
+     * rather than the link itself.
+     *
+     * @param target the file to replace
+     * @return the absolute path of the file to replace, which is not a symbolic link
+     * @throws IOException if a link cannot be read or there are too many links
+     */
+    private static Path resolve(Path target) throws IOException {
+        Path path = target.toAbsolutePath();
+        for (int links = 0; Files.isSymbolicLink(path); links++) {
+            if (links == MAX_LINKS) {
+                throw new FileSystemException(target.toString(), null, "Too many levels of symbolic links");
+            }
+            path = path.resolveSibling(Files.readSymbolicLink(path));
+        }
+        return path;
+    }
+
+    /**
+     * Gives the temporary file the owner, group and permissions of the file it replaces, on POSIX file systems.
+     * The owner and group are copied on a best effort basis, since changing them usually needs privileges;
+     * the temporary file keeps the owner of this process and its owner-only permissions when they cannot be copied.
+     *
+     * @param target the file to replace
+     * @param temp   the temporary file
+     */
+    private static void copyAttributes(Path target, Path temp) {
+        PosixFileAttributeView targetView = Files.getFileAttributeView(target, PosixFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
+        PosixFileAttributeView tempView = Files.getFileAttributeView(temp, PosixFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
+        if (targetView == null || tempView == null || !Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        try {
+            PosixFileAttributes attributes = targetView.readAttributes();
+            PosixFileAttributes current = tempView.readAttributes();
+            if (!attributes.owner().equals(current.owner())) {
+                try {
+                    tempView.setOwner(attributes.owner());
+                } catch (IOException ignored) {
+                }
+            }
+            if (!attributes.group().equals(current.group())) {
+                try {
+                    tempView.setGroup(attributes.group());
+                } catch (IOException ignored) {
+                }
+            }
+            tempView.setPermissions(attributes.permissions());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Renames the temporary file over the target, atomically unless the
+     * {@linkplain JPlatform#getIoProfile(Path) I/O profile} of its directory says the file system does not support it.
+     *
+     * @param temp   the temporary file
+     * @param target the file to replace
+     * @throws IOException if the file cannot be moved
+     */
+    private static void move(Path temp, Path target) throws IOException {
+        if (!JPlatform.IoProfile.of(target.getParent()).isAtomicMove()) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Forces the directory entry of the renamed file to disk.
+     * Some platforms, like Windows, do not allow opening a directory, in which case this is a no-op.
+     *
+     * @param dir the directory to force
+     */
+    private static void forceDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+}
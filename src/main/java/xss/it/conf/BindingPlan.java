@@ -0,0 +1,224 @@
+package xss.it.conf;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Plan binding the properties of a namespace to a record or a class, used by {@link ConfigBinding}.
+ * The plan is built once per binding: the key and the parser of every record component or field,
+ * and the {@link MethodHandle}s creating the object, so creating an object reflects on nothing.
+ * Records are created through their canonical constructor. Other classes are created through their
+ * no-argument constructor, and their non-static, non-transient fields are set, including inherited ones.
+ * Values are parsed like the typed getters of {@link JConfig}: a missing or malformed primitive is -1, or false,
+ * a missing or malformed boxed value or enum is null.
+ *
+ * @param <T> the bound type
+ */
+final class BindingPlan<T> {
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(Object.class, Object[].class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<T> type;
+    private final String[] keys;
+    private final Parser[] parsers;
+    private final Set<String> keySet;
+    private final MethodHandle factory;
+    private final MethodHandle[] setters;
+
+    private BindingPlan(Class<T> type, String[] keys, Parser[] parsers, MethodHandle factory, @Nullable MethodHandle[] setters) {
+        this.type = type;
+        this.keys = keys;
+        this.parsers = parsers;
+        this.keySet = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(keys)));
+        this.factory = factory;
+        this.setters = setters;
+    }
+
+    /**
+     * Builds the plan binding a namespace to a type.
+     *
+     * @param type   the record or class to bind
+     * @param prefix the prefix of the keys, empty for top-level keys
+     * @param <T>    the bound type
+     * @return the plan
+     * @throws IllegalArgumentException if the type cannot be created or has a field of an unsupported type
+     */
+    static <T> BindingPlan<T> of(Class<T> type, String prefix) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            if (type.isRecord()) {
+                RecordComponent[] components = type.getRecordComponents();
+                Class<?>[] types = new Class<?>[components.length];
+                String[] keys = new String[components.length];
+                Parser[] parsers = new Parser[components.length];
+                for (int i = 0; i < components.length; i++) {
+                    ConfigKey key = components[i].getAnnotation(ConfigKey.class);
+                    types[i] = components[i].getType();
+                    keys[i] = prefix + (key != null ? key.value() : components[i].getName());
+                    parsers[i] = parser(types[i], components[i].getName());
+                }
+                Constructor<T> constructor = type.getDeclaredConstructor(types);
+                constructor.setAccessible(true);
+                MethodHandle handle = lookup.unreflectConstructor(constructor);
+                MethodHandle factory = handle.asType(handle.type().generic())
+                        .asSpreader(Object[].class, components.length)
+                        .asType(FACTORY_TYPE);
+                return new BindingPlan<>(type, keys, parsers, factory, null);
+            }
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+                        fields.add(field);
+                    }
+                }
+            }
+            String[] keys = new String[fields.size()];
+            Parser[] parsers = new Parser[fields.size()];
+            MethodHandle[] setters = new MethodHandle[fields.size()];
+            for (int i = 0; i < keys.length; i++) {
+                Field field = fields.get(i);
+                ConfigKey key = field.getAnnotation(ConfigKey.class);
+                keys[i] = prefix + (key != null ? key.value() : field.getName());
+                parsers[i] = parser(field.getType(), field.getName());
+                field.setAccessible(true);
+                setters[i] = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+            }
+            Constructor<T> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            MethodHandle factory = MethodHandles.dropArguments(
+                    lookup.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class)), 0, Object[].class);
+            return new BindingPlan<>(type, keys, parsers, factory, setters);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            if (e instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) e;
+            }
+            throw new IllegalArgumentException("Cannot bind " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Get the full keys read by the plan.
+     *
+     * @return an unmodifiable set of the keys
+     */
+    Set<String> keys() {
+        return keySet;
+    }
+
+    /**
+     * Creates a new object from the current values.
+     *
+     * @param values the function reading the current value of a key, or null if it is missing
+     * @return the new object
+     */
+    T create(Function<String, String> values) {
+        Object[] arguments = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            arguments[i] = parsers[i].parse(values.apply(keys[i]));
+        }
+        try {
+            Object instance = (Object) factory.invokeExact(arguments);
+            if (setters != null) {
+                for (int i = 0; i < setters.length; i++) {
+                    setters[i].invokeExact(instance, arguments[i]);
+                }
+            }
+            return type.cast(instance);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot create " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Gets the parser of a field type.
+     *
+     * @param type the type of the field
+     * @param name the name of the field, for the error message
+     * @return the parser
+     * @throws IllegalArgumentException if the type is not supported
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Parser parser(Class<?> type, String name) {
+        if (type == String.class) {
+            return value -> value;
+        } else if (type == int.class || type == Integer.class) {
+            Object missing = type.isPrimitive() ? -1 : null;
+            return value -> {
+                try {
+                    return value != null ? Integer.parseInt(value) : missing;
+                } catch (NumberFormatException e) {
+                    return missing;
+                }
+            };
+        } else if (type == long.class || type == Long.class) {
+            Object missing = type.isPrimitive() ? -1L : null;
+            return value -> {
+                try {
+                    return value != null ? Long.parseLong(value) : missing;
+                } catch (NumberFormatException e) {
+                    return missing;
+                }
+            };
+        } else if (type == double.class || type == Double.class) {
+            Object missing = type.isPrimitive() ? -1d : null;
+            return value -> {
+                try {
+                    return value != null ? Double.parseDouble(value) : missing;
+                } catch (NumberFormatException e) {
+                    return missing;
+                }
+            };
+        } else if (type == float.class || type == Float.class) {
+            Object missing = type.isPrimitive() ? -1F : null;
+            return value -> {
+                try {
+                    return value != null ? Float.parseFloat(value) : missing;
+                } catch (NumberFormatException e) {
+                    return missing;
+                }
+            };
+        } else if (type == boolean.class) {
+            return Boolean::parseBoolean;
+        } else if (type == Boolean.class) {
+            return value -> value != null ? Boolean.parseBoolean(value) : null;
+        } else if (type.isEnum()) {
+            Class<? extends Enum> enumType = (Class<? extends Enum>) type;
+            return value -> {
+                try {
+                    return value != null ? Enum.valueOf(enumType, value.trim()) : null;
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            };
+        }
+        throw new IllegalArgumentException("Unsupported type " + type.getName() + " of " + name);
+    }
+
+    /**
+     * Parses the value of a property into the value of a field.
+     */
+    @FunctionalInterface
+    private interface Parser {
+        Object parse(@Nullable String value);
+    }
+}
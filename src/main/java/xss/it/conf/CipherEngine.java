@@ -0,0 +1,429 @@
+package xss.it.conf;
+
+import org.jetbrains.annotations.Nullable;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * AES engine owned by a {@link JConfig} instance.
+ * The key material is built once, and every thread reuses its own initialized {@link Cipher}
+ * for each direction, so encrypting and decrypting short values skips the provider lookup
+ * and the key schedule setup. Safe to use from many threads at once.
+ * When metrics are given, every encryption and decryption is counted and timed.
+ * The key material is held in a byte array that {@link #destroy()} overwrites with zeros. The ciphers already
+ * created are dropped on every thread, not only the calling one, and no thread can use or create a cipher afterwards;
+ * their key schedules cannot be wiped, and are left to the garbage collector.
+ */
+final class CipherEngine {
+    /**
+     * The transformation used to encrypt and decrypt the values.
+     */
+    static final String TRANSFORMATION = "AES/ECB/PKCS5Padding";
+
+    private final DestroyableKey secretKey;
+    private final ThreadCiphers encryptors;
+    private final ThreadCiphers decryptors;
+    private final ThreadLocal<SecretDecoder> decoders = ThreadLocal.withInitial(SecretDecoder::new);
+    private final ConfigMetrics metrics;
+
+    /**
+     * Constructor for the CipherEngine class.
+     *
+     * @param keyBytes the AES key material, 16 bytes long
+     */
+    CipherEngine(byte[] keyBytes) {
+        this(keyBytes, null);
+    }
+
+    /**
+     * Constructor for the CipherEngine class recording its costs.
+     *
+     * @param keyBytes the AES key material, 16 bytes long, copied so the caller can wipe it
+     * @param metrics  the metrics recording the encryptions and decryptions, or null
+     */
+    CipherEngine(byte[] keyBytes, @Nullable ConfigMetrics metrics) {
+        this.metrics = metrics;
+        this.secretKey = new DestroyableKey(keyBytes);
+        this.encryptors = new ThreadCiphers(Cipher.ENCRYPT_MODE);
+        this.decryptors = new ThreadCiphers(Cipher.DECRYPT_MODE);
+    }
+
+    /**
+     * Encrypts the given value using AES encryption with the secret key.
+     * The value is converted to bytes, encrypted using AES/ECB/PKCS5Padding algorithm,
+     * and then encoded in Base64 for secure representation.
+     * If an exception occurs during the encryption process, the exception is printed and null is returned.
+     *
+     * @param value The value to be encrypted
+     * @return The encrypted value in Base64 format, or null if encryption fails
+     */
+    String encrypt(String value) {
+        if (metrics == null) {
+            return doEncrypt(value);
+        }
+        long start = System.nanoTime();
+        try {
+            return doEncrypt(value);
+        } finally {
+            metrics.record(ConfigMetrics.Event.ENCRYPT, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Encrypts the given value with the cipher of the current thread, printing failures.
+     *
+     * @param value The value to be encrypted
+     * @return The encrypted value in Base64 format, or null if encryption fails
+     */
+    private String doEncrypt(String value) {
+        try {
+            byte[] encryptedBytes = encryptors.get().doFinal(value.getBytes());
+            return Base64.getEncoder().encodeToString(encryptedBytes);
+        } catch (Exception e) {
+            encryptors.remove();
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Decrypts the given encrypted value using AES decryption with the secret key.
+     * The encrypted value is expected to be in Base64 format.
+     * If an exception occurs during the decryption process, the exception message is printed,
+     * and null is returned.
+     *
+     * @param encryptedValue The encrypted value in Base64 format
+     * @return The decrypted value as a string, or null if decryption fails
+     */
+    String decrypt(String encryptedValue) {
+        try {
+            return doDecrypt(encryptedValue);
+        } catch (Exception e) {
+            if (!secretKey.isDestroyed()) {
+                System.out.println("Error decrypting value: " + e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Decrypts the given encrypted value into direct memory, outside the heap.
+     * The plaintext bytes only pass through an array of the current thread, wiped right after decoding.
+     *
+     * @param encryptedValue The encrypted value in Base64 format
+     * @return The decrypted value, or null if decryption fails
+     */
+    @Nullable
+    ConfigSecret decryptSecret(String encryptedValue) {
+        long start = metrics == null ? 0L : System.nanoTime();
+        try {
+            byte[] encryptedBytes = Base64.getDecoder().decode(encryptedValue);
+            SecretDecoder decoder = decoders.get();
+            byte[] plain = decoder.buffer(encryptedBytes.length);
+            int length;
+            try {
+                length = decryptors.get().doFinal(encryptedBytes, 0, encryptedBytes.length, plain, 0);
+            } catch (Exception e) {
+                decryptors.remove();
+                throw e;
+            }
+            try {
+                return decoder.decode(plain, length);
+            } finally {
+                Arrays.fill(plain, 0, length, (byte) 0);
+            }
+        } catch (Exception e) {
+            if (!secretKey.isDestroyed()) {
+                System.out.println("Error decrypting value: " + e.getMessage());
+            }
+            return null;
+        } finally {
+            if (metrics != null) {
+                metrics.record(ConfigMetrics.Event.DECRYPT, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Checks if this engine uses the given key material, in constant time.
+     *
+     * @param keyBytes the key material
+     * @return {@code true} if the key material is the key of this engine, {@code false} otherwise or once destroyed
+     */
+    boolean hasKey(byte[] keyBytes) {
+        byte[] key = secretKey.bytes;
+        return !secretKey.isDestroyed() && MessageDigest.isEqual(key, keyBytes);
+    }
+
+    /**
+     * Get a copy of the key material, to be wiped by the caller.
+     *
+     * @return a copy of the key material
+     * @throws IllegalStateException if the key was destroyed
+     */
+    byte[] copyKey() {
+        return secretKey.getEncoded();
+    }
+
+    /**
+     * Overwrites the key material with zeros and drops the ciphers of every thread.
+     * Encrypting or decrypting fails from then on, on any thread; a call already running on another thread
+     * finishes with the cipher it holds.
+     */
+    void destroy() {
+        secretKey.destroy();
+        encryptors.clear();
+        decryptors.clear();
+    }
+
+    /**
+     * Decrypts the given encrypted value like {@link #decrypt(String)}, without reporting failures.
+     * Used to probe values that may not be encrypted at all.
+     *
+     * @param encryptedValue The encrypted value in Base64 format
+     * @return The decrypted value as a string, or null if decryption fails
+     */
+    String decryptQuietly(String encryptedValue) {
+        try {
+            return doDecrypt(encryptedValue);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Decrypts the given encrypted value with the cipher of the current thread, recording the decryption.
+     *
+     * @param encryptedValue The encrypted value in Base64 format
+     * @return The decrypted value as a string
+     * @throws Exception if the value is not valid Base64 or cannot be decrypted
+     */
+    private String doDecrypt(String encryptedValue) throws Exception {
+        if (metrics == null) {
+            return decryptBytes(encryptedValue);
+        }
+        long start = System.nanoTime();
+        try {
+            return decryptBytes(encryptedValue);
+        } finally {
+            metrics.record(ConfigMetrics.Event.DECRYPT, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Decodes and decrypts the given encrypted value with the cipher of the current thread.
+     * The cipher is discarded on failure, so a broken state never leaks into the next call.
+     *
+     * @param encryptedValue The encrypted value in Base64 format
+     * @return The decrypted value as a string
+     * @throws Exception if the value is not valid Base64 or cannot be decrypted
+     */
+    private String decryptBytes(String encryptedValue) throws Exception {
+        byte[] encryptedBytes = Base64.getDecoder().decode(encryptedValue);
+        try {
+            byte[] decryptedBytes = decryptors.get().doFinal(encryptedBytes);
+            return new String(decryptedBytes);
+        } catch (Exception e) {
+            decryptors.remove();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a cipher initialized with the secret key.
+     * After each {@code doFinal} the cipher returns to this initialized state, so it can be reused.
+     *
+     * @param mode the cipher mode, {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}
+     * @return the initialized cipher
+     */
+    private Cipher newCipher(int mode) {
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(mode, secretKey);
+            return cipher;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize " + TRANSFORMATION + " cipher", e);
+        }
+    }
+
+    /**
+     * Ciphers of one direction, one per thread, each registered so {@link #clear()} can drop them from any thread.
+     * The registry holds its threads weakly, so the ciphers of the threads that ended are collected with them.
+     */
+    private final class ThreadCiphers {
+        private final int mode;
+        private final Map<Thread, Slot> slots = Collections.synchronizedMap(new WeakHashMap<>());
+        private final ThreadLocal<Slot> local = ThreadLocal.withInitial(this::register);
+
+        private ThreadCiphers(int mode) {
+            this.mode = mode;
+        }
+
+        /**
+         * Get the cipher of the current thread, creating it on first use.
+         *
+         * @return the initialized cipher
+         * @throws IllegalStateException if the key was destroyed
+         */
+        private Cipher get() {
+            Slot slot = local.get();
+            Cipher cipher = slot.cipher;
+            if (secretKey.isDestroyed()) {
+                throw new IllegalStateException("Secret key destroyed");
+            }
+            if (cipher == null) {
+                cipher = newCipher(mode);
+                slot.cipher = cipher;
+                if (secretKey.isDestroyed()) {
+                    slot.cipher = null;
+                    throw new IllegalStateException("Secret key destroyed");
+                }
+            }
+            return cipher;
+        }
+
+        /**
+         * Drops the cipher of the current thread, so the next call creates a new one.
+         */
+        private void remove() {
+            local.get().cipher = null;
+        }
+
+        /**
+         * Drops the ciphers of every thread.
+         */
+        private void clear() {
+            synchronized (slots) {
+                for (Slot slot : slots.values()) {
+                    slot.cipher = null;
+                }
+                slots.clear();
+            }
+        }
+
+        /**
+         * Registers the slot of the current thread.
+         *
+         * @return the new slot
+         */
+        private Slot register() {
+            Slot slot = new Slot();
+            slots.put(Thread.currentThread(), slot);
+            return slot;
+        }
+    }
+
+    /**
+     * Cipher of one thread, dropped by the owning thread or by {@link ThreadCiphers#clear()}.
+     */
+    private static final class Slot {
+        private volatile Cipher cipher;
+    }
+
+    /**
+     * AES key whose material can be overwritten with zeros, unlike a {@link javax.crypto.spec.SecretKeySpec}.
+     */
+    private static final class DestroyableKey implements SecretKey {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] bytes;
+        private volatile boolean destroyed;
+
+        private DestroyableKey(byte[] bytes) {
+            this.bytes = bytes.clone();
+        }
+
+        @Override
+        public String getAlgorithm() {
+            return "AES";
+        }
+
+        @Override
+        public String getFormat() {
+            return "RAW";
+        }
+
+        @Override
+        public byte[] getEncoded() {
+            if (destroyed) {
+                throw new IllegalStateException("Secret key destroyed");
+            }
+            return bytes.clone();
+        }
+
+        @Override
+        public void destroy() {
+            destroyed = true;
+            Arrays.fill(bytes, (byte) 0);
+        }
+
+        @Override
+        public boolean isDestroyed() {
+            return destroyed;
+        }
+    }
+
+    /**
+     * Decoder of the plaintext bytes of the current thread, reusing its array of plaintext bytes.
+     */
+    private static final class SecretDecoder {
+        private final CharsetDecoder decoder = Charset.defaultCharset().newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private byte[] plain = new byte[64];
+
+        /**
+         * Get the array of plaintext bytes, large enough for the given ciphertext.
+         *
+         * @param encryptedLength the length of the ciphertext
+         * @return the array of the current thread
+         */
+        private byte[] buffer(int encryptedLength) {
+            if (plain.length < encryptedLength) {
+                Arrays.fill(plain, (byte) 0);
+                plain = new byte[encryptedLength];
+            }
+            return plain;
+        }
+
+        /**
+         * Decodes plaintext bytes into a new secret held in direct memory.
+         *
+         * @param bytes  the plaintext bytes
+         * @param length the number of plaintext bytes
+         * @return the decoded secret
+         */
+        private ConfigSecret decode(byte[] bytes, int length) {
+            ByteBuffer in = ByteBuffer.wrap(bytes, 0, length);
+            ConfigSecret secret = new ConfigSecret((int) Math.ceil(length * (double) decoder.maxCharsPerByte()));
+            CharBuffer out = secret.writer();
+            decoder.reset();
+            CoderResult result = decoder.decode(in, out, true);
+            if (!result.isError()) {
+                result = decoder.flush(out);
+            }
+            if (result.isError() || result.isOverflow()) {
+                secret.destroy();
+                throw new IllegalStateException("Cannot decode the decrypted value");
+            }
+            secret.seal(out.position());
+            return secret;
+        }
+    }
+}
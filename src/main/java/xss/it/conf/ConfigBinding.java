@@ -0,0 +1,90 @@
+package xss.it.conf;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Typed, immutable snapshot of the properties under a namespace, created by {@link JConfig#bind(Class, String)}.
+ * The object is created once and created again only when one of its properties changes, through a setter,
+ * a transaction, a merge or a reload, so reading a setting costs a field read instead of a lookup and a parse.
+ * Changes to other properties only cost a set lookup per changed key.
+ *
+ * @param <T> the bound type
+ */
+public final class ConfigBinding<T> implements AutoCloseable {
+    private final JConfig config;
+    private final BindingPlan<T> plan;
+    private final ConfigChangeListener listener = this::changed;
+    private volatile T current;
+
+    /**
+     * Constructor for the ConfigBinding class.
+     *
+     * @param config the JConfig of the properties
+     * @param plan   the plan creating the bound objects
+     */
+    ConfigBinding(JConfig config, BindingPlan<T> plan) {
+        this.config = config;
+        this.plan = plan;
+        config.addChangeListener(listener);
+        refresh();
+    }
+
+    /**
+     * Get the object holding the current values of the bound properties.
+     * The same object is returned until one of the bound properties changes.
+     *
+     * @return the current object
+     */
+    public T get() {
+        config.revalidate();
+        return current;
+    }
+
+    /**
+     * Get the full keys of the bound properties.
+     *
+     * @return an unmodifiable set of the keys
+     */
+    public Set<String> getKeys() {
+        return plan.keys();
+    }
+
+    /**
+     * Stops following the changes of the properties. The last object is still returned by {@link #get()}.
+     */
+    @Override
+    public void close() {
+        config.removeChangeListener(listener);
+    }
+
+    /**
+     * Creates the object again if one of the bound properties changed.
+     *
+     * @param changes the changed properties
+     */
+    private void changed(List<ConfigChange> changes) {
+        Set<String> keys = plan.keys();
+        for (ConfigChange change : changes) {
+            if (keys.contains(change.getKey())) {
+                try {
+                    refresh();
+                } catch (RuntimeException e) {
+                    // Keep the previous object rather than failing the change
+                    e.printStackTrace();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Creates the object from the current values. Synchronized so that concurrent changes
+     * cannot publish an object built from older values last.
+     */
+    private synchronized void refresh() {
+        current = plan.create(config::current);
+    }
+}
@@ -0,0 +1,111 @@
+package xss.it.conf;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * A change of a single property, as reported to a {@link ConfigChangeListener}.
+ * Encrypted properties are reported with their encrypted key and values.
+ */
+public final class ConfigChange {
+    private final String key;
+    private final String oldValue;
+    private final String newValue;
+
+    /**
+     * Constructor for the ConfigChange class.
+     *
+     * @param key      the key of the property
+     * @param oldValue the value before the change, or null if the property was added
+     * @param newValue the value after the change, or null if the property was removed
+     */
+    public ConfigChange(String key, @Nullable String oldValue, @Nullable String newValue) {
+        this.key = key;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * Get the key of the changed property.
+     *
+     * @return the key of the property
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Get the value of the property before the change.
+     *
+     * @return the old value, or null if the property was added
+     */
+    @Nullable
+    public String getOldValue() {
+        return oldValue;
+    }
+
+    /**
+     * Get the value of the property after the change.
+     *
+     * @return the new value, or null if the property was removed
+     */
+    @Nullable
+    public String getNewValue() {
+        return newValue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ConfigChange)) {
+            return false;
+        }
+        ConfigChange that = (ConfigChange) o;
+        return key.equals(that.key) && Objects.equals(oldValue, that.oldValue) && Objects.equals(newValue, that.newValue);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, oldValue, newValue);
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigChange{" + key + ": " + oldValue + " -> " + newValue + "}";
+    }
+
+    /**
+     * Computes the changes between two versions of the properties.
+     *
+     * @param before the properties before the change
+     * @param after  the properties after the change
+     * @return the changed properties, empty if nothing changed
+     */
+    static List<ConfigChange> diff(Map<String, String> before, Map<String, String> after) {
+        List<ConfigChange> changes = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        after.forEach((key, newValue) -> {
+            String oldValue = before.get(key);
+            if (!newValue.equals(oldValue)) {
+                changes.add(new ConfigChange(key, oldValue, newValue));
+            }
+            seen.add(key);
+        });
+        before.forEach((key, oldValue) -> {
+            if (!seen.contains(key)) {
+                changes.add(new ConfigChange(key, oldValue, null));
+            }
+        });
+        return changes;
+    }
+}
@@ -0,0 +1,20 @@
+package xss.it.conf;
+
+import java.util.List;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Listener notified of the properties that changed in a {@link JConfig}, whether through its setters,
+ * {@link JConfig#copyFromResource} or a reload of the settings file.
+ */
+@FunctionalInterface
+public interface ConfigChangeListener {
+
+    /**
+     * Called after properties changed, with only the properties that actually changed.
+     *
+     * @param changes the changed properties, never empty
+     */
+    void changed(List<ConfigChange> changes);
+}
@@ -0,0 +1,382 @@
+package xss.it.conf;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Handle on the JConfig shared by every caller of {@link JConfig#open(String, String)} on the same settings file.
+ * Each call returns its own handle, so closing a handle releases exactly one reference to the shared instance,
+ * and closing it again does nothing. The listeners and bindings registered through a handle are removed when it is closed,
+ * and a closed handle throws {@link IllegalStateException}.
+ * The handle reads and writes the properties of the shared instance, but does not change its modes, its secret key
+ * or its cache sizes, since the other handles rely on them: use a JConfig created by a constructor for that.
+ */
+public final class ConfigHandle implements AutoCloseable {
+    private final JConfig config;
+    private final Path path;
+    private final List<ConfigChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<ConfigBinding<?>> bindings = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    /**
+     * Constructor for the ConfigHandle class.
+     *
+     * @param config the shared JConfig
+     * @param path   the canonical path of the settings file
+     */
+    ConfigHandle(JConfig config, Path path) {
+        this.config = config;
+        this.path = path;
+    }
+
+    /**
+     * Get the file path of the settings file.
+     *
+     * @return the canonical path of the settings file as a string
+     */
+    public String getFilePath() {
+        return config.getFilePath();
+    }
+
+    /**
+     * Get the value of a property as a string.
+     *
+     * @param key the key of the property
+     * @return the value of the property as a string, or null if the property does not exist
+     * @see JConfig#get(String)
+     */
+    public String get(String key) {
+        return open().get(key);
+    }
+
+    /**
+     * Get the decrypted value of a property.
+     *
+     * @param key the key of the property
+     * @return the decrypted value of the property as a string, or null if the property does not exist
+     * @throws NullSecretKeyException if the secret key is null
+     * @see JConfig#getDecrypted(String)
+     */
+    public String getDecrypted(String key) {
+        return open().getDecrypted(key);
+    }
+
+    /**
+     * Get the decrypted value of a property as a read-only view of direct memory.
+     *
+     * @param key the key of the property
+     * @return the decrypted value of the property, or null if the property does not exist or cannot be decrypted
+     * @throws NullSecretKeyException if the secret key is null
+     * @see JConfig#getSecret(String)
+     */
+    @Nullable
+    public ConfigSecret getSecret(String key) {
+        return open().getSecret(key);
+    }
+
+    /**
+     * Get the value of a property as an integer.
+     *
+     * @param key the key of the property
+     * @return the value of the property as an integer, or -1 if the property does not exist or cannot be parsed as an integer
+     */
+    public int getInteger(String key) {
+        return open().getInteger(key);
+    }
+
+    /**
+     * Get the value of a property as a double.
+     *
+     * @param key the key of the property
+     * @return the value of the property as a double, or -1.0 if the property does not exist or cannot be parsed as a double
+     */
+    public double getDouble(String key) {
+        return open().getDouble(key);
+    }
+
+    /**
+     * Get the value of a property as a long.
+     *
+     * @param key the key of the property
+     * @return the value of the property as a long, or -1L if the property does not exist or cannot be parsed as a long
+     */
+    public long getLong(String key) {
+        return open().getLong(key);
+    }
+
+    /**
+     * Get the value of a property as a float.
+     *
+     * @param key the key of the property
+     * @return the value of the property as a float, or -1.0 if the property does not exist or cannot be parsed as a float
+     */
+    public float getFloat(String key) {
+        return open().getFloat(key);
+    }
+
+    /**
+     * Get the value of a property as a boolean.
+     *
+     * @param key the key of the property
+     * @return the value of the property as a boolean, or false if the property does not exist or cannot be parsed as a boolean
+     */
+    public Boolean getBoolean(String key) {
+        return open().getBoolean(key);
+    }
+
+    /**
+     * Checks if a value is set for the specified key.
+     *
+     * @param key The key to check.
+     * @return {@code true} if a value is set for the key, {@code false} otherwise.
+     */
+    public boolean isSet(String key) {
+        return open().isSet(key);
+    }
+
+    /**
+     * Get the properties whose key starts with the given prefix.
+     *
+     * @param prefix the prefix of the keys, matched as is
+     * @return an unmodifiable copy of the matching properties, sorted by key
+     * @see JConfig#getByPrefix(String)
+     */
+    public Map<String, String> getByPrefix(String prefix) {
+        return open().getByPrefix(prefix);
+    }
+
+    /**
+     * Get a view of the properties under a namespace.
+     *
+     * @param namespace the namespace, with or without its trailing dot
+     * @return the view of the namespace
+     * @throws IllegalArgumentException if the namespace is empty
+     */
+    public ConfigScope scope(String namespace) {
+        return open().scope(namespace);
+    }
+
+    /**
+     * Binds the properties under a namespace to a record or a class. The binding is closed with the handle.
+     *
+     * @param type      the record, or the class with a no-argument constructor, to bind
+     * @param namespace the namespace, with or without its trailing dot, or empty for the top-level keys
+     * @param <T>       the bound type
+     * @return the binding
+     * @throws IllegalArgumentException if the type cannot be created or has a field of an unsupported type
+     * @see JConfig#bind(Class, String)
+     */
+    public <T> ConfigBinding<T> bind(Class<T> type, String namespace) {
+        ConfigBinding<T> binding = open().bind(type, namespace);
+        bindings.add(binding);
+        return binding;
+    }
+
+    /**
+     * Set or update the value of a property.
+     *
+     * @param key   the key of the property
+     * @param value the value to be set
+     */
+    public void set(String key, String value) {
+        open().set(key, value);
+    }
+
+    /**
+     * Set or update the value of a property, saving the file asynchronously.
+     *
+     * @param key   the key of the property
+     * @param value the value to be set
+     * @return a future completed once the change is saved, or completed exceptionally if the save failed
+     */
+    public CompletableFuture<Void> setAsync(String key, String value) {
+        return open().setAsync(key, value);
+    }
+
+    /**
+     * Set or update the value of a property with encryption.
+     *
+     * @param key   the key of the property
+     * @param value the value to be set
+     * @throws NullSecretKeyException if the secret key is null
+     */
+    public void setEncrypted(String key, String value) {
+        open().setEncrypted(key, value);
+    }
+
+    /**
+     * Set or update the value of a property as an integer.
+     *
+     * @param key   the key of the property
+     * @param value the integer value to be set
+     */
+    public void setInteger(String key, int value) {
+        open().setInteger(key, value);
+    }
+
+    /**
+     * Set or update the value of a property as a double.
+     *
+     * @param key   the key of the property
+     * @param value the double value to be set
+     */
+    public void setDouble(String key, double value) {
+        open().setDouble(key, value);
+    }
+
+    /**
+     * Set or update the value of a property as a long.
+     *
+     * @param key   the key of the property
+     * @param value the long value to be set
+     */
+    public void setLong(String key, long value) {
+        open().setLong(key, value);
+    }
+
+    /**
+     * Set or update the value of a key as a float.
+     *
+     * @param key   the key of the property
+     * @param value the value to be set as a float
+     */
+    public void setFloat(String key, float value) {
+        open().setFloat(key, value);
+    }
+
+    /**
+     * Set or update the value of a property as a boolean.
+     *
+     * @param key   the key of the property
+     * @param value the boolean value to be set
+     */
+    public void setBoolean(String key, boolean value) {
+        open().setBoolean(key, value);
+    }
+
+    /**
+     * Set or update several properties as a single batch.
+     *
+     * @param entries the properties to set
+     */
+    public void setAll(Map<String, String> entries) {
+        open().setAll(entries);
+    }
+
+    /**
+     * Set or update several properties as a single batch.
+     *
+     * @param changes the action making the changes
+     * @throws NullSecretKeyException if a value is set with encryption and the secret key is null
+     * @throws IllegalStateException  if a value cannot be encrypted, in which case nothing is applied
+     * @see JConfig#update(Consumer)
+     */
+    public void update(Consumer<ConfigTransaction> changes) {
+        open().update(changes);
+    }
+
+    /**
+     * Saves every property to the file asynchronously.
+     *
+     * @return a future completed once a save including every change made so far finished
+     * @see JConfig#saveAsync()
+     */
+    public CompletableFuture<Void> saveAsync() {
+        return open().saveAsync();
+    }
+
+    /**
+     * Saves the pending changes of the write-behind mode to the file now.
+     *
+     * @throws IOException if the file cannot be saved, in which case the changes stay pending and are retried
+     */
+    public void flush() throws IOException {
+        open().flush();
+    }
+
+    /**
+     * Reloads the settings from the file and notifies the listeners of the properties that actually changed.
+     *
+     * @return the changed properties, empty if nothing changed or the file cannot be read
+     * @see JConfig#reload()
+     */
+    public List<ConfigChange> reload() {
+        return open().reload();
+    }
+
+    /**
+     * Registers a listener notified of the properties that change, until the handle is closed.
+     *
+     * @param listener the listener to add
+     */
+    public void addChangeListener(ConfigChangeListener listener) {
+        JConfig current = open();
+        listeners.add(listener);
+        current.addChangeListener(listener);
+    }
+
+    /**
+     * Unregisters a listener of the properties that change.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeChangeListener(ConfigChangeListener listener) {
+        if (listeners.remove(listener)) {
+            config.removeChangeListener(listener);
+        }
+    }
+
+    /**
+     * Checks if the handle was closed.
+     *
+     * @return {@code true} if the handle was closed, {@code false} otherwise
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Releases the handle: removes its listeners and bindings, and closes the shared instance if this was its
+     * last handle. Closing a handle again does nothing.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        for (ConfigBinding<?> binding : bindings) {
+            binding.close();
+        }
+        bindings.clear();
+        for (ConfigChangeListener listener : listeners) {
+            config.removeChangeListener(listener);
+        }
+        listeners.clear();
+        ConfigRegistry.close(path, config);
+    }
+
+    /**
+     * Get the shared instance, checking that the handle is still open.
+     *
+     * @return the shared instance
+     * @throws IllegalStateException if the handle was closed
+     */
+    private JConfig open() {
+        if (closed) {
+            throw new IllegalStateException("Handle closed: " + path);
+        }
+        return config;
+    }
+}
@@ -0,0 +1,24 @@
+package xss.it.conf;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Sets the key a field or a record component is bound to by {@link JConfig#bind(Class, String)},
+ * relative to the namespace of the binding. Without it, the key is the name of the field or component.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.RECORD_COMPONENT})
+public @interface ConfigKey {
+
+    /**
+     * Get the key of the property, relative to the namespace of the binding.
+     *
+     * @return the relative key
+     */
+    String value();
+}
@@ -0,0 +1,425 @@
+package xss.it.conf;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Metrics of a {@link JConfig}: call counts, cache hits and misses, save and load latencies, bytes written,
+ * encryption costs, parse failures and swallowed I/O errors.
+ * The metrics are enabled for the JConfig instances created while the {@value #ENABLED_PROPERTY} system property
+ * is {@code true}. Each such instance registers its metrics as an MBean named
+ * {@code xss.it.conf:type=JConfig,file=<path>,id=<n>} until it is closed, and notifies the
+ * {@linkplain #addListener(ConfigMetricsListener) listeners} of every event.
+ * Counters are striped, so recording from many threads does not contend. When the metrics are disabled,
+ * the JConfig does not record anything, and the cost is a null check of a final field per operation.
+ */
+public final class ConfigMetrics implements ConfigMetricsMBean {
+    /**
+     * The system property enabling the metrics of the JConfig instances created afterwards.
+     */
+    public static final String ENABLED_PROPERTY = "xss.it.conf.metrics";
+
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private final String filePath;
+    private final LongAdder[] counts = new LongAdder[Event.values().length];
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Event.values().length];
+    private final List<ConfigMetricsListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile ObjectName name;
+
+    /**
+     * Constructor for the ConfigMetrics class.
+     *
+     * @param filePath the path of the settings file of the JConfig
+     */
+    ConfigMetrics(String filePath) {
+        this.filePath = filePath;
+        for (Event event : Event.values()) {
+            if (event.isTimed()) {
+                latencies[event.ordinal()] = new LatencyHistogram();
+            } else {
+                counts[event.ordinal()] = new LongAdder();
+            }
+        }
+    }
+
+    /**
+     * Checks if the metrics are enabled for the JConfig instances created now.
+     *
+     * @return {@code true} if the {@value #ENABLED_PROPERTY} system property is {@code true}, {@code false} otherwise
+     */
+    static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Records a single occurrence of an event that is not timed.
+     *
+     * @param event the event
+     */
+    void record(Event event) {
+        record(event, 1L);
+    }
+
+    /**
+     * Records an event and notifies the listeners.
+     *
+     * @param event the event
+     * @param value the duration in nanoseconds for a timed event, the number of bytes for
+     *              {@link Event#BYTES_WRITTEN}, or the number of occurrences otherwise
+     */
+    void record(Event event, long value) {
+        if (event.isTimed()) {
+            latencies[event.ordinal()].record(value);
+        } else {
+            counts[event.ordinal()].add(value);
+        }
+        if (listeners.isEmpty()) {
+            return;
+        }
+        for (ConfigMetricsListener listener : listeners) {
+            try {
+                listener.recorded(event, value);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Registers a listener notified of every recorded event.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(ConfigMetricsListener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Unregisters a listener of the recorded events.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(ConfigMetricsListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Get the number of occurrences of an event.
+     *
+     * @param event the event
+     * @return the number of occurrences, or the number of bytes for {@link Event#BYTES_WRITTEN}
+     */
+    public long getCount(Event event) {
+        return event.isTimed() ? latencies[event.ordinal()].getCount() : counts[event.ordinal()].sum();
+    }
+
+    /**
+     * Get the total duration of a timed event.
+     *
+     * @param event the event
+     * @return the total duration in nanoseconds, 0 if the event is not timed
+     */
+    public long getTimeNanos(Event event) {
+        return event.isTimed() ? latencies[event.ordinal()].getTotalNanos() : 0L;
+    }
+
+    /**
+     * Get an approximate percentile of the duration of a timed event.
+     * The value is the upper bound of a power-of-two bucket, so it is within a factor of two of the exact one.
+     *
+     * @param event      the event
+     * @param percentile the percentile, between 0 and 100
+     * @return the duration in nanoseconds, 0 if the event is not timed or was never recorded
+     */
+    public long getLatencyNanos(Event event, double percentile) {
+        return event.isTimed() ? latencies[event.ordinal()].getPercentileNanos(percentile) : 0L;
+    }
+
+    /**
+     * Get the longest duration of a timed event.
+     *
+     * @param event the event
+     * @return the longest duration in nanoseconds, 0 if the event is not timed or was never recorded
+     */
+    public long getMaxLatencyNanos(Event event) {
+        return event.isTimed() ? latencies[event.ordinal()].getMaxNanos() : 0L;
+    }
+
+    /**
+     * Get the JMX name of these metrics.
+     *
+     * @return the name of the registered MBean, or null if it is not registered
+     */
+    public ObjectName getObjectName() {
+        return name;
+    }
+
+    @Override
+    public String getFilePath() {
+        return filePath;
+    }
+
+    @Override
+    public long getGetCount() {
+        return getCount(Event.GET);
+    }
+
+    @Override
+    public long getTypedGetCount() {
+        return getCount(Event.TYPED_GET);
+    }
+
+    @Override
+    public long getDecryptedGetCount() {
+        return getCount(Event.DECRYPTED_GET);
+    }
+
+    @Override
+    public long getTypedCacheHits() {
+        return getCount(Event.TYPED_CACHE_HIT);
+    }
+
+    @Override
+    public long getTypedCacheMisses() {
+        return getCount(Event.TYPED_CACHE_MISS);
+    }
+
+    @Override
+    public long getDecryptedCacheHits() {
+        return getCount(Event.DECRYPTED_CACHE_HIT);
+    }
+
+    @Override
+    public long getDecryptedCacheMisses() {
+        return getCount(Event.DECRYPTED_CACHE_MISS);
+    }
+
+    @Override
+    public long getSetCount() {
+        return getCount(Event.SET);
+    }
+
+    @Override
+    public long getSaveCount() {
+        return getCount(Event.SAVE);
+    }
+
+    @Override
+    public long getSaveTimeNanos() {
+        return getTimeNanos(Event.SAVE);
+    }
+
+    @Override
+    public long getSaveLatencyP50Nanos() {
+        return getLatencyNanos(Event.SAVE, 50);
+    }
+
+    @Override
+    public long getSaveLatencyP99Nanos() {
+        return getLatencyNanos(Event.SAVE, 99);
+    }
+
+    @Override
+    public long getSaveLatencyMaxNanos() {
+        return getMaxLatencyNanos(Event.SAVE);
+    }
+
+    @Override
+    public long getLoadCount() {
+        return getCount(Event.LOAD);
+    }
+
+    @Override
+    public long getLoadTimeNanos() {
+        return getTimeNanos(Event.LOAD);
+    }
+
+    @Override
+    public long getLoadLatencyP50Nanos() {
+        return getLatencyNanos(Event.LOAD, 50);
+    }
+
+    @Override
+    public long getLoadLatencyP99Nanos() {
+        return getLatencyNanos(Event.LOAD, 99);
+    }
+
+    @Override
+    public long getLoadLatencyMaxNanos() {
+        return getMaxLatencyNanos(Event.LOAD);
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return getCount(Event.BYTES_WRITTEN);
+    }
+
+    @Override
+    public long getEncryptCount() {
+        return getCount(Event.ENCRYPT);
+    }
+
+    @Override
+    public long getEncryptTimeNanos() {
+        return getTimeNanos(Event.ENCRYPT);
+    }
+
+    @Override
+    public long getDecryptCount() {
+        return getCount(Event.DECRYPT);
+    }
+
+    @Override
+    public long getDecryptTimeNanos() {
+        return getTimeNanos(Event.DECRYPT);
+    }
+
+    @Override
+    public long getParseFailures() {
+        return getCount(Event.PARSE_FAILURE);
+    }
+
+    @Override
+    public long getIoErrors() {
+        return getCount(Event.IO_ERROR);
+    }
+
+    @Override
+    public void reset() {
+        for (Event event : Event.values()) {
+            if (event.isTimed()) {
+                latencies[event.ordinal()].reset();
+            } else {
+                counts[event.ordinal()].reset();
+            }
+        }
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server.
+     * A failure is printed and otherwise ignored, since the metrics stay readable through the JConfig.
+     */
+    synchronized void register() {
+        if (name != null) {
+            return;
+        }
+        try {
+            ObjectName objectName = new ObjectName("xss.it.conf:type=JConfig,file="
+                    + ObjectName.quote(filePath) + ",id=" + IDS.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            name = objectName;
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Unregisters these metrics from the platform MBean server, if they are registered.
+     */
+    synchronized void unregister() {
+        ObjectName objectName = name;
+        if (objectName == null) {
+            return;
+        }
+        name = null;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Represents the events recorded by the metrics.
+     */
+    public enum Event {
+        /**
+         * A call to {@link JConfig#get(String)}.
+         */
+        GET(false),
+        /**
+         * A call to a typed getter, like {@link JConfig#getInteger(String)}.
+         */
+        TYPED_GET(false),
+        /**
+         * A call to {@link JConfig#getDecrypted(String)}.
+         */
+        DECRYPTED_GET(false),
+        /**
+         * A typed read served from the cache of parsed values.
+         */
+        TYPED_CACHE_HIT(false),
+        /**
+         * A typed read that parsed the value.
+         */
+        TYPED_CACHE_MISS(false),
+        /**
+         * A decrypted read served from the cache of decrypted values.
+         */
+        DECRYPTED_CACHE_HIT(false),
+        /**
+         * A decrypted read that decrypted the value.
+         */
+        DECRYPTED_CACHE_MISS(false),
+        /**
+         * Properties set, a batch counting each of its properties.
+         */
+        SET(false),
+        /**
+         * A save of the whole settings file, successful or not.
+         */
+        SAVE(true),
+        /**
+         * A load or a reload of the settings file, successful or not.
+         */
+        LOAD(true),
+        /**
+         * Bytes written to the settings file, its journal or its snapshot.
+         */
+        BYTES_WRITTEN(false),
+        /**
+         * An encryption of a key or a value.
+         */
+        ENCRYPT(true),
+        /**
+         * A decryption of a key or a value.
+         */
+        DECRYPT(true),
+        /**
+         * A typed read that returned the default value because the value cannot be parsed.
+         */
+        PARSE_FAILURE(false),
+        /**
+         * An I/O error that was printed and otherwise ignored.
+         */
+        IO_ERROR(false);
+
+        private final boolean timed;
+
+        Event(boolean timed) {
+            this.timed = timed;
+        }
+
+        /**
+         * Checks if the event is recorded with its duration.
+         *
+         * @return {@code true} if the event is timed, {@code false} if it is only counted
+         */
+        public boolean isTimed() {
+            return timed;
+        }
+    }
+}
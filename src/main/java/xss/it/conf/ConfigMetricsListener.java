@@ -0,0 +1,22 @@
+package xss.it.conf;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Listener notified of every event recorded by the {@link ConfigMetrics} of a {@link JConfig},
+ * to forward them to a metrics library. It is called on the thread doing the operation, including
+ * the read paths, so it must be fast and must not call back into the JConfig.
+ */
+@FunctionalInterface
+public interface ConfigMetricsListener {
+
+    /**
+     * Called after an event was recorded.
+     *
+     * @param event the recorded event
+     * @param value the duration in nanoseconds for a {@linkplain ConfigMetrics.Event#isTimed() timed} event,
+     *              the number of bytes for {@link ConfigMetrics.Event#BYTES_WRITTEN}, or the number of
+     *              occurrences otherwise
+     */
+    void recorded(ConfigMetrics.Event event, long value);
+}
@@ -0,0 +1,197 @@
+package xss.it.conf;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * JMX management interface of {@link ConfigMetrics}, registered for each JConfig created with
+ * the metrics enabled. Durations are in nanoseconds, and percentiles are approximated within a factor of two.
+ */
+public interface ConfigMetricsMBean {
+
+    /**
+     * Get the path of the settings file of the JConfig.
+     *
+     * @return the file path as a string
+     */
+    String getFilePath();
+
+    /**
+     * Get the number of {@link JConfig#get(String)} calls.
+     *
+     * @return the number of calls
+     */
+    long getGetCount();
+
+    /**
+     * Get the number of typed getter calls, like {@link JConfig#getInteger(String)}.
+     *
+     * @return the number of calls
+     */
+    long getTypedGetCount();
+
+    /**
+     * Get the number of {@link JConfig#getDecrypted(String)} calls.
+     *
+     * @return the number of calls
+     */
+    long getDecryptedGetCount();
+
+    /**
+     * Get the number of typed reads served from the cache of parsed values.
+     *
+     * @return the number of cache hits
+     */
+    long getTypedCacheHits();
+
+    /**
+     * Get the number of typed reads that parsed the value.
+     *
+     * @return the number of cache misses
+     */
+    long getTypedCacheMisses();
+
+    /**
+     * Get the number of decrypted reads served from the cache of decrypted values.
+     *
+     * @return the number of cache hits
+     */
+    long getDecryptedCacheHits();
+
+    /**
+     * Get the number of decrypted reads that decrypted the value.
+     *
+     * @return the number of cache misses
+     */
+    long getDecryptedCacheMisses();
+
+    /**
+     * Get the number of properties set, a batch counting each of its properties.
+     *
+     * @return the number of properties set
+     */
+    long getSetCount();
+
+    /**
+     * Get the number of saves of the whole settings file.
+     *
+     * @return the number of saves
+     */
+    long getSaveCount();
+
+    /**
+     * Get the total duration of the saves of the whole settings file.
+     *
+     * @return the total duration in nanoseconds
+     */
+    long getSaveTimeNanos();
+
+    /**
+     * Get the median duration of a save of the whole settings file.
+     *
+     * @return the approximate median duration in nanoseconds
+     */
+    long getSaveLatencyP50Nanos();
+
+    /**
+     * Get the 99th percentile of the duration of a save of the whole settings file.
+     *
+     * @return the approximate 99th percentile in nanoseconds
+     */
+    long getSaveLatencyP99Nanos();
+
+    /**
+     * Get the longest save of the whole settings file.
+     *
+     * @return the longest duration in nanoseconds
+     */
+    long getSaveLatencyMaxNanos();
+
+    /**
+     * Get the number of loads and reloads of the settings file.
+     *
+     * @return the number of loads
+     */
+    long getLoadCount();
+
+    /**
+     * Get the total duration of the loads and reloads of the settings file.
+     *
+     * @return the total duration in nanoseconds
+     */
+    long getLoadTimeNanos();
+
+    /**
+     * Get the median duration of a load of the settings file.
+     *
+     * @return the approximate median duration in nanoseconds
+     */
+    long getLoadLatencyP50Nanos();
+
+    /**
+     * Get the 99th percentile of the duration of a load of the settings file.
+     *
+     * @return the approximate 99th percentile in nanoseconds
+     */
+    long getLoadLatencyP99Nanos();
+
+    /**
+     * Get the longest load of the settings file.
+     *
+     * @return the longest duration in nanoseconds
+     */
+    long getLoadLatencyMaxNanos();
+
+    /**
+     * Get the number of bytes written to the settings file, its journal and its snapshot.
+     *
+     * @return the number of bytes written
+     */
+    long getBytesWritten();
+
+    /**
+     * Get the number of encryptions, of keys and values alike.
+     *
+     * @return the number of encryptions
+     */
+    long getEncryptCount();
+
+    /**
+     * Get the total duration of the encryptions.
+     *
+     * @return the total duration in nanoseconds
+     */
+    long getEncryptTimeNanos();
+
+    /**
+     * Get the number of decryptions, of keys and values alike.
+     *
+     * @return the number of decryptions
+     */
+    long getDecryptCount();
+
+    /**
+     * Get the total duration of the decryptions.
+     *
+     * @return the total duration in nanoseconds
+     */
+    long getDecryptTimeNanos();
+
+    /**
+     * Get the number of typed reads that returned the default value because the value cannot be parsed.
+     *
+     * @return the number of parse failures
+     */
+    long getParseFailures();
+
+    /**
+     * Get the number of I/O errors that were printed and otherwise ignored.
+     *
+     * @return the number of swallowed I/O errors
+     */
+    long getIoErrors();
+
+    /**
+     * Clears every counter and histogram.
+     */
+    void reset();
+}
@@ -0,0 +1,133 @@
+package xss.it.conf;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Registry of the JConfig instances opened by {@link JConfig#open(String, String)}, one per canonical path
+ * of settings file, counting the handles given out so the instance is closed by the last one.
+ * The last close runs outside the registry lock, so a pending save of one file never blocks opening another;
+ * opening the same file again waits for it, so the file is never loaded by a new instance while the previous
+ * one is still saving it.
+ */
+final class ConfigRegistry {
+    private static final Map<Path, Entry> OPEN = new HashMap<>();
+
+    private ConfigRegistry() {
+    }
+
+    /**
+     * Get the canonical path of a settings file: absolute, normalized and with symbolic links resolved.
+     * If the file does not exist yet, the links of its directory are resolved.
+     *
+     * @param filePath the path of the settings file
+     * @return the canonical path
+     */
+    static Path canonical(String filePath) {
+        Path path = Paths.get(filePath).toAbsolutePath().normalize();
+        try {
+            return path.toRealPath();
+        } catch (IOException e) {
+            // The file does not exist yet
+        }
+        Path parent = path.getParent();
+        if (parent != null) {
+            try {
+                return parent.toRealPath().resolve(path.getFileName());
+            } catch (IOException e) {
+                // Neither does its directory
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Get a handle on the instance open on a path, creating it if there is none.
+     *
+     * @param path       the canonical path of the settings file
+     * @param factory    the factory of the instance, called if the path is not open
+     * @param compatible the check that the open instance can be shared with the caller
+     * @return the instance open on the path
+     * @throws IllegalArgumentException if the open instance cannot be shared with the caller
+     */
+    static synchronized JConfig open(Path path, Supplier<JConfig> factory, Predicate<JConfig> compatible) {
+        Entry entry = OPEN.get(path);
+        while (entry != null && entry.closing) {
+            try {
+                ConfigRegistry.class.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while " + path + " is closing", e);
+            }
+            entry = OPEN.get(path);
+        }
+        if (entry == null) {
+            entry = new Entry(factory.get());
+            OPEN.put(path, entry);
+        } else if (!compatible.test(entry.config)) {
+            throw new IllegalArgumentException(path + " is already open with another secret key");
+        }
+        entry.handles++;
+        return entry.config;
+    }
+
+    /**
+     * Releases a handle on the instance open on a path, closing it if it was the last one.
+     * Does nothing if the instance is no longer open.
+     *
+     * @param path   the canonical path of the settings file
+     * @param config the instance whose handle is released
+     */
+    static void close(Path path, JConfig config) {
+        Entry entry;
+        synchronized (ConfigRegistry.class) {
+            entry = OPEN.get(path);
+            if (entry == null || entry.config != config || entry.closing) {
+                return;
+            }
+            if (--entry.handles > 0) {
+                return;
+            }
+            entry.closing = true;
+        }
+        try {
+            config.close();
+        } finally {
+            synchronized (ConfigRegistry.class) {
+                OPEN.remove(path);
+                ConfigRegistry.class.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Get the number of handles on the instance open on a path.
+     *
+     * @param path the canonical path of the settings file
+     * @return the number of open handles, 0 if the path is not open
+     */
+    static synchronized int handles(Path path) {
+        Entry entry = OPEN.get(path);
+        return entry != null ? entry.handles : 0;
+    }
+
+    /**
+     * An open instance and the number of handles on it.
+     */
+    private static final class Entry {
+        private final JConfig config;
+        private int handles;
+        private boolean closing;
+
+        private Entry(JConfig config) {
+            this.config = config;
+        }
+    }
+}
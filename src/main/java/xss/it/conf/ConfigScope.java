@@ -0,0 +1,190 @@
+package xss.it.conf;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * View of the properties of a {@link JConfig} under a namespace, created by {@link JConfig#scope(String)}.
+ * Keys are relative to the namespace, so {@code get("url")} in the {@code database} scope reads {@code database.url}.
+ * The full key of each relative key is kept once built, so repeated reads do not concatenate strings.
+ * The view holds no properties itself and always reads the current ones.
+ */
+public final class ConfigScope {
+    /**
+     * The maximum number of full keys kept; further keys are built on every call.
+     */
+    private static final int MAX_KEYS = 1024;
+
+    private final JConfig config;
+    private final String prefix;
+    private final Map<String, String> keys = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for the ConfigScope class.
+     *
+     * @param config    the JConfig of the properties
+     * @param namespace the namespace, with or without its trailing dot
+     * @throws IllegalArgumentException if the namespace is empty
+     */
+    ConfigScope(JConfig config, String namespace) {
+        if (namespace.isEmpty() || namespace.equals(".")) {
+            throw new IllegalArgumentException("Namespace must not be empty");
+        }
+        this.config = config;
+        this.prefix = namespace.endsWith(".") ? namespace : namespace + '.';
+    }
+
+    /**
+     * Get the prefix of the keys of this scope.
+     *
+     * @return the namespace followed by a dot
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Get the full key of a property of this scope.
+     *
+     * @param key the key of the property, relative to the namespace
+     * @return the key of the property in the JConfig
+     */
+    public String key(String key) {
+        String full = keys.get(key);
+        if (full == null) {
+            full = prefix + key;
+            if (keys.size() < MAX_KEYS) {
+                keys.putIfAbsent(key, full);
+            }
+        }
+        return full;
+    }
+
+    /**
+     * Get a view of a namespace nested in this one.
+     *
+     * @param namespace the nested namespace, with or without its trailing dot
+     * @return the view of the nested namespace
+     * @throws IllegalArgumentException if the namespace is empty
+     */
+    public ConfigScope scope(String namespace) {
+        return new ConfigScope(config, key(namespace));
+    }
+
+    /**
+     * Get every property of this scope, including those of nested namespaces.
+     *
+     * @return an unmodifiable copy of the properties keyed relative to the namespace, sorted by key
+     */
+    public Map<String, String> getAll() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        config.getByPrefix(prefix).forEach((key, value) -> entries.put(key.substring(prefix.length()), value));
+        return Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * Set or update the value of a property of this scope.
+     *
+     * @param key   the key of the property, relative to the namespace
+     * @param value the value to be set
+     */
+    public void set(String key, String value) {
+        config.set(key(key), value);
+    }
+
+    /**
+     * Set or update the value of a property of this scope with encryption.
+     *
+     * @param key   the key of the property, relative to the namespace
+     * @param value the value to be set
+     * @throws NullSecretKeyException if the secret key is null
+     */
+    public void setEncrypted(String key, String value) {
+        config.setEncrypted(key(key), value);
+    }
+
+    /**
+     * Get the value of a property of this scope as a string.
+     *
+     * @param key the key of the property, relative to the namespace
+     * @return the value of the property as a string, or null if the property does not exist
+     */
+    public String get(String key) {
+        return config.get(key(key));
+    }
+
+    /**
+     * Get the decrypted value of a property of this scope.
+     *
+     * @param key the key of the property, relative to the namespace
+     * @return the decrypted value of the property as a string, or null if the property does not exist
+     * @throws NullSecretKeyException if the secret key is null
+     */
+    public String getDecrypted(String key) {
+        return config.getDecrypted(key(key));
+    }
+
+    /**
+     * Get the value of a property of this scope as an integer.
+     *
+     * @param key the key of the property, relative to the namespace
+     * @return the value of the property as an integer, or -1 if the property does not exist or cannot be parsed as an integer
+     */
+    public int getInteger(String key) {
+        return config.getInteger(key(key));
+    }
+
+    /**
+     * Get the value of a property of this scope as a double.
+     *
+     * @param key the key of the property, relative to the namespace
+     * @return the value of the property as a double, or -1.0 if the property does not exist or cannot be parsed as a double
+     */
+    public double getDouble(String key) {
+        return config.getDouble(key(key));
+    }
+
+    /**
+     * Get the value of a property of this scope as a long.
+     *
+     * @param key the key of the property, relative to the namespace
+     * @return the value of the property as a long, or -1L if the property does not exist or cannot be parsed as a long
+     */
+    public long getLong(String key) {
+        return config.getLong(key(key));
+    }
+
+    /**
+     * Get the value of a property of this scope as a float.
+     *
+     * @param key the key of the property, relative to the namespace
+     * @return the value of the property as a float, or -1.0 if the property does not exist or cannot be parsed as a float
+     */
+    public float getFloat(String key) {
+        return config.getFloat(key(key));
+    }
+
+    /**
+     * Get the value of a property of this scope as a boolean.
+     *
+     * @param key the key of the property, relative to the namespace
+     * @return the value of the property as a boolean, or false if the property does not exist or cannot be parsed as a boolean
+     */
+    public boolean getBoolean(String key) {
+        return config.getBoolean(key(key));
+    }
+
+    /**
+     * Checks if a value is set for a key of this scope.
+     *
+     * @param key the key to check, relative to the namespace
+     * @return {@code true} if a value is set for the key, {@code false} otherwise
+     */
+    public boolean isSet(String key) {
+        return config.isSet(key(key));
+    }
+}
@@ -0,0 +1,175 @@
+package xss.it.conf;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Read-only view of a decrypted value held in direct memory, outside the heap, returned by {@link JConfig#getSecret(String)}.
+ * The characters are never copied into a {@link String}, so the garbage collector does not move copies of them around,
+ * and the memory is overwritten with zeros once the value is no longer held: when the property changes, when the value
+ * is evicted from the secrets kept by the JConfig, or when the JConfig is closed or its key rotated or destroyed.
+ * The same view is returned while the value is held, so reading a secret repeatedly allocates nothing.
+ * Read it right away, or copy it with {@link #getChars(char[], int)}, rather than keeping the view.
+ * Every read checks again, after reading, that the value was not destroyed meanwhile, so a read racing with the
+ * destruction throws {@link IllegalStateException} rather than returning characters already overwritten.
+ */
+public final class ConfigSecret {
+    private final ByteBuffer memory;
+    private final CharBuffer chars;
+    private int length;
+    private volatile boolean destroyed;
+
+    /**
+     * Constructor for the ConfigSecret class.
+     *
+     * @param capacity the maximum number of characters of the value
+     */
+    ConfigSecret(int capacity) {
+        this.memory = ByteBuffer.allocateDirect(capacity * Character.BYTES);
+        this.chars = memory.asCharBuffer();
+    }
+
+    /**
+     * Get the number of characters of the value.
+     *
+     * @return the length of the value
+     * @throws IllegalStateException if the value was destroyed
+     */
+    public int length() {
+        checkValid();
+        int result = length;
+        validate();
+        return result;
+    }
+
+    /**
+     * Get a character of the value.
+     *
+     * @param index the index of the character
+     * @return the character
+     * @throws IndexOutOfBoundsException if the index is negative or not less than {@link #length()}
+     * @throws IllegalStateException     if the value was destroyed
+     */
+    public char charAt(int index) {
+        checkValid();
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+        char result = chars.get(index);
+        validate();
+        return result;
+    }
+
+    /**
+     * Copies the characters of the value into an array, which the caller should overwrite once done with it.
+     * If the value is destroyed during the copy, the characters copied are overwritten with zeros before throwing.
+     *
+     * @param destination the array receiving the characters
+     * @param offset      the index in the array of the first character
+     * @throws IndexOutOfBoundsException if the array cannot hold the value at the offset
+     * @throws IllegalStateException     if the value was destroyed
+     */
+    public void getChars(char[] destination, int offset) {
+        checkValid();
+        int count = length;
+        chars.get(0, destination, offset, count);
+        try {
+            validate();
+        } catch (IllegalStateException e) {
+            Arrays.fill(destination, offset, offset + count, '\0');
+            throw e;
+        }
+    }
+
+    /**
+     * Compares the value with the given characters, in a time that does not depend on where they differ.
+     *
+     * @param candidate the characters to compare
+     * @return {@code true} if the value holds the same characters, {@code false} otherwise
+     * @throws IllegalStateException if the value was destroyed
+     */
+    public boolean contentEquals(char[] candidate) {
+        checkValid();
+        int difference = candidate.length ^ length;
+        for (int i = 0; i < length; i++) {
+            difference |= chars.get(i) ^ (i < candidate.length ? candidate[i] : 0);
+        }
+        validate();
+        return difference == 0;
+    }
+
+    /**
+     * Checks if the value was overwritten with zeros.
+     *
+     * @return {@code true} if the value is no longer readable, {@code false} otherwise
+     */
+    public boolean isDestroyed() {
+        return destroyed;
+    }
+
+    /**
+     * Describes the secret without revealing it.
+     *
+     * @return a description holding no character of the value
+     */
+    @Override
+    public String toString() {
+        return destroyed ? "ConfigSecret[destroyed]" : "ConfigSecret[****]";
+    }
+
+    /**
+     * Get the buffer receiving the characters of the value, before it is sealed.
+     *
+     * @return the writable buffer of the characters
+     */
+    CharBuffer writer() {
+        return chars.duplicate();
+    }
+
+    /**
+     * Sets the length of the value once its characters are written.
+     *
+     * @param length the number of characters written
+     */
+    void seal(int length) {
+        this.length = length;
+    }
+
+    /**
+     * Overwrites the value with zeros. Readers see it destroyed from then on.
+     * The flag is published before the first zero, so a reader seeing a zero also sees the flag.
+     */
+    void destroy() {
+        destroyed = true;
+        VarHandle.storeStoreFence();
+        for (int i = 0; i < memory.capacity(); i++) {
+            memory.put(i, (byte) 0);
+        }
+    }
+
+    /**
+     * Checks that the value was not destroyed.
+     *
+     * @throws IllegalStateException if the value was destroyed
+     */
+    private void checkValid() {
+        if (destroyed) {
+            throw new IllegalStateException("Secret destroyed");
+        }
+    }
+
+    /**
+     * Checks that the value was not destroyed while it was read, like the validation of an optimistic read.
+     * The fence keeps the reads of the characters before the check of the flag.
+     *
+     * @throws IllegalStateException if the value was destroyed
+     */
+    private void validate() {
+        VarHandle.loadLoadFence();
+        checkValid();
+    }
+}
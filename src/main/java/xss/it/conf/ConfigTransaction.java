@@ -0,0 +1,131 @@
+package xss.it.conf;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * A batch of changes collected by {@link JConfig#update(java.util.function.Consumer)}.
+ * Nothing is applied while the changes are collected; the whole batch is applied at once afterwards.
+ * When the same key is set several times, the last value wins.
+ * A transaction belongs to the thread running the update and must not be kept after it.
+ */
+public final class ConfigTransaction {
+    private final boolean encryption;
+    private final Map<String, String> values = new LinkedHashMap<>();
+    private final Map<String, String> secrets = new LinkedHashMap<>();
+
+    /**
+     * Constructor for the ConfigTransaction class.
+     *
+     * @param encryption whether the JConfig has a secret key, so encrypted values can be set
+     */
+    ConfigTransaction(boolean encryption) {
+        this.encryption = encryption;
+    }
+
+    /**
+     * Set or update the value of a property.
+     *
+     * @param key   the key of the property
+     * @param value the value to be set
+     */
+    public void set(String key, String value) {
+        values.put(Objects.requireNonNull(key), Objects.requireNonNull(value));
+    }
+
+    /**
+     * Set or update the values of several properties.
+     *
+     * @param entries the properties to set
+     */
+    public void setAll(Map<String, String> entries) {
+        entries.forEach(this::set);
+    }
+
+    /**
+     * Set or update the value of a property with encryption.
+     * The value is encrypted when the batch is applied.
+     *
+     * @param key   the key of the property
+     * @param value the value to be set
+     * @throws NullSecretKeyException if the secret key is null
+     */
+    public void setEncrypted(String key, String value) {
+        if (!encryption) {
+            throw new NullSecretKeyException();
+        }
+        secrets.put(Objects.requireNonNull(key), Objects.requireNonNull(value));
+    }
+
+    /**
+     * Set or update the value of a property as an integer.
+     *
+     * @param key   the key of the property
+     * @param value the integer value to be set
+     */
+    public void setInteger(String key, int value) {
+        set(key, String.valueOf(value));
+    }
+
+    /**
+     * Set or update the value of a property as a double.
+     *
+     * @param key   the key of the property
+     * @param value the double value to be set
+     */
+    public void setDouble(String key, double value) {
+        set(key, String.valueOf(value));
+    }
+
+    /**
+     * Set or update the value of a property as a long.
+     *
+     * @param key   the key of the property
+     * @param value the long value to be set
+     */
+    public void setLong(String key, long value) {
+        set(key, String.valueOf(value));
+    }
+
+    /**
+     * Set or update the value of a property as a float.
+     *
+     * @param key   the key of the property
+     * @param value the float value to be set
+     */
+    public void setFloat(String key, float value) {
+        set(key, String.valueOf(value));
+    }
+
+    /**
+     * Set or update the value of a property as a boolean.
+     *
+     * @param key   the key of the property
+     * @param value the boolean value to be set
+     */
+    public void setBoolean(String key, boolean value) {
+        set(key, String.valueOf(value));
+    }
+
+    /**
+     * Get the plain values of the batch.
+     *
+     * @return the plain values, in the order they were first set
+     */
+    Map<String, String> getValues() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Get the values of the batch to encrypt.
+     *
+     * @return the plaintext keys and values to encrypt, in the order they were first set
+     */
+    Map<String, String> getSecrets() {
+        return Collections.unmodifiableMap(secrets);
+    }
+}
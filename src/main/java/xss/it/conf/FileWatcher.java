@@ -0,0 +1,120 @@
+package xss.it.conf;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Watches the settings file and its journal for changes, used by {@link JConfig} in hot reload mode.
+ * Bursts of events are debounced, and the change action runs on a background thread once no event
+ * arrived for the debounce delay.
+ */
+final class FileWatcher {
+    private final String fileName;
+    private final String journalName;
+    private final Runnable onChange;
+    private final long debounceMillis;
+    private final WatchService watchService;
+    private final ScheduledExecutorService scheduler;
+    private final Thread thread;
+    private ScheduledFuture<?> pending;
+
+    /**
+     * Constructor for the FileWatcher class, which starts watching right away.
+     *
+     * @param file           the settings file to watch
+     * @param debounceMillis the delay without events before the change action runs, in milliseconds
+     * @param onChange       the change action
+     * @throws IOException if the directory of the file cannot be watched
+     */
+    FileWatcher(Path file, long debounceMillis, Runnable onChange) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        this.fileName = absolute.getFileName().toString();
+        this.journalName = fileName + PropertiesJournal.SUFFIX;
+        this.onChange = onChange;
+        this.debounceMillis = debounceMillis;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        absolute.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread reloader = new Thread(r, "JConfig-reloader-" + fileName);
+            reloader.setDaemon(true);
+            return reloader;
+        });
+        this.thread = new Thread(this::watch, "JConfig-watcher-" + fileName);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stops watching the file.
+     */
+    void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        scheduler.shutdownNow();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for events on the directory and debounces the ones about the watched files.
+     */
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean relevant = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || context == null) {
+                        relevant = true;
+                    } else {
+                        String name = context.toString();
+                        relevant |= name.equals(fileName) || name.equals(journalName);
+                    }
+                }
+                if (relevant) {
+                    debounce();
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    /**
+     * Schedules the change action, pushing back the one already scheduled.
+     */
+    private synchronized void debounce() {
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        try {
+            pending = scheduler.schedule(onChange, debounceMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ignored) {
+            // Closed
+        }
+    }
+}
@@ -2,13 +2,33 @@ package xss.it.conf;
 
 import org.jetbrains.annotations.Nullable;
 
-import javax.crypto.Cipher;
-import javax.crypto.spec.SecretKeySpec;
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Base64;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
 
 /**
  * @author XDSSWAR
@@ -16,10 +36,41 @@ import java.util.Properties;
  * JConfig is a utility class that provides functionality for managing application settings using Properties.
  * It supports saving and loading settings to/from a file, as well as encryption and decryption of sensitive data.
  */
-public final class JConfig {
-    private final Properties properties;
+public final class JConfig implements AutoCloseable {
+    /**
+     * The default maximum number of decrypted values kept in memory.
+     */
+    public static final int DEFAULT_DECRYPTED_CACHE_SIZE = 1024;
+
+    /**
+     * The number of changes a merge applies at once.
+     */
+    private static final int MERGE_BATCH_SIZE = 1024;
+
+    private final PropertyStore store;
+    private volatile Loading loading;
     private final String filePath;
-    private final String secretKey;
+    private volatile SecretIndex secrets;
+    private final ReentrantReadWriteLock secretsLock = new ReentrantReadWriteLock();
+    private volatile long rotations;
+    private final TypedValueCache typedValues;
+    private final PrefixIndex prefixes;
+    private final ConfigMetrics metrics;
+    private volatile WriteBehindFlusher flusher;
+    private volatile PropertiesJournal journal;
+    private volatile Durability durability = Durability.NONE;
+    private volatile FileWatcher watcher;
+    private volatile SharedFile sharedFile;
+    private volatile long sharedVersion;
+    private Map<String, String> sharedBase = Collections.emptyMap();
+    private final List<ConfigChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final Object reloadLock = new Object();
+    private final Object fileLock = new Object();
+    private Map<String, String> fileBase;
+    private final Object loadLock = new Object();
+    private volatile boolean loaded;
+    private volatile Executor asyncExecutor;
+    private final SaveCoalescer asyncSaves = new SaveCoalescer(this::save, this::getAsyncExecutor);
 
     /**
      * Constructor for the JConfig class.
@@ -28,25 +79,174 @@ public final class JConfig {
      * @param secretKey  the secret key used for encryption (can be null or empty)
      */
     public JConfig(String filePath, @Nullable String secretKey) {
-        this.properties = new Properties();
+        this(filePath, secretKey, Concurrency.LOCKED);
+    }
+
+    /**
+     * Constructor for the JConfig class with a concurrency mode.
+     *
+     * @param filePath    the path to store or load the settings
+     * @param secretKey   the secret key used for encryption (can be null or empty)
+     * @param concurrency the concurrency mode of the settings
+     */
+    public JConfig(String filePath, @Nullable String secretKey, Concurrency concurrency) {
+        this(filePath, secretKey, concurrency, Loading.STREAM);
+    }
+
+    /**
+     * Constructor for the JConfig class with a concurrency mode and a loading mode.
+     *
+     * @param filePath    the path to store or load the settings
+     * @param secretKey   the secret key used for encryption (can be null or empty)
+     * @param concurrency the concurrency mode of the settings
+     * @param loading     the loading mode of the settings file
+     */
+    public JConfig(String filePath, @Nullable String secretKey, Concurrency concurrency, Loading loading) {
+        this(filePath, secretKey, concurrency, loading, false);
+    }
+
+    /**
+     * Constructor for the JConfig class, loading the settings file now or on first access.
+     *
+     * @param filePath    the path to store or load the settings
+     * @param secretKey   the secret key used for encryption (can be null or empty)
+     * @param concurrency the concurrency mode of the settings
+     * @param loading     the loading mode of the settings file
+     * @param lazy        whether to defer loading the settings file until first access
+     */
+    private JConfig(String filePath, @Nullable String secretKey, Concurrency concurrency, Loading loading, boolean lazy) {
+        PropertyStore base = concurrency == Concurrency.SNAPSHOT ? new SnapshotStore() : new LockedStore();
+        this.store = loading == Loading.MAPPED || loading == Loading.AUTO ? new MappedStore(base) : base;
+        this.prefixes = new PrefixIndex(store);
+        this.loading = loading;
+        this.metrics = ConfigMetrics.isEnabled() ? new ConfigMetrics(filePath) : null;
+        this.typedValues = new TypedValueCache(metrics);
         this.filePath = filePath;
-        this.secretKey = (secretKey==null || secretKey.isEmpty() || secretKey.isBlank()) ? null : padSecretKey(secretKey);
+        if (secretKey==null || secretKey.isEmpty() || secretKey.isBlank()) {
+            this.secrets = null;
+        } else {
+            byte[] keyBytes = padSecretKey(secretKey).getBytes();
+            this.secrets = new SecretIndex(new CipherEngine(keyBytes, metrics), DEFAULT_DECRYPTED_CACHE_SIZE, metrics);
+            Arrays.fill(keyBytes, (byte) 0);
+        }
+        if (metrics != null) {
+            metrics.register();
+        }
 
         /*
          * Load the file if exist
          */
-        if (exist()){
-            loadFromFile();
+        if (!lazy) {
+            load();
+        }
+    }
+
+    /**
+     * Creates a JConfig that does no I/O until it is first accessed.
+     *
+     * @param filePath  the path to store or load the settings
+     * @param secretKey the secret key used for encryption (can be null or empty)
+     * @return the lazy JConfig
+     * @see #lazy(String, String, Concurrency, Loading)
+     */
+    public static JConfig lazy(String filePath, @Nullable String secretKey) {
+        return lazy(filePath, secretKey, Concurrency.LOCKED, Loading.STREAM);
+    }
+
+    /**
+     * Creates a JConfig that does no I/O until it is first accessed.
+     * The settings file is loaded once, by the first call reading or changing the settings,
+     * and calls from other threads in the meantime wait for it. Use {@link #preloadAsync()}
+     * to load it in the background ahead of the first access.
+     *
+     * @param filePath    the path to store or load the settings
+     * @param secretKey   the secret key used for encryption (can be null or empty)
+     * @param concurrency the concurrency mode of the settings
+     * @param loading     the loading mode of the settings file
+     * @return the lazy JConfig
+     */
+    public static JConfig lazy(String filePath, @Nullable String secretKey, Concurrency concurrency, Loading loading) {
+        return new JConfig(filePath, secretKey, concurrency, loading, true);
+    }
+
+    /**
+     * Opens the settings file shared by every caller of this method in the process.
+     * Every path leading to the same file, once made absolute and its symbolic links resolved, shares the same
+     * instance, so the file is parsed once, held in memory once and every change is seen by every caller.
+     * Each call returns its own handle, to close once; closing it again does nothing. The instance is closed
+     * with the last handle, and the next call opens the file again. Instances created by the constructors are not shared.
+     *
+     * @param filePath  the path to store or load the settings
+     * @param secretKey the secret key used for encryption (can be null or empty to use the key of the open instance)
+     * @return a new handle on the instance open on the settings file
+     * @throws IllegalArgumentException if the file is already open with another secret key
+     */
+    public static ConfigHandle open(String filePath, @Nullable String secretKey) {
+        Path path = ConfigRegistry.canonical(filePath);
+        JConfig config = ConfigRegistry.open(path, () -> new JConfig(path.toString(), secretKey),
+                shared -> shared.acceptsSecretKey(secretKey));
+        return new ConfigHandle(config, path);
+    }
+
+    /**
+     * Checks if a secret key can be used with this instance.
+     *
+     * @param secretKey the secret key, null or empty to accept the current one
+     * @return {@code true} if the key is empty or pads to the current secret key, {@code false} otherwise
+     */
+    private boolean acceptsSecretKey(@Nullable String secretKey) {
+        if (secretKey == null || secretKey.isBlank()) {
+            return true;
+        }
+        SecretIndex index = secrets;
+        if (index == null) {
+            return false;
+        }
+        byte[] keyBytes = padSecretKey(secretKey).getBytes();
+        try {
+            return index.getCipher().hasKey(keyBytes);
+        } finally {
+            Arrays.fill(keyBytes, (byte) 0);
+        }
+    }
+
+    /**
+     * Checks if the settings file has been loaded.
+     * This is only {@code false} for a JConfig created by {@link #lazy(String, String)} and not accessed yet.
+     *
+     * @return {@code true} if the settings file has been loaded, {@code false} otherwise
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Loads the settings file on a background thread, if it is not loaded yet.
+     * A hint for a JConfig created by {@link #lazy(String, String)}, so the first access does not wait for the disk.
+     * The load runs on the {@linkplain #getAsyncExecutor() asynchronous executor}.
+     *
+     * @return a future completed once the settings file is loaded
+     */
+    public CompletableFuture<Void> preloadAsync() {
+        if (loaded) {
+            return CompletableFuture.completedFuture(null);
         }
+        return runAsync(() -> {
+            ensureLoaded();
+            return null;
+        });
     }
 
     /**
      * Get the properties object.
+     * In {@link Concurrency#SNAPSHOT} mode this is a read-only copy of the current settings.
      *
      * @return the properties object containing the settings
      */
     public Properties getProperties() {
-        return properties;
+        ensureLoaded();
+        revalidate();
+        return store.view();
     }
 
     /**
@@ -60,33 +260,225 @@ public final class JConfig {
 
     /**
      * Get the secret key used for encryption.
+     * The key material is kept in an array wiped by {@link #destroySecretKey()}, so this creates a new string each time;
+     * prefer not to call it when the key should not linger on the heap.
      *
-     * @return the secret key as a string
+     * @return the secret key as a string, or null if there is none or it was destroyed
      */
     public String getSecretKey() {
-        return secretKey;
+        SecretIndex index = secrets;
+        if (index == null) {
+            return null;
+        }
+        byte[] keyBytes;
+        try {
+            keyBytes = index.getCipher().copyKey();
+        } catch (IllegalStateException e) {
+            return null;
+        }
+        try {
+            return new String(keyBytes);
+        } finally {
+            Arrays.fill(keyBytes, (byte) 0);
+        }
+    }
+
+    /**
+     * Destroys the secret key: its key material and every decrypted value held by this instance are overwritten
+     * with zeros, and the {@link ConfigSecret}s returned by {@link #getSecret(String)} are no longer readable.
+     * The encrypted properties stay in the file, and the methods needing the secret key throw
+     * {@link NullSecretKeyException} from then on. Does nothing if there is no secret key.
+     */
+    public void destroySecretKey() {
+        secretsLock.writeLock().lock();
+        try {
+            SecretIndex index = secrets;
+            if (index != null) {
+                secrets = null;
+                index.wipe();
+                index.getCipher().destroy();
+            }
+        } finally {
+            secretsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the metrics of this instance.
+     * The metrics are only recorded for the instances created while the {@value ConfigMetrics#ENABLED_PROPERTY}
+     * system property is {@code true}, and are registered as an MBean until the instance is closed.
+     *
+     * @return the metrics, or null if they are disabled
+     */
+    public @Nullable ConfigMetrics getMetrics() {
+        return metrics;
     }
 
     /**
      * Copy properties from an InputStream representing a resource file into the current Properties object.
+     * The resource is streamed through {@link #merge(InputStream, MergePolicy)}, without a second copy of the properties.
      *
      * @param stream the InputStream representing the resource file to copy from
      * @param refresh flag indicating whether to refresh the existing properties or only add missing ones
      * @throws IOException if an I/O error occurs while reading the resource file or saving the properties to file
      */
     public void copyFromResource(InputStream stream, boolean refresh) throws IOException {
-        Properties others = readFromResources(stream);
-        if (refresh){
-            properties.clear();
-            properties.putAll(others);
-        }else {
-            others.forEach((k, v) -> {
-                if (!properties.containsKey(k)) {
-                    properties.put(k, v);
+        merge(stream, refresh ? MergePolicy.REPLACE : MergePolicy.KEEP_EXISTING);
+    }
+
+    /**
+     * Compares the properties of a source, in the properties file format, with the current properties,
+     * without changing anything. The source is read one entry at a time, so memory does not grow with its size.
+     * Each property added, changed or removed by the source is reported as a change from the current value
+     * to the value of the source; a property the source does not hold is reported as removed, once the source is read.
+     * A key repeated in the source is reported at each occurrence.
+     *
+     * @param stream the InputStream of the source, left open
+     * @param action the action receiving each change
+     * @throws IOException              if an I/O error occurs while reading the source
+     * @throws IllegalArgumentException if the source contains a malformed {@code \\uxxxx} escape
+     */
+    public void diff(InputStream stream, Consumer<ConfigChange> action) throws IOException {
+        Objects.requireNonNull(action);
+        ensureLoaded();
+        revalidate();
+        Set<String> seen = new HashSet<>();
+        PropertiesReader reader = new PropertiesReader(stream);
+        while (reader.next()) {
+            String key = reader.key();
+            String current = store.get(key);
+            if (current != null) {
+                seen.add(key);
+            }
+            if (!reader.value().equals(current)) {
+                action.accept(new ConfigChange(key, current, reader.value()));
+            }
+        }
+        for (String key : store.keys()) {
+            String current = seen.contains(key) ? null : store.get(key);
+            if (current != null) {
+                action.accept(new ConfigChange(key, current, null));
+            }
+        }
+    }
+
+    /**
+     * Merges the properties of a source, in the properties file format, into the current properties,
+     * and saves the file once if anything changed.
+     * The source is read one entry at a time and applied in batches, so memory only grows with the number
+     * of changes, never with a second copy of the properties. If the source cannot be read or a conflict
+     * is found, the batches already applied are rolled back, and nothing is saved or notified.
+     * A property changed by another thread during the merge keeps its new value.
+     *
+     * @param stream the InputStream of the source, left open
+     * @param policy the policy deciding which changes to apply
+     * @return the number of properties added, changed or removed
+     * @throws IOException              if an I/O error occurs while reading the source
+     * @throws IllegalArgumentException if the source contains a malformed {@code \\uxxxx} escape
+     * @throws IllegalStateException    if the policy is {@link MergePolicy#FAIL_ON_CONFLICT} and a property
+     *                                  of the source holds another value than the current one
+     */
+    public int merge(InputStream stream, MergePolicy policy) throws IOException {
+        Objects.requireNonNull(policy);
+        ensureLoaded();
+        revalidate();
+        List<ConfigChange> applied = new ArrayList<>();
+        synchronized (reloadLock) {
+            try {
+                mergeEntries(new PropertiesReader(stream), policy, applied);
+            } catch (IOException | RuntimeException e) {
+                List<ConfigChange> inverse = new ArrayList<>(applied.size());
+                for (int i = applied.size() - 1; i >= 0; i--) {
+                    ConfigChange change = applied.get(i);
+                    inverse.add(new ConfigChange(change.getKey(), change.getNewValue(), change.getOldValue()));
                 }
-            });
+                applyMerged(inverse, new ArrayList<>());
+                throw e;
+            }
+        }
+        if (applied.isEmpty()) {
+            return 0;
+        }
+        if (metrics != null) {
+            metrics.record(ConfigMetrics.Event.SET, applied.size());
+        }
+        persistAll();
+        fireChanges(applied);
+        return applied.size();
+    }
+
+    /**
+     * Reads the entries of a merge and applies them in batches.
+     * A key repeated in the source replaces its pending change, so the last occurrence wins.
+     * Only called while holding the reload lock.
+     *
+     * @param reader  the reader of the source
+     * @param policy  the policy deciding which changes to apply
+     * @param applied the list collecting the applied changes
+     * @throws IOException if an I/O error occurs while reading the source
+     */
+    private void mergeEntries(PropertiesReader reader, MergePolicy policy, List<ConfigChange> applied) throws IOException {
+        // Only the keys present before the merge can be removed, so only those are remembered
+        List<String> before = policy == MergePolicy.REPLACE ? store.keys() : null;
+        Set<String> seen = policy == MergePolicy.REPLACE ? new HashSet<>() : null;
+        Map<String, ConfigChange> batch = new LinkedHashMap<>();
+        while (reader.next()) {
+            String key = reader.key();
+            String value = reader.value();
+            ConfigChange pending = batch.get(key);
+            String current = pending != null ? pending.getOldValue() : store.get(key);
+            if (seen != null && current != null) {
+                seen.add(key);
+            }
+            if (value.equals(current)) {
+                batch.remove(key);
+                continue;
+            }
+            if (current != null && policy == MergePolicy.KEEP_EXISTING) {
+                continue;
+            }
+            if (current != null && policy == MergePolicy.FAIL_ON_CONFLICT) {
+                throw new IllegalStateException("Conflicting value for " + key);
+            }
+            batch.put(key, new ConfigChange(key, current, value));
+            if (batch.size() >= MERGE_BATCH_SIZE) {
+                applyMerged(new ArrayList<>(batch.values()), applied);
+                batch.clear();
+            }
+        }
+        if (before != null) {
+            for (String key : before) {
+                String current = seen.contains(key) ? null : store.get(key);
+                if (current != null) {
+                    batch.put(key, new ConfigChange(key, current, null));
+                }
+            }
+        }
+        applyMerged(new ArrayList<>(batch.values()), applied);
+    }
+
+    /**
+     * Applies a batch of merged changes, skipping the properties changed meanwhile, and updates the caches
+     * and the indexes of the applied ones.
+     *
+     * @param changes the changes, from the current value to the merged one
+     * @param applied the list collecting the applied changes
+     */
+    private void applyMerged(List<ConfigChange> changes, List<ConfigChange> applied) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<ConfigChange> done = store.applyIfUnchanged(changes);
+        List<String> keys = new ArrayList<>(done.size());
+        for (ConfigChange change : done) {
+            typedValues.invalidate(change.getKey());
+            keys.add(change.getKey());
+        }
+        prefixes.touch(keys);
+        if (secrets != null) {
+            secrets.index(keys);
         }
-        saveToFile();
+        applied.addAll(done);
     }
 
     /**
@@ -109,8 +501,56 @@ public final class JConfig {
      * @param value the value to be set
      */
     public void set(String key, String value){
-        properties.setProperty(key, value);
-        saveToFile();
+        ensureLoaded();
+        if (metrics != null) {
+            metrics.record(ConfigMetrics.Event.SET);
+        }
+        String previous = putAndPersist(key, value);
+        prefixes.touch(key);
+        typedValues.invalidate(key);
+        if (!listeners.isEmpty() && !value.equals(previous)) {
+            fireChanges(Collections.singletonList(new ConfigChange(key, previous, value)));
+        }
+    }
+
+    /**
+     * Set or update the value of a property, saving the file asynchronously.
+     * The new value is visible to readers right away. In journal mode the change is appended to the journal
+     * like {@link #set(String, String)} does, and in write-behind mode it is left to the background writer;
+     * otherwise the file is saved by {@link #saveAsync()}, so a burst of changes shares a few saves instead of
+     * waiting for one save each.
+     *
+     * @param key   the key of the property
+     * @param value the value to be set
+     * @return a future completed once the change is saved, or completed exceptionally if the save failed
+     */
+    public CompletableFuture<Void> setAsync(String key, String value) {
+        ensureLoaded();
+        if (metrics != null) {
+            metrics.record(ConfigMetrics.Event.SET);
+        }
+        String previous;
+        CompletableFuture<Void> saved;
+        WriteBehindFlusher currentFlusher = flusher;
+        if (journal != null) {
+            previous = putAndPersist(key, value);
+            saved = CompletableFuture.completedFuture(null);
+        } else if (currentFlusher != null) {
+            previous = putAndPersist(key, value);
+            saved = currentFlusher.whenSaved();
+        } else {
+            previous = store.put(key, value);
+            saved = null;
+        }
+        prefixes.touch(key);
+        typedValues.invalidate(key);
+        if (saved == null) {
+            saved = saveAsync();
+        }
+        if (!listeners.isEmpty() && !value.equals(previous)) {
+            fireChanges(Collections.singletonList(new ConfigChange(key, previous, value)));
+        }
+        return saved;
     }
 
     /**
@@ -121,12 +561,23 @@ public final class JConfig {
      * @throws NullSecretKeyException if the secret key is null
      */
     public void setEncrypted(String key, String value) {
-        if (secretKey==null){
+        if (secrets==null){
             throw new NullSecretKeyException();
         }
-        String encryptedKey = encrypt(key);
-        String encryptedValue = encrypt(value);
-        set(encryptedKey, encryptedValue);
+        ensureLoaded();
+        secretsLock.readLock().lock();
+        try {
+            SecretIndex index = secrets;
+            if (index == null) {
+                throw new NullSecretKeyException();
+            }
+            String encryptedKey = index.encryptedKey(key);
+            String encryptedValue = index.getCipher().encrypt(value);
+            set(encryptedKey, encryptedValue);
+            index.put(key, encryptedKey, encryptedValue, value);
+        } finally {
+            secretsLock.readLock().unlock();
+        }
     }
 
     /**
@@ -179,6 +630,40 @@ public final class JConfig {
         set(key, String.valueOf(value));
     }
 
+    /**
+     * Set or update several properties as a single batch.
+     *
+     * @param entries the properties to set
+     * @see #update(Consumer)
+     */
+    public void setAll(Map<String, String> entries) {
+        update(transaction -> transaction.setAll(entries));
+    }
+
+    /**
+     * Set or update several properties as a single batch.
+     * The changes made to the transaction by the given action are applied at once when it returns,
+     * so other threads never see part of the batch applied, the values to encrypt are encrypted in
+     * one pass, and the file is saved once. If the action throws, nothing is applied.
+     *
+     * <pre>{@code
+     * config.update(tx -> {
+     *     tx.set("database.url", url);
+     *     tx.set("database.username", username);
+     *     tx.setEncrypted("database.password", password);
+     * });
+     * }</pre>
+     *
+     * @param changes the action making the changes
+     * @throws NullSecretKeyException if a value is set with encryption and the secret key is null
+     * @throws IllegalStateException  if a value cannot be encrypted, in which case nothing is applied
+     */
+    public void update(Consumer<ConfigTransaction> changes) {
+        ConfigTransaction transaction = new ConfigTransaction(secrets != null);
+        changes.accept(transaction);
+        commit(transaction);
+    }
+
     /**
      * Get the value of a property as a string.
      *
@@ -186,7 +671,10 @@ public final class JConfig {
      * @return the value of the property as a string, or null if the property does not exist
      */
     public String get(String key){
-        return properties.getProperty(key);
+        if (metrics != null) {
+            metrics.record(ConfigMetrics.Event.GET);
+        }
+        return read(key);
     }
 
     /**
@@ -197,15 +685,194 @@ public final class JConfig {
      * @throws NullSecretKeyException if the secret key is null
      */
     public String getDecrypted(String key) {
-        if (secretKey==null){
+        long rotation = rotations;
+        SecretIndex index = secrets;
+        if (index==null){
+            throw new NullSecretKeyException();
+        }
+        if (metrics != null) {
+            metrics.record(ConfigMetrics.Event.DECRYPTED_GET);
+        }
+        String encryptedValue = index.encryptedValue(key, this::read);
+        String value = encryptedValue != null ? index.decrypt(key, encryptedValue) : null;
+        if (value == null && (rotation != rotations || (rotation & 1L) != 0)) {
+            return getDecryptedAfterRotation(key);
+        }
+        return value;
+    }
+
+    /**
+     * Get the decrypted value of a property missed while the secret key was rotated,
+     * waiting for the rotation to complete.
+     *
+     * @param key the key of the property
+     * @return the decrypted value of the property as a string, or null if the property does not exist
+     * @throws NullSecretKeyException if the secret key was destroyed meanwhile
+     */
+    private String getDecryptedAfterRotation(String key) {
+        secretsLock.readLock().lock();
+        try {
+            SecretIndex index = secrets;
+            if (index == null) {
+                throw new NullSecretKeyException();
+            }
+            String encryptedValue = index.encryptedValue(key, this::read);
+            return encryptedValue != null ? index.decrypt(key, encryptedValue) : null;
+        } finally {
+            secretsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the decrypted value of a property as a read-only view of direct memory, overwritten with zeros once
+     * the value is no longer held: when the property changes, when the value is evicted from the decrypted values
+     * kept by this instance, or when the instance is closed or its secret key rotated or destroyed.
+     * The value is never copied into a {@link String}, and the same view is returned while it is held,
+     * so reading it again allocates nothing.
+     *
+     * @param key the key of the property
+     * @return the decrypted value of the property, or null if the property does not exist or cannot be decrypted
+     * @throws NullSecretKeyException if the secret key is null
+     */
+    @Nullable
+    public ConfigSecret getSecret(String key) {
+        long rotation = rotations;
+        SecretIndex index = secrets;
+        if (index==null){
+            throw new NullSecretKeyException();
+        }
+        if (metrics != null) {
+            metrics.record(ConfigMetrics.Event.DECRYPTED_GET);
+        }
+        String encryptedValue = index.encryptedValue(key, this::read);
+        ConfigSecret secret = encryptedValue != null ? index.secret(key, encryptedValue) : null;
+        if (secret == null && (rotation != rotations || (rotation & 1L) != 0)) {
+            return getSecretAfterRotation(key);
+        }
+        return secret;
+    }
+
+    /**
+     * Get the decrypted value of a property missed while the secret key was rotated, as a view of direct memory,
+     * waiting for the rotation to complete.
+     *
+     * @param key the key of the property
+     * @return the decrypted value of the property, or null if the property does not exist
+     * @throws NullSecretKeyException if the secret key was destroyed meanwhile
+     */
+    @Nullable
+    private ConfigSecret getSecretAfterRotation(String key) {
+        secretsLock.readLock().lock();
+        try {
+            SecretIndex index = secrets;
+            if (index == null) {
+                throw new NullSecretKeyException();
+            }
+            String encryptedValue = index.encryptedValue(key, this::read);
+            return encryptedValue != null ? index.secret(key, encryptedValue) : null;
+        } finally {
+            secretsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rotates the secret key: every encrypted property, key and value, is decrypted with the current key
+     * and encrypted again with the new one, then the file is saved once.
+     * The properties are re-encrypted in parallel, on as many threads as the
+     * {@linkplain JPlatform.IoProfile#getCryptoThreads() I/O profile} allows, and swapped in a single step, so readers see either every
+     * encrypted property under the old key or every one under the new key, and encrypted writes wait for the
+     * rotation to complete. The file is replaced atomically; if it cannot be saved, the properties in memory go
+     * back to the old key, so the memory and the file always agree on the key. Once saved, the old key material and
+     * the values decrypted under it are overwritten with zeros.
+     *
+     * @param newSecretKey the new secret key
+     * @throws IOException              if the file cannot be saved, in which case the old key is kept
+     * @throws NullSecretKeyException   if the secret key is null
+     * @throws IllegalArgumentException if the new secret key is null or blank
+     * @throws IllegalStateException    if a property cannot be re-encrypted, in which case nothing is changed,
+     *                                  or in shared file mode, since the other processes would keep the old key
+     */
+    public void rotateSecretKey(String newSecretKey) throws IOException {
+        if (secrets==null){
             throw new NullSecretKeyException();
         }
-        String encryptedKey = encrypt(key);
-        String encryptedValue = get(encryptedKey);
-        if (encryptedValue != null) {
-            return decrypt(encryptedValue);
+        if (newSecretKey == null || newSecretKey.isBlank()) {
+            throw new IllegalArgumentException("Secret key must not be blank");
+        }
+        if (sharedFile != null) {
+            throw new IllegalStateException("Cannot rotate the secret key of a shared file");
+        }
+        ensureLoaded();
+        byte[] keyBytes = padSecretKey(newSecretKey).getBytes();
+        List<ConfigChange> applied;
+        secretsLock.writeLock().lock();
+        try {
+            synchronized (reloadLock) {
+                SecretIndex previous = secrets;
+                if (previous == null) {
+                    throw new NullSecretKeyException();
+                }
+                SecretIndex rotated = new SecretIndex(new CipherEngine(keyBytes, metrics),
+                        previous.getMaxCachedValues(), metrics);
+                Map<String, String> entries = store.entries();
+                Map<String, String> rotatedKeys = new HashMap<>();
+                int threads = JPlatform.IoProfile.of(directory()).getCryptoThreads();
+                ForkJoinPool pool = threads == ForkJoinPool.getCommonPoolParallelism()
+                        ? ForkJoinPool.commonPool() : new ForkJoinPool(threads);
+                List<ConfigChange> changes;
+                try {
+                    changes = SecretRotation.rotate(previous.getCipher(), rotated.getCipher(),
+                            previous.encryptedKeys(entries), entries, pool, rotatedKeys);
+                } finally {
+                    if (pool != ForkJoinPool.commonPool()) {
+                        pool.shutdown();
+                    }
+                }
+                rotated.restore(rotatedKeys);
+                applied = swapSecrets(changes, rotated);
+                try {
+                    save();
+                } catch (IOException e) {
+                    List<ConfigChange> inverse = new ArrayList<>(applied.size());
+                    for (ConfigChange change : applied) {
+                        inverse.add(new ConfigChange(change.getKey(), change.getNewValue(), change.getOldValue()));
+                    }
+                    swapSecrets(inverse, previous);
+                    rotated.wipe();
+                    rotated.getCipher().destroy();
+                    throw e;
+                }
+                previous.wipe();
+                previous.getCipher().destroy();
+            }
+        } finally {
+            secretsLock.writeLock().unlock();
+            Arrays.fill(keyBytes, (byte) 0);
+        }
+        fireChanges(applied);
+    }
+
+    /**
+     * Applies the changes of a rotation of the secret key along with its index of encrypted keys.
+     * The rotation counter is odd in between, so the readers missing a property meanwhile read it again.
+     * Only called while holding the write lock of the secrets.
+     *
+     * @param changes the changes of the encrypted properties
+     * @param index   the index of the encrypted keys under the secret key
+     * @return the applied changes
+     */
+    private List<ConfigChange> swapSecrets(List<ConfigChange> changes, SecretIndex index) {
+        rotations++;
+        List<ConfigChange> applied = store.applyIfUnchanged(changes);
+        secrets = index;
+        rotations++;
+        List<String> keys = new ArrayList<>(applied.size());
+        for (ConfigChange change : applied) {
+            typedValues.invalidate(change.getKey());
+            keys.add(change.getKey());
         }
-        return null;
+        prefixes.touch(keys);
+        return applied;
     }
 
     /**
@@ -215,11 +882,9 @@ public final class JConfig {
      * @return the value of the property as an integer, or -1 if the property does not exist or cannot be parsed as an integer
      */
     public int getInteger(String key) {
-        String value = get(key);
+        String value = readTyped(key);
         if (value != null) {
-            try{
-                return Integer.parseInt(value);
-            }catch (Exception ignored){}
+            return typedValues.getInt(key, value, -1);
         }
         return -1;
     }
@@ -231,11 +896,9 @@ public final class JConfig {
      * @return the value of the property as a double, or -1.0 if the property does not exist or cannot be parsed as a double
      */
     public double getDouble(String key) {
-        String value = get(key);
+        String value = readTyped(key);
         if (value != null) {
-            try{
-                return Double.parseDouble(value);
-            }catch (Exception ignored){}
+            return typedValues.getDouble(key, value, -1d);
         }
         return -1d;
     }
@@ -247,11 +910,9 @@ public final class JConfig {
      * @return the value of the property as a long, or -1L if the property does not exist or cannot be parsed as a long
      */
     public long getLong(String key) {
-        String value = get(key);
+        String value = readTyped(key);
         if (value != null) {
-            try{
-                return Long.parseLong(value);
-            }catch (Exception ignored){}
+            return typedValues.getLong(key, value, -1L);
         }
         return -1L;
     }
@@ -264,11 +925,9 @@ public final class JConfig {
      * @return the value of the property as a float, or -1.0 if the property does not exist or cannot be parsed as a float
      */
     public float getFloat(String key){
-        String value = get(key);
+        String value = readTyped(key);
         if (value != null) {
-            try{
-                return Float.parseFloat(value);
-            }catch (Exception ignored){}
+            return typedValues.getFloat(key, value, -1F);
         }
         return -1F;
     }
@@ -281,11 +940,14 @@ public final class JConfig {
      */
     public boolean isSet(String key){
         String v1=get(key);
-        String v2=null;
-        if (secretKey!=null){
-            v2= getDecrypted(key);
+        if (v1!=null && !v1.isBlank()) {
+            return true;
+        }
+        if (secrets==null) {
+            return false;
         }
-        return (v1!=null && !v1.isBlank() && !v1.isEmpty()) || (v2!=null && !v2.isBlank() && !v2.isEmpty());
+        String v2=getDecrypted(key);
+        return v2!=null && !v2.isBlank();
     }
 
     /**
@@ -295,114 +957,1327 @@ public final class JConfig {
      * @return the value of the property as a boolean, or false if the property does not exist or cannot be parsed as a boolean
      */
     public Boolean getBoolean(String key) {
-        String value = get(key);
+        String value = readTyped(key);
         if (value != null) {
-            try{
-                return Boolean.parseBoolean(value);
-            }catch (Exception ignored){}
+            return typedValues.getBoolean(key, value);
         }
         return false;
     }
 
     /**
-     * Saves the properties to a file.
-     * The properties are stored in the specified file path with a comment.
-     * If an IOException occurs during the file saving process, the exception is printed.
+     * Get the properties whose key starts with a prefix, like every {@code database.} setting.
+     * The keys are kept in a sorted index built by the first call, so a call costs the number of matching
+     * properties rather than the number of properties. Encrypted properties are not matched, since their
+     * keys are encrypted.
+     *
+     * @param prefix the prefix of the keys, matched as is
+     * @return an unmodifiable copy of the matching properties, sorted by key
      */
-    void saveToFile() {
-        try (OutputStream outputStream = new FileOutputStream(filePath)) {
-            properties.store(outputStream, "Application Settings");
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    public Map<String, String> getByPrefix(String prefix) {
+        Objects.requireNonNull(prefix);
+        ensureLoaded();
+        revalidate();
+        return prefixes.get(prefix);
     }
 
     /**
-     * Loads the properties from a file.
-     * The properties are read from the specified file path.
-     * If an IOException occurs during the file loading process, the exception is printed.
+     * Get a view of the properties under a namespace, so that {@code scope("database").get("url")}
+     * reads {@code database.url}.
+     *
+     * @param namespace the namespace, with or without its trailing dot
+     * @return the view of the namespace
+     * @throws IllegalArgumentException if the namespace is empty
      */
-    void loadFromFile() {
-        try (InputStream inputStream = new FileInputStream(filePath)) {
-            properties.load(inputStream);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    public ConfigScope scope(String namespace) {
+        return new ConfigScope(this, namespace);
+    }
+
+    /**
+     * Binds the properties under a namespace to a record or a class, so that
+     * {@code bind(Database.class, "database").get().url()} reads {@code database.url}.
+     * Each record component or field reads the property named after it, or after its {@link ConfigKey}.
+     * The object is created again only when one of its properties changes, so reading it costs a field read.
+     * Supported types are strings, primitives and their wrappers, and enums; a missing or malformed value
+     * is read like the typed getters do.
+     *
+     * @param type      the record, or the class with a no-argument constructor, to bind
+     * @param namespace the namespace, with or without its trailing dot, or empty for the top-level keys
+     * @param <T>       the bound type
+     * @return the binding, to close once the object no longer needs to follow the changes
+     * @throws IllegalArgumentException if the type cannot be created or has a field of an unsupported type
+     */
+    public <T> ConfigBinding<T> bind(Class<T> type, String namespace) {
+        Objects.requireNonNull(type);
+        String prefix = namespace.isEmpty() || namespace.endsWith(".") ? namespace : namespace + '.';
+        BindingPlan<T> plan = BindingPlan.of(type, prefix);
+        ensureLoaded();
+        revalidate();
+        return new ConfigBinding<>(this, plan);
+    }
+
+    /**
+     * Registers a listener notified of the properties that change.
+     *
+     * @param listener the listener to add
+     */
+    public void addChangeListener(ConfigChangeListener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Unregisters a listener of the properties that change.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeChangeListener(ConfigChangeListener listener) {
+        listeners.remove(listener);
     }
 
     /**
-     * Encrypts the given value using AES encryption with a secret key.
-     * The value is converted to bytes, encrypted using AES/ECB/PKCS5Padding algorithm,
-     * and then encoded in Base64 for secure representation.
-     * If an exception occurs during the encryption process, the exception is printed and null is returned.
+     * Reloads the settings from the file, replacing the properties in memory,
+     * and notifies the listeners of the properties that actually changed.
+     * Changes not yet saved by the write-behind mode are lost, unless the hot reload mode is enabled:
+     * it only applies the properties changed in the file since this instance last read or wrote it,
+     * and keeps the ones changed in memory meanwhile.
      *
-     * @param value The value to be encrypted
-     * @return The encrypted value in Base64 format, or null if encryption fails
+     * @return the changed properties, empty if nothing changed or the file cannot be read
      */
-    private String encrypt(String value) {
+    public List<ConfigChange> reload() {
         try {
-            byte[] keyBytes = secretKey.getBytes();
-            SecretKeySpec secretKeySpec = new SecretKeySpec(keyBytes, "AES");
-            Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
-            cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec);
-            byte[] encryptedBytes = cipher.doFinal(value.getBytes());
-            return Base64.getEncoder().encodeToString(encryptedBytes);
-        } catch (Exception e) {
+            return reloadFile();
+        } catch (IOException e) {
             e.printStackTrace();
+            if (metrics != null) {
+                metrics.record(ConfigMetrics.Event.IO_ERROR);
+            }
+            return Collections.emptyList();
         }
-        return null;
     }
 
     /**
-     * Decrypts the given encrypted value using AES decryption with a secret key.
-     * The encrypted value is expected to be in Base64 format.
-     * The decrypted value is obtained by decoding the Base64 string,
-     * applying AES/ECB/PKCS5Padding decryption algorithm, and converting the decrypted bytes to a string.
-     * If an exception occurs during the decryption process, the exception message is printed,
-     * and null is returned.
+     * Reloads the settings from the file like {@link #reload()}, on the
+     * {@linkplain #getAsyncExecutor() asynchronous executor}.
      *
-     * @param encryptedValue The encrypted value in Base64 format
-     * @return The decrypted value as a string, or null if decryption fails
+     * @return a future completed with the changed properties, or completed exceptionally if the file cannot be read
      */
-    private String decrypt(String encryptedValue) {
-        try {
-            byte[] keyBytes = secretKey.getBytes();
-            SecretKeySpec secretKeySpec = new javax.crypto.spec.SecretKeySpec(keyBytes, "AES");
-            Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
-            cipher.init(Cipher.DECRYPT_MODE, secretKeySpec);
-            byte[] decryptedBytes = cipher.doFinal(Base64.getDecoder().decode(encryptedValue));
-            return new String(decryptedBytes);
-        } catch (Exception e) {
-            System.out.println("Error decrypting value: " + e.getMessage());
-            return null;
-        }
+    public CompletableFuture<List<ConfigChange>> loadAsync() {
+        return runAsync(this::reloadFile);
     }
 
     /**
-     * Pads the secret key with "X" characters to ensure it has a length of 16 bytes.
-     * If the secret key length is less than 16, the method appends "X" characters
-     * to the key until it reaches a length of 16.
-     * If the secret key length is already 16 or greater, the method returns the first 16 characters of the key.
+     * Saves every property to the file on the {@linkplain #getAsyncExecutor() asynchronous executor}.
+     * Concurrent requests are merged: at most one save is in flight and at most one more is queued,
+     * and every request made while a save is queued shares that save.
      *
-     * @param secretKey The secret key to pad
-     * @return The padded secret key with a length of 16 bytes
+     * @return a future completed once a save including every change made so far finished,
+     * or completed exceptionally if that save failed
      */
-    private String padSecretKey(String secretKey) {
-        int keyLength = secretKey.length();
-        if (keyLength < 16) {
-            int paddingLength = 16 - keyLength;
-            return secretKey + "X".repeat(paddingLength);
-        }
-        return secretKey.substring(0, 16);
+    public CompletableFuture<Void> saveAsync() {
+        return asyncSaves.request();
     }
 
+    /**
+     * Get the executor running {@link #saveAsync()}, {@link #loadAsync()}, {@link #setAsync(String, String)}
+     * and {@link #preloadAsync()}.
+     * Unless set, this is an executor shared by every JConfig, starting a virtual thread per task when the
+     * runtime supports them, or a daemon thread otherwise.
+     *
+     * @return the asynchronous executor
+     */
+    public Executor getAsyncExecutor() {
+        Executor executor = asyncExecutor;
+        return executor != null ? executor : DefaultExecutor.INSTANCE;
+    }
 
     /**
-     * Checks if the settings file exists at the specified file path.
+     * Set the executor running {@link #saveAsync()}, {@link #loadAsync()}, {@link #setAsync(String, String)}
+     * and {@link #preloadAsync()}.
      *
-     * @return {@code true} if the settings file exists, {@code false} otherwise
+     * @param executor the asynchronous executor, or null to use the default one
      */
-    boolean exist(){
-        return Files.exists(Paths.get(filePath));
+    public void setAsyncExecutor(@Nullable Executor executor) {
+        this.asyncExecutor = executor;
+    }
+
+    /**
+     * Reloads the settings from the file, replacing the properties in memory,
+     * and notifies the listeners of the properties that actually changed.
+     *
+     * @return the changed properties, empty if nothing changed or the file does not exist
+     * @throws IOException if an I/O error occurs while reading the file or the journal
+     */
+    private List<ConfigChange> reloadFile() throws IOException {
+        ensureLoaded();
+        SharedFile shared = sharedFile;
+        if (shared != null) {
+            return refreshShared(shared, true);
+        }
+        List<ConfigChange> changes;
+        synchronized (reloadLock) {
+            synchronized (fileLock) {
+                if (!exist()) {
+                    return Collections.emptyList();
+                }
+                long start = metrics == null ? 0L : System.nanoTime();
+                Map<String, String> after;
+                try {
+                    after = readEntries();
+                } finally {
+                    if (metrics != null) {
+                        metrics.record(ConfigMetrics.Event.LOAD, System.nanoTime() - start);
+                    }
+                }
+                Map<String, String> base = fileBase;
+                if (base != null) {
+                    // Only what changed in the file since the last sync, and only where memory still agrees
+                    fileBase = after;
+                    changes = ConfigChange.diff(base, after);
+                    if (!changes.isEmpty()) {
+                        changes = store.applyIfUnchanged(changes);
+                    }
+                } else {
+                    changes = ConfigChange.diff(store.entries(), after);
+                    if (!changes.isEmpty()) {
+                        store.replaceAll(after);
+                    }
+                }
+            }
+            if (changes.isEmpty()) {
+                return changes;
+            }
+            List<String> keys = new ArrayList<>(changes.size());
+            for (ConfigChange change : changes) {
+                typedValues.invalidate(change.getKey());
+                keys.add(change.getKey());
+            }
+            prefixes.touch(keys);
+            if (secrets != null) {
+                secrets.index(keys);
+            }
+        }
+        fireChanges(changes);
+        return changes;
+    }
+
+    /**
+     * Enables the hot reload mode.
+     * In this mode the settings file is watched for changes made outside this instance, like an operator's edit,
+     * and reloaded in the background with {@link #reload()} once no change was seen for {@code debounceMillis}.
+     * The content of the file as last read or written by this instance is kept in memory, so a reload only applies
+     * the properties changed in the file since then: the saves of this instance change nothing, and the changes
+     * made in memory meanwhile, like the pending changes of the write-behind mode, are kept.
+     *
+     * @param debounceMillis the delay without file changes before reloading, in milliseconds
+     * @throws IOException              if the directory of the settings file cannot be watched
+     * @throws IllegalArgumentException if the delay is negative
+     */
+    public synchronized void enableHotReload(long debounceMillis) throws IOException {
+        if (debounceMillis < 0) {
+            throw new IllegalArgumentException("Debounce delay must not be negative: " + debounceMillis);
+        }
+        ensureLoaded();
+        synchronized (fileLock) {
+            if (fileBase == null) {
+                fileBase = exist() ? readEntries() : new HashMap<>();
+            }
+        }
+        FileWatcher previous = watcher;
+        watcher = new FileWatcher(Paths.get(filePath), debounceMillis, this::reload);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Checks if the hot reload mode is enabled.
+     *
+     * @return {@code true} if the settings file is watched for changes, {@code false} otherwise
+     */
+    public boolean isHotReload() {
+        return watcher != null;
+    }
+
+    /**
+     * Get the maximum number of decrypted values kept in memory.
+     *
+     * @return the maximum number of cached decrypted values, 0 if the cache is disabled or there is no secret key
+     */
+    public int getDecryptedCacheSize() {
+        return secrets == null ? 0 : secrets.getMaxCachedValues();
+    }
+
+    /**
+     * Set the maximum number of decrypted values kept in memory.
+     * The cache spares {@link #getDecrypted(String)} and {@link #isSet(String)} the decryption of values
+     * that did not change since they were last read. Extra values are evicted when the size shrinks.
+     *
+     * @param size the maximum number of cached decrypted values, 0 to disable the cache
+     * @throws IllegalArgumentException if the size is negative
+     */
+    public void setDecryptedCacheSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Decrypted cache size must not be negative: " + size);
+        }
+        if (secrets != null) {
+            secrets.setMaxCachedValues(size);
+        }
+    }
+
+    /**
+     * Get the loading mode of the settings file.
+     *
+     * @return the loading mode, {@link Loading#AUTO} being replaced by the picked mode once the file is loaded
+     */
+    public Loading getLoading() {
+        return loading;
+    }
+
+    /**
+     * Get the durability policy used when saving the settings file.
+     *
+     * @return the durability policy
+     */
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Set the durability policy used when saving the settings file.
+     * Every save goes to a temporary file that atomically replaces the settings file,
+     * and the policy decides what is forced to disk before the save returns.
+     *
+     * @param durability the durability policy
+     */
+    public void setDurability(Durability durability) {
+        this.durability = Objects.requireNonNull(durability);
+    }
+
+    /**
+     * Get the durability policy a save applies, resolving {@link Durability#AUTO} from the
+     * {@linkplain JPlatform.IoProfile I/O profile} of the directory of the settings file.
+     *
+     * @return the durability policy, other than {@link Durability#AUTO}
+     */
+    private Durability effectiveDurability() {
+        Durability current = durability;
+        return current != Durability.AUTO ? current : JPlatform.IoProfile.of(directory()).getDurability();
+    }
+
+    /**
+     * Get the directory of the settings file.
+     *
+     * @return the absolute directory of the settings file
+     */
+    private Path directory() {
+        return Paths.get(filePath).toAbsolutePath().getParent();
+    }
+
+    /**
+     * Enables the write-behind mode.
+     * In this mode {@link #set(String, String)} and the typed setters only mark the settings as dirty,
+     * and a background writer coalesces the pending changes into a single save to the file.
+     * The save happens at most {@code maxStalenessMillis} after the first unsaved change,
+     * or immediately once {@code dirtyThreshold} changes are pending.
+     * A background save that fails is printed and retried once {@code maxStalenessMillis} elapses again.
+     * Call {@link #flush()} or {@link #close()} to make sure every change reached the file.
+     *
+     * @param maxStalenessMillis the maximum time a change may stay unsaved, in milliseconds
+     * @param dirtyThreshold     the number of pending changes that triggers an immediate save
+     * @throws IllegalArgumentException if any of the arguments is not positive
+     */
+    public synchronized void enableWriteBehind(long maxStalenessMillis, int dirtyThreshold) {
+        if (maxStalenessMillis <= 0) {
+            throw new IllegalArgumentException("Max staleness must be positive: " + maxStalenessMillis);
+        }
+        if (dirtyThreshold <= 0) {
+            throw new IllegalArgumentException("Dirty threshold must be positive: " + dirtyThreshold);
+        }
+        WriteBehindFlusher previous = flusher;
+        WriteBehindFlusher current = new WriteBehindFlusher(
+                "JConfig-writer-" + Paths.get(filePath).getFileName(),
+                this::saveRecordingErrors,
+                maxStalenessMillis,
+                dirtyThreshold
+        );
+        flusher = current;
+        if (previous != null) {
+            try {
+                previous.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+                current.markDirty();
+            }
+        }
+    }
+
+    /**
+     * Checks if the write-behind mode is enabled.
+     *
+     * @return {@code true} if changes are saved by the background writer, {@code false} if they are saved synchronously
+     */
+    public boolean isWriteBehind() {
+        return flusher != null;
+    }
+
+    /**
+     * Saves the pending changes to the file now.
+     * This is a no-op when the write-behind mode is not enabled, since every change is already saved.
+     *
+     * @throws IOException if the file cannot be saved, in which case the changes stay pending and are retried
+     */
+    public void flush() throws IOException {
+        WriteBehindFlusher current = flusher;
+        if (current != null) {
+            current.flush();
+        }
+    }
+
+    /**
+     * Enables the journal mode.
+     * In this mode every change made by {@link #set(String, String)}, {@link #setEncrypted(String, String)}
+     * and the typed setters is appended as a single record to a journal next to the settings file,
+     * instead of rewriting the whole file. Loading replays the journal on top of the settings file,
+     * and a background compaction folds the journal back into the settings file once it grows past
+     * {@code maxJournalBytes}, or past {@code maxJournalRatio} times the size of the settings file.
+     *
+     * @param maxJournalBytes the journal size that triggers a compaction, in bytes
+     * @param maxJournalRatio the journal to settings file size ratio that triggers a compaction
+     * @throws IOException              if the journal cannot be opened or the settings file cannot be saved
+     * @throws IllegalArgumentException if any of the arguments is not positive
+     * @throws IllegalStateException    if the shared file mode is enabled
+     */
+    public synchronized void enableJournal(long maxJournalBytes, double maxJournalRatio) throws IOException {
+        if (sharedFile != null) {
+            throw new IllegalStateException("The journal mode cannot be combined with the shared file mode");
+        }
+        if (maxJournalBytes <= 0) {
+            throw new IllegalArgumentException("Max journal size must be positive: " + maxJournalBytes);
+        }
+        if (maxJournalRatio <= 0) {
+            throw new IllegalArgumentException("Max journal ratio must be positive: " + maxJournalRatio);
+        }
+        PropertiesJournal previous = journal;
+        if (previous != null) {
+            journal = null;
+            previous.close();
+        }
+        journal = new PropertiesJournal(filePath, this::writeFile, maxJournalBytes, maxJournalRatio, metrics, fileLock);
+        journal.compact();
+    }
+
+    /**
+     * Checks if the journal mode is enabled.
+     *
+     * @return {@code true} if changes are appended to the journal, {@code false} otherwise
+     */
+    public boolean isJournaled() {
+        return journal != null;
+    }
+
+    /**
+     * Enables the shared file mode, for a settings file shared by several processes.
+     * In this mode every save locks the file against the other processes, and merges only the properties
+     * this instance changed into the latest saved file, instead of overwriting the changes of the others.
+     * A version stamp kept in a lock file next to the settings file tells whether another process saved
+     * the file since, so the file is only read again when it actually changed. Reads check the stamp as well,
+     * and pick up the changes of the other processes before returning, notifying the listeners.
+     * When this instance and another process change the same property, the last save wins.
+     * Enabling the mode saves the pending changes of the write-behind mode and reloads the file.
+     *
+     * @throws IOException           if the lock file cannot be opened or the settings file cannot be read
+     * @throws IllegalStateException if the journal mode is enabled
+     */
+    public synchronized void enableSharedFile() throws IOException {
+        if (journal != null) {
+            throw new IllegalStateException("The shared file mode cannot be combined with the journal mode");
+        }
+        if (sharedFile != null) {
+            return;
+        }
+        ensureLoaded();
+        flush();
+        SharedFile shared = new SharedFile(filePath);
+        List<ConfigChange> changes;
+        try {
+            SharedFile.Lock lock = shared.lock(false);
+            try {
+                long version = shared.version();
+                if (exist()) {
+                    Map<String, String> disk = readEntries();
+                    changes = applyShared(ConfigChange.diff(store.entries(), disk), disk);
+                } else {
+                    changes = Collections.emptyList();
+                    sharedBase = Collections.emptyMap();
+                }
+                sharedVersion = version;
+            } finally {
+                lock.close();
+            }
+        } catch (IOException | RuntimeException e) {
+            shared.close();
+            throw e;
+        }
+        sharedFile = shared;
+        fireChanges(changes);
+    }
+
+    /**
+     * Checks if the shared file mode is enabled.
+     *
+     * @return {@code true} if saves merge into the file shared with other processes, {@code false} otherwise
+     */
+    public boolean isSharedFile() {
+        return sharedFile != null;
+    }
+
+    /**
+     * Waits for the asynchronous saves, saves the pending changes, stops the background writer of the write-behind mode,
+     * closes the journal of the journal mode, stops watching the file of the hot reload mode, leaves the shared file mode,
+     * overwrites the decrypted values held in memory with zeros and unregisters the MBean of the metrics.
+     * The instance stays usable afterwards and saves every change synchronously again.
+     *
+     * @throws UncheckedIOException if the pending changes of the write-behind mode cannot be saved; everything else
+     *                              is closed anyway, and the changes stay in memory for the next save
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            asyncSaves.last().join();
+        } catch (RuntimeException e) {
+            // Already reported through the future of the failed save
+        }
+        FileWatcher currentWatcher = watcher;
+        if (currentWatcher != null) {
+            watcher = null;
+            currentWatcher.close();
+            synchronized (fileLock) {
+                fileBase = null;
+            }
+        }
+        IOException flushFailure = null;
+        WriteBehindFlusher currentFlusher = flusher;
+        if (currentFlusher != null) {
+            flusher = null;
+            try {
+                currentFlusher.close();
+            } catch (IOException e) {
+                flushFailure = e;
+            }
+        }
+        PropertiesJournal currentJournal = journal;
+        if (currentJournal != null) {
+            journal = null;
+            currentJournal.close();
+        }
+        SharedFile currentShared = sharedFile;
+        if (currentShared != null) {
+            sharedFile = null;
+            currentShared.close();
+        }
+        SecretIndex index = secrets;
+        if (index != null) {
+            index.wipe();
+        }
+        if (metrics != null) {
+            metrics.unregister();
+        }
+        if (flushFailure != null) {
+            throw new UncheckedIOException("Cannot save the pending changes of " + filePath, flushFailure);
+        }
+    }
+
+    /**
+     * Applies a batch of changes: encrypts its secret values, applies every value at once
+     * and persists the whole batch once.
+     *
+     * @param transaction the batch of changes
+     */
+    private void commit(ConfigTransaction transaction) {
+        Map<String, String> entries = new LinkedHashMap<>(transaction.getValues());
+        Map<String, String> secretValues = transaction.getSecrets();
+        if (entries.isEmpty() && secretValues.isEmpty()) {
+            return;
+        }
+        ensureLoaded();
+        secretsLock.readLock().lock();
+        try {
+            commit(entries, secretValues);
+        } finally {
+            secretsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a batch of changes while holding the read lock of the secrets, so the secret key does not change.
+     *
+     * @param entries      the plain values of the batch
+     * @param secretValues the values of the batch to encrypt
+     */
+    private void commit(Map<String, String> entries, Map<String, String> secretValues) {
+        SecretIndex secrets = this.secrets;
+        if (secrets == null && !secretValues.isEmpty()) {
+            throw new NullSecretKeyException();
+        }
+        for (Map.Entry<String, String> secret : secretValues.entrySet()) {
+            String encryptedKey = secrets.encryptedKey(secret.getKey());
+            String encryptedValue = secrets.getCipher().encrypt(secret.getValue());
+            if (encryptedKey == null || encryptedValue == null) {
+                throw new IllegalStateException("Cannot encrypt the value of " + secret.getKey());
+            }
+            entries.put(encryptedKey, encryptedValue);
+        }
+        Map<String, String> previous = store.apply(entries);
+        prefixes.touch(entries.keySet());
+        if (metrics != null) {
+            metrics.record(ConfigMetrics.Event.SET, entries.size());
+        }
+        for (String key : entries.keySet()) {
+            typedValues.invalidate(key);
+        }
+        for (Map.Entry<String, String> secret : secretValues.entrySet()) {
+            String encryptedKey = secrets.encryptedKey(secret.getKey());
+            secrets.put(secret.getKey(), encryptedKey, entries.get(encryptedKey), secret.getValue());
+        }
+        persistAll();
+        if (!listeners.isEmpty()) {
+            List<ConfigChange> changes = new ArrayList<>();
+            entries.forEach((key, value) -> {
+                String old = previous.get(key);
+                if (!value.equals(old)) {
+                    changes.add(new ConfigChange(key, old, value));
+                }
+            });
+            fireChanges(changes);
+        }
+    }
+
+    /**
+     * Stores a single change and persists it, either as a journal record, through the background writer
+     * of the write-behind mode or by saving the whole file synchronously.
+     * In journal mode the change is stored and appended under the file lock, so the records of concurrent
+     * changes to the same key reach the journal in the order the values reached the store.
+     *
+     * @param key   the key of the changed property
+     * @param value the new value of the property
+     * @return the previous value of the property, or null if it was not set
+     */
+    private String putAndPersist(String key, String value) {
+        PropertiesJournal currentJournal = journal;
+        if (currentJournal != null) {
+            String previous;
+            synchronized (fileLock) {
+                previous = store.put(key, value);
+                if (currentJournal.append(key, value, effectiveDurability() != Durability.NONE)) {
+                    if (fileBase != null) {
+                        fileBase.put(key, value);
+                    }
+                    return previous;
+                }
+            }
+            persistAll();
+            return previous;
+        }
+        String previous = store.put(key, value);
+        persistAll();
+        return previous;
+    }
+
+    /**
+     * Persists a change that may touch any number of properties, either through the background writer
+     * of the write-behind mode or by saving the whole file synchronously.
+     */
+    private void persistAll() {
+        WriteBehindFlusher current = flusher;
+        if (current != null) {
+            current.markDirty();
+        } else {
+            saveToFile();
+        }
+    }
+
+    /**
+     * Saves the properties to a file.
+     * The properties are stored in the specified file path with a comment,
+     * and the journal is truncated since the file now holds every change.
+     * If an IOException occurs during the file saving process, the exception is printed.
+     */
+    void saveToFile() {
+        try {
+            saveRecordingErrors();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Saves the properties to a file like {@link #saveToFile()}, recording a failure in the metrics and throwing it.
+     * Used by the background writer of the write-behind mode, which retries the failed saves.
+     *
+     * @throws IOException if an I/O error occurs while saving the file
+     */
+    private void saveRecordingErrors() throws IOException {
+        try {
+            save();
+        } catch (IOException e) {
+            if (metrics != null) {
+                metrics.record(ConfigMetrics.Event.IO_ERROR);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Saves the properties to a file, through a compaction of the journal in journal mode,
+     * and truncates the journal since the file now holds every change.
+     *
+     * @throws IOException if an I/O error occurs while saving the file
+     */
+    private void save() throws IOException {
+        PropertiesJournal current = journal;
+        if (current != null) {
+            current.compact();
+        } else {
+            synchronized (fileLock) {
+                writeFile();
+                if (!PropertiesJournal.discard(filePath) && metrics != null) {
+                    metrics.record(ConfigMetrics.Event.IO_ERROR);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the properties to the file, without touching the journal.
+     * The properties are written to a temporary file that replaces the settings file atomically,
+     * so a crash in the middle of a save never leaves a truncated settings file behind.
+     * Holds the file lock, so a reload never reads the file while this instance replaces it.
+     *
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    private void writeFile() throws IOException {
+        ensureLoaded();
+        long start = metrics == null ? 0L : System.nanoTime();
+        try {
+            synchronized (fileLock) {
+                long bytes;
+                SharedFile shared = sharedFile;
+                if (shared != null) {
+                    bytes = writeShared(shared);
+                } else if (loading == Loading.SNAPSHOT || fileBase != null) {
+                    // Written from a copy, so the hot reload mode knows exactly what the file holds
+                    Map<String, String> entries = store.entries();
+                    bytes = loading == Loading.SNAPSHOT ? writeWithSnapshot(entries) : writeEntries(entries);
+                    if (fileBase != null) {
+                        fileBase = new HashMap<>(entries);
+                    }
+                } else {
+                    bytes = AtomicFileWriter.write(
+                            Paths.get(filePath),
+                            outputStream -> store.store(outputStream, "Application Settings"),
+                            effectiveDurability()
+                    );
+                }
+                if (metrics != null) {
+                    metrics.record(ConfigMetrics.Event.BYTES_WRITTEN, bytes);
+                }
+            }
+        } finally {
+            if (metrics != null) {
+                metrics.record(ConfigMetrics.Event.SAVE, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Runs a task on the asynchronous executor.
+     *
+     * @param task the task to run
+     * @param <T>  the type of the result of the task
+     * @return a future completed with the result of the task, or completed exceptionally with its error
+     */
+    private <T> CompletableFuture<T> runAsync(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            getAsyncExecutor().execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Loads the settings file, if it is not loaded yet.
+     * The check is a single volatile read once loaded, so it costs nothing on the read path.
+     */
+    private void ensureLoaded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    /**
+     * Get the value of a property, loading the settings file first if needed.
+     *
+     * @param key the key of the property
+     * @return the value of the property, or null if the property does not exist
+     */
+    private String read(String key) {
+        ensureLoaded();
+        revalidate();
+        return store.get(key);
+    }
+
+    /**
+     * Get every property, loading the settings file first if needed.
+     *
+     * @return a consistent, unmodifiable copy of the properties
+     */
+    Map<String, String> entries() {
+        ensureLoaded();
+        revalidate();
+        return store.entries();
+    }
+
+    /**
+     * Get the current value of a property held in memory, without recording metrics or checking the shared file.
+     * Used by the views following the changes of this instance.
+     *
+     * @param key the key of the property
+     * @return the value of the property, or null if the property does not exist
+     */
+    String current(String key) {
+        return store.get(key);
+    }
+
+    /**
+     * Get the value of a property read by a typed getter.
+     *
+     * @param key the key of the property
+     * @return the value of the property, or null if the property does not exist
+     */
+    private String readTyped(String key) {
+        if (metrics != null) {
+            metrics.record(ConfigMetrics.Event.TYPED_GET);
+        }
+        return read(key);
+    }
+
+    /**
+     * Loads the settings file if it exists, once.
+     */
+    private void load() {
+        synchronized (loadLock) {
+            if (!loaded) {
+                if (exist()) {
+                    loadFromFile();
+                }
+                loaded = true;
+            }
+        }
+    }
+
+    /**
+     * Loads the properties from a file.
+     * The properties are read from the specified file path, and the journal, if any, is replayed on top.
+     * If an IOException occurs during the file loading process, the exception is printed.
+     */
+    void loadFromFile() {
+        long start = metrics == null ? 0L : System.nanoTime();
+        boolean indexed = false;
+        if (loading == Loading.AUTO) {
+            loading = autoLoading();
+        }
+        try {
+            if (loading == Loading.SNAPSHOT) {
+                indexed = loadSnapshot();
+            } else if (!mapFile()) {
+                store.putAll(readFile(), true);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            if (metrics != null) {
+                metrics.record(ConfigMetrics.Event.IO_ERROR);
+            }
+        }
+        typedValues.clear();
+        prefixes.rebuild();
+        if (!indexed) {
+            indexSecrets();
+        }
+        if (metrics != null) {
+            metrics.record(ConfigMetrics.Event.LOAD, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Picks the loading mode of the {@link Loading#AUTO} mode from the size of the settings file
+     * and the {@linkplain JPlatform#getIoProfile(java.nio.file.Path) I/O profile} of its directory.
+     *
+     * @return {@link Loading#MAPPED} or {@link Loading#STREAM}
+     */
+    private Loading autoLoading() {
+        Path path = Paths.get(filePath).toAbsolutePath();
+        try {
+            long size = Files.size(path);
+            return JPlatform.IoProfile.of(path.getParent()).shouldMap(size) ? Loading.MAPPED : Loading.STREAM;
+        } catch (IOException e) {
+            // A missing file has nothing to map
+            return Loading.STREAM;
+        }
+    }
+
+    /**
+     * Reads the settings file, with the journal, if any, replayed on top.
+     *
+     * @return the properties read from the file
+     * @throws IOException if an I/O error occurs while reading the file or the journal
+     */
+    private Properties readFile() throws IOException {
+        Properties loaded = new Properties();
+        try (InputStream inputStream = new FileInputStream(filePath)) {
+            loaded.load(inputStream);
+        }
+        PropertiesJournal.replay(filePath, loaded);
+        return loaded;
+    }
+
+    /**
+     * Maps the settings file in {@link Loading#MAPPED} mode, and replays the journal, if any, on top.
+     * Only the first load maps the file; if the file cannot be mapped it is read as a stream instead.
+     *
+     * @return {@code true} if the file was mapped, {@code false} if it must be read as a stream
+     * @throws IOException if an I/O error occurs while reading the journal
+     */
+    private boolean mapFile() throws IOException {
+        if (loading != Loading.MAPPED) {
+            return false;
+        }
+        try {
+            if (!((MappedStore) store).map(Paths.get(filePath))) {
+                return false;
+            }
+        } catch (IOException e) {
+            if (metrics != null) {
+                metrics.record(ConfigMetrics.Event.IO_ERROR);
+            }
+            return false;
+        }
+        Properties journaled = new Properties();
+        PropertiesJournal.replay(filePath, journaled);
+        store.putAll(journaled, true);
+        return true;
+    }
+
+    /**
+     * Loads the settings file in {@link Loading#SNAPSHOT} mode, and replays the journal, if any, on top.
+     * The properties and the index of the encrypted keys come from the binary snapshot while it still
+     * matches the settings file; otherwise the file is parsed and a new snapshot is written.
+     *
+     * @return {@code true} once the encrypted keys are indexed
+     * @throws IOException if an I/O error occurs while reading the settings file or the journal
+     */
+    private boolean loadSnapshot() throws IOException {
+        StartupSnapshot snapshot = StartupSnapshot.read(filePath);
+        if (snapshot != null && (secrets == null || secrets.restore(snapshot.getEncryptedKeys()))) {
+            store.putAll(snapshot.getEntries(), true);
+        } else {
+            if (snapshot == null) {
+                snapshot = StartupSnapshot.parse(filePath);
+            }
+            store.putAll(snapshot.getEntries(), true);
+            indexSecrets();
+            writeSnapshot(snapshot);
+        }
+        Properties journaled = new Properties();
+        PropertiesJournal.replay(filePath, journaled);
+        store.putAll(journaled, true);
+        if (secrets != null) {
+            secrets.index(journaled.keySet());
+        }
+        return true;
+    }
+
+    /**
+     * Writes the properties to the file in {@link Loading#SNAPSHOT} mode, followed by the binary snapshot
+     * of exactly the properties written.
+     *
+     * @param entries the properties to write
+     * @return the number of bytes written to the settings file
+     * @throws IOException if an I/O error occurs while writing the settings file
+     */
+    private long writeWithSnapshot(Map<String, String> entries) throws IOException {
+        CRC32C checksum = new CRC32C();
+        long bytes = AtomicFileWriter.write(
+                Paths.get(filePath),
+                outputStream -> {
+                    Properties copy = new Properties();
+                    copy.putAll(entries);
+                    copy.store(new CheckedOutputStream(outputStream, checksum), "Application Settings");
+                },
+                effectiveDurability()
+        );
+        writeSnapshot(StartupSnapshot.of(filePath, checksum.getValue(), entries, Collections.emptyMap()));
+        return bytes;
+    }
+
+    /**
+     * Writes the given properties to the settings file.
+     *
+     * @param entries the properties to write
+     * @return the number of bytes written to the settings file
+     * @throws IOException if an I/O error occurs while writing the settings file
+     */
+    private long writeEntries(Map<String, String> entries) throws IOException {
+        return AtomicFileWriter.write(
+                Paths.get(filePath),
+                outputStream -> {
+                    Properties copy = new Properties();
+                    copy.putAll(entries);
+                    copy.store(outputStream, "Application Settings");
+                },
+                effectiveDurability()
+        );
+    }
+
+    /**
+     * Writes the binary snapshot of the settings file, along with the index of its encrypted keys.
+     * The snapshot is only a cache, so a failure is printed and otherwise ignored.
+     *
+     * @param snapshot the snapshot of the settings file
+     */
+    private void writeSnapshot(StartupSnapshot snapshot) {
+        Map<String, String> encryptedKeys = secrets == null
+                ? Collections.emptyMap()
+                : secrets.encryptedKeys(snapshot.getEntries());
+        try {
+            long bytes = snapshot.withEncryptedKeys(encryptedKeys).write(filePath);
+            if (metrics != null) {
+                metrics.record(ConfigMetrics.Event.BYTES_WRITTEN, bytes);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            if (metrics != null) {
+                metrics.record(ConfigMetrics.Event.IO_ERROR);
+            }
+        }
+    }
+
+    /**
+     * Picks up the changes saved by other processes in shared file mode, if the version stamp moved.
+     * The check is a single memory read while the file did not change. If the file cannot be read,
+     * the error is printed and the current properties are kept.
+     */
+    void revalidate() {
+        SharedFile shared = sharedFile;
+        if (shared == null || shared.version() == sharedVersion) {
+            return;
+        }
+        try {
+            refreshShared(shared, false);
+        } catch (IOException e) {
+            e.printStackTrace();
+            if (metrics != null) {
+                metrics.record(ConfigMetrics.Event.IO_ERROR);
+            }
+        }
+    }
+
+    /**
+     * Reads the shared settings file again and applies the changes saved by other processes since the last
+     * synchronization, keeping the properties this instance changed meanwhile.
+     *
+     * @param shared the lock file of the shared settings file
+     * @param force  whether to read the file even if the version stamp did not move
+     * @return the applied changes
+     * @throws IOException if the settings file cannot be read or locked
+     */
+    private List<ConfigChange> refreshShared(SharedFile shared, boolean force) throws IOException {
+        List<ConfigChange> changes;
+        long start = metrics == null ? 0L : System.nanoTime();
+        try {
+            SharedFile.Lock lock = shared.lock(false);
+            try {
+                long version = shared.version();
+                if (!force && version == sharedVersion) {
+                    return Collections.emptyList();
+                }
+                Map<String, String> disk = exist() ? readEntries() : Collections.emptyMap();
+                changes = applyShared(ConfigChange.diff(sharedBase, disk), disk);
+                sharedVersion = version;
+            } finally {
+                lock.close();
+            }
+        } finally {
+            if (metrics != null) {
+                metrics.record(ConfigMetrics.Event.LOAD, System.nanoTime() - start);
+            }
+        }
+        fireChanges(changes);
+        return changes;
+    }
+
+    /**
+     * Saves the shared settings file: under the exclusive lock, merges the properties this instance changed since
+     * the last synchronization into the latest saved file, replaces the file and bumps the version stamp.
+     * The file is only read again when another process saved it since the last synchronization.
+     * The changes saved by the other processes are applied in memory as well.
+     *
+     * @param shared the lock file of the shared settings file
+     * @return the number of bytes written
+     * @throws IOException if the settings file cannot be read, written or locked
+     */
+    private long writeShared(SharedFile shared) throws IOException {
+        List<ConfigChange> changes;
+        long bytes;
+        SharedFile.Lock lock = shared.lock(true);
+        try {
+            long version = shared.version();
+            Map<String, String> base = sharedBase;
+            Map<String, String> disk = version == sharedVersion || !exist() ? base : readEntries();
+            Map<String, String> merged = new HashMap<>(disk);
+            for (ConfigChange change : ConfigChange.diff(base, store.entries())) {
+                if (change.getNewValue() == null) {
+                    merged.remove(change.getKey());
+                } else {
+                    merged.put(change.getKey(), change.getNewValue());
+                }
+            }
+            bytes = AtomicFileWriter.write(
+                    Paths.get(filePath),
+                    outputStream -> {
+                        Properties copy = new Properties();
+                        copy.putAll(merged);
+                        copy.store(outputStream, "Application Settings");
+                    },
+                    effectiveDurability()
+            );
+            shared.publish(version + 1, effectiveDurability() != Durability.NONE);
+            changes = disk == base ? Collections.emptyList() : applyShared(ConfigChange.diff(base, disk), merged);
+            sharedBase = merged;
+            sharedVersion = version + 1;
+        } finally {
+            lock.close();
+        }
+        fireChanges(changes);
+        return bytes;
+    }
+
+    /**
+     * Applies the changes read from the shared settings file, skipping the properties this instance changed
+     * since the last synchronization, and records the file content as the new base of the merges.
+     * Only called while holding the lock of the shared file.
+     *
+     * @param changes the changes read from the file
+     * @param base    the properties now saved in the file
+     * @return the applied changes
+     */
+    private List<ConfigChange> applyShared(List<ConfigChange> changes, Map<String, String> base) {
+        List<ConfigChange> applied = changes.isEmpty() ? changes : store.applyIfUnchanged(changes);
+        if (!applied.isEmpty()) {
+            List<String> keys = new ArrayList<>(applied.size());
+            for (ConfigChange change : applied) {
+                typedValues.invalidate(change.getKey());
+                keys.add(change.getKey());
+            }
+            prefixes.touch(keys);
+            if (secrets != null) {
+                secrets.index(keys);
+            }
+        }
+        sharedBase = base;
+        return applied;
+    }
+
+    /**
+     * Reads the settings file, with the journal, if any, replayed on top.
+     *
+     * @return a copy of the properties read from the file
+     * @throws IOException if an I/O error occurs while reading the file or the journal
+     */
+    private Map<String, String> readEntries() throws IOException {
+        Map<String, String> entries = new HashMap<>();
+        readFile().forEach((k, v) -> entries.put(k.toString(), v.toString()));
+        return entries;
+    }
+
+    /**
+     * Notifies the listeners of changed properties.
+     * A failing listener does not prevent the others from being notified.
+     *
+     * @param changes the changed properties
+     */
+    private void fireChanges(List<ConfigChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<ConfigChange> unmodifiable = Collections.unmodifiableList(changes);
+        for (ConfigChangeListener listener : listeners) {
+            try {
+                listener.changed(unmodifiable);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the index of the encrypted entries after the properties were reloaded or copied.
+     */
+    private void indexSecrets() {
+        if (secrets != null) {
+            secrets.rebuild(store.keys());
+        }
+    }
+
+    /**
+     * Pads the secret key with "X" characters to ensure it has a length of 16 bytes.
+     * If the secret key length is less than 16, the method appends "X" characters
+     * to the key until it reaches a length of 16.
+     * If the secret key length is already 16 or greater, the method returns the first 16 characters of the key.
+     *
+     * @param secretKey The secret key to pad
+     * @return The padded secret key with a length of 16 bytes
+     */
+    private String padSecretKey(String secretKey) {
+        int keyLength = secretKey.length();
+        if (keyLength < 16) {
+            int paddingLength = 16 - keyLength;
+            return secretKey + "X".repeat(paddingLength);
+        }
+        return secretKey.substring(0, 16);
+    }
+
+
+    /**
+     * Checks if the settings file exists at the specified file path.
+     *
+     * @return {@code true} if the settings file exists, {@code false} otherwise
+     */
+    boolean exist(){
+        return Files.exists(Paths.get(filePath));
+    }
+
+    /**
+     * Holder of the default asynchronous executor, created on first use.
+     * It starts a virtual thread per task when the runtime supports them, and uses a pool
+     * of daemon threads otherwise.
+     */
+    private static final class DefaultExecutor {
+        private static final Executor INSTANCE = create();
+
+        private static Executor create() {
+            try {
+                return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                AtomicInteger count = new AtomicInteger();
+                return Executors.newCachedThreadPool(r -> {
+                    Thread thread = new Thread(r, "JConfig-async-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+
+    /**
+     * Represents the policies of {@link #merge(InputStream, MergePolicy)}, deciding which changes of a source apply.
+     */
+    public enum MergePolicy {
+        /**
+         * The properties of the source are added, or replace the current values.
+         */
+        OVERWRITE,
+        /**
+         * Only the properties missing from the current ones are added, the current values are kept.
+         */
+        KEEP_EXISTING,
+        /**
+         * The properties missing from the current ones are added, and the merge fails without changing anything
+         * if a property of the source holds another value than the current one.
+         */
+        FAIL_ON_CONFLICT,
+        /**
+         * The current properties become those of the source: they are added, replaced, and removed when
+         * the source does not hold them.
+         */
+        REPLACE
+    }
+
+    /**
+     * Represents the durability policies of a save, from the fastest to the safest.
+     */
+    public enum Durability {
+        /**
+         * The file is replaced atomically, and the operating system decides when it reaches the disk.
+         */
+        NONE,
+        /**
+         * The file content is forced to disk before it replaces the settings file.
+         */
+        FSYNC_DATA,
+        /**
+         * The file content is forced to disk, and so is the directory entry after the replace.
+         */
+        FSYNC_DATA_AND_DIR,
+        /**
+         * The policy is picked on every save from the {@linkplain JPlatform#getIoProfile(java.nio.file.Path) I/O profile}
+         * of the directory of the settings file: {@link #NONE} on a memory file store like tmpfs,
+         * {@link #FSYNC_DATA} on a network file store and {@link #FSYNC_DATA_AND_DIR} on a local one.
+         */
+        AUTO
+    }
+
+    /**
+     * Represents the concurrency modes of the settings.
+     */
+    public enum Concurrency {
+        /**
+         * The settings live in a single {@link Properties} object, exposed as is by {@link #getProperties()}.
+         */
+        LOCKED,
+        /**
+         * Readers use an immutable snapshot of the settings without any lock, and writers publish
+         * a new snapshot. {@link #getProperties()} returns a read-only copy of the current snapshot.
+         * Every write copies the whole snapshot, so a single change costs time and garbage in proportion
+         * to the number of properties: suited to settings read far more often than they change, and
+         * best changed in batches through {@link JConfig#update(Consumer)}, which copy the snapshot once.
+         */
+        SNAPSHOT
+    }
+
+    /**
+     * Represents the loading modes of the settings file.
+     */
+    public enum Loading {
+        /**
+         * The whole file is parsed into memory when loading.
+         */
+        STREAM,
+        /**
+         * The file is memory-mapped and only indexed when loading, and each value is decoded the first
+         * time it is read. The first call needing every property at once, like a save or
+         * {@link #getProperties()}, decodes the rest of the file. Suited to large files of which
+         * only a few keys are read.
+         */
+        MAPPED,
+        /**
+         * The file is loaded from a binary snapshot kept next to it, along with the index of the encrypted keys,
+         * as long as the snapshot still matches the size, the modification time and the checksum of the file.
+         * Otherwise the file is parsed and the snapshot rewritten. Every save rewrites the snapshot as well.
+         * Suited to short-lived processes that read their settings on every start.
+         */
+        SNAPSHOT,
+        /**
+         * When the file is first loaded, {@link #MAPPED} or {@link #STREAM} is picked from its size and
+         * the {@linkplain JPlatform#getIoProfile(java.nio.file.Path) I/O profile} of its directory, mapping large files
+         * on local file stores. Opt-in, the constructors without a loading mode use {@link #STREAM}.
+         */
+        AUTO
     }
 }
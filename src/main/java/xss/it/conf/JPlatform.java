@@ -1,7 +1,21 @@
 package xss.it.conf;
 
-import javax.swing.filechooser.FileSystemView;
+import org.jetbrains.annotations.Nullable;
+
 import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 
 /**
  * @author XDSSWAR
@@ -65,12 +79,101 @@ public final class JPlatform {
 
 
     /**
-     * Retrieves the path of the Documents directory for the current user.
+     * Retrieves the path of the Documents directory for the current user, as Swing's default directory reports it:
+     * the home directory on Linux, Mac and other Unix systems, and the Documents folder of the home directory on Windows.
+     * Swing is only used on Windows when that folder does not exist, and only if the java.desktop module is present.
+     * Resolved once, by the first call asking for a directory.
      *
      * @return The path of the Documents directory.
+     * @see #getUserDocumentsDir()
      */
     public static String getDocumentsDir(){
-        return FileSystemView.getFileSystemView().getDefaultDirectory().getPath()+_DIR_SEPARATOR;
+        return Directories.CURRENT.documents;
+    }
+
+    /**
+     * Retrieves the documents folder the desktop shows the user. On Linux and other Unix systems, it is the XDG
+     * documents directory, set by the {@code XDG_DOCUMENTS_DIR} environment variable or the {@code user-dirs.dirs} file,
+     * else the Documents folder of the home directory if it exists, else the home directory.
+     * On Mac it is the Documents folder of the home directory, and on Windows the same as {@link #getDocumentsDir()}.
+     *
+     * @return The path of the user's documents folder.
+     */
+    public static String getUserDocumentsDir(){
+        return Directories.CURRENT.userDocuments;
+    }
+
+    /**
+     * Retrieves the directory of the user's configuration files: {@code $XDG_CONFIG_HOME} or {@code ~/.config} on Linux,
+     * {@code ~/Library/Application Support} on Mac and {@code %APPDATA%} on Windows.
+     *
+     * @return The path of the configuration directory.
+     */
+    public static String getConfigDir(){
+        return Directories.CURRENT.config;
+    }
+
+    /**
+     * Retrieves the directory of the user's data files: {@code $XDG_DATA_HOME} or {@code ~/.local/share} on Linux,
+     * {@code ~/Library/Application Support} on Mac and {@code %APPDATA%} on Windows.
+     *
+     * @return The path of the data directory.
+     */
+    public static String getDataDir(){
+        return Directories.CURRENT.data;
+    }
+
+    /**
+     * Retrieves the directory of the user's cache files: {@code $XDG_CACHE_HOME} or {@code ~/.cache} on Linux,
+     * {@code ~/Library/Caches} on Mac and {@code %LOCALAPPDATA%} on Windows.
+     *
+     * @return The path of the cache directory.
+     */
+    public static String getCacheDir(){
+        return Directories.CURRENT.cache;
+    }
+
+    /**
+     * Retrieves the directory of the user's state files, like logs and histories: {@code $XDG_STATE_HOME} or
+     * {@code ~/.local/state} on Linux, {@code ~/Library/Application Support} on Mac and {@code %LOCALAPPDATA%} on Windows.
+     *
+     * @return The path of the state directory.
+     */
+    public static String getStateDir(){
+        return Directories.CURRENT.state;
+    }
+
+    /**
+     * Retrieves the I/O profile of the machine and of the file store of the configuration directory.
+     *
+     * @return The I/O profile, probed once, or the one set by {@link #setIoProfile(IoProfile)}.
+     * @see #getIoProfile(Path)
+     */
+    public static IoProfile getIoProfile(){
+        return getIoProfile(Paths.get(getConfigDir()));
+    }
+
+    /**
+     * Retrieves the I/O profile of the machine and of the file store holding a directory, used by {@link JConfig}
+     * to pick its loading mode, its {@link JConfig.Durability#AUTO automatic} durability policy and the number
+     * of threads re-encrypting its secrets. The probe runs once per directory, the last 64 directories used being kept;
+     * if the directory does not exist, its nearest existing parent is probed.
+     *
+     * @param directory The directory to probe.
+     * @return The I/O profile of the directory, or the one set by {@link #setIoProfile(IoProfile)}.
+     */
+    public static IoProfile getIoProfile(Path directory){
+        return IoProfile.of(directory);
+    }
+
+    /**
+     * Overrides the I/O profile returned for every directory, for instance to force the loading mode or the
+     * durability policy picked on a machine whose probe is misleading.
+     *
+     * @param profile The I/O profile to use, or {@code null} to use the probed profiles again.
+     */
+    public static void setIoProfile(@Nullable IoProfile profile){
+        IoProfile.override(profile);
     }
 
     /**
@@ -141,6 +244,441 @@ public final class JPlatform {
         }
     }
 
+    /**
+     * The standard directories of the current user, each followed by the directory separator.
+     * Resolved through NIO, so that headless applications do not load AWT and Swing.
+     */
+    static final class Directories {
+        /**
+         * The directories of the current user, resolved by the first access.
+         */
+        private static final Directories CURRENT = resolve(getOS(), Paths.get(_USER_DIR), System::getenv);
+
+        final String documents;
+        final String userDocuments;
+        final String config;
+        final String data;
+        final String cache;
+        final String state;
+
+        private Directories(Path documents, Path userDocuments, Path config, Path data, Path cache, Path state) {
+            this.documents = documents + _DIR_SEPARATOR;
+            this.userDocuments = userDocuments + _DIR_SEPARATOR;
+            this.config = config + _DIR_SEPARATOR;
+            this.data = data + _DIR_SEPARATOR;
+            this.cache = cache + _DIR_SEPARATOR;
+            this.state = state + _DIR_SEPARATOR;
+        }
+
+        /**
+         * Resolves the standard directories of a user.
+         *
+         * @param os   the operating system
+         * @param home the home directory of the user
+         * @param env  the environment variables, returning null for a missing one
+         * @return the directories of the user
+         */
+        static Directories resolve(OS os, Path home, Function<String, String> env) {
+            switch (os) {
+                case WINDOWS: {
+                    Path roaming = absolute(env.apply("APPDATA"), home.resolve("AppData").resolve("Roaming"));
+                    Path local = absolute(env.apply("LOCALAPPDATA"), home.resolve("AppData").resolve("Local"));
+                    Path documents = home.resolve("Documents");
+                    if (!Files.isDirectory(documents)) {
+                        Path swing = swingDocumentsDir();
+                        documents = swing != null ? swing : home;
+                    }
+                    return new Directories(documents, documents, roaming, roaming, local, local);
+                }
+                case OSX: {
+                    Path library = home.resolve("Library");
+                    Path support = library.resolve("Application Support");
+                    return new Directories(home, home.resolve("Documents"), support, support, library.resolve("Caches"), support);
+                }
+                default: {
+                    Path config = absolute(env.apply("XDG_CONFIG_HOME"), home.resolve(".config"));
+                    Path local = home.resolve(".local");
+                    return new Directories(home, xdgDocumentsDir(home, config, env), config,
+                            absolute(env.apply("XDG_DATA_HOME"), local.resolve("share")),
+                            absolute(env.apply("XDG_CACHE_HOME"), home.resolve(".cache")),
+                            absolute(env.apply("XDG_STATE_HOME"), local.resolve("state")));
+                }
+            }
+        }
+
+        /**
+         * Resolves the XDG documents directory: the {@code XDG_DOCUMENTS_DIR} environment variable, else its entry in
+         * the {@code user-dirs.dirs} file, else the Documents folder of the home directory if it exists, else the home directory.
+         *
+         * @param home   the home directory of the user
+         * @param config the configuration directory of the user, holding {@code user-dirs.dirs}
+         * @param env    the environment variables
+         * @return the documents directory
+         */
+        private static Path xdgDocumentsDir(Path home, Path config, Function<String, String> env) {
+            Path documents = absolute(env.apply("XDG_DOCUMENTS_DIR"), null);
+            if (documents != null) {
+                return documents;
+            }
+            Path userDirs = config.resolve("user-dirs.dirs");
+            if (Files.isReadable(userDirs)) {
+                try {
+                    List<String> lines = Files.readAllLines(userDirs);
+                    for (String line : lines) {
+                        line = line.trim();
+                        if (!line.startsWith("XDG_DOCUMENTS_DIR=")) {
+                            continue;
+                        }
+                        String value = line.substring("XDG_DOCUMENTS_DIR=".length());
+                        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                            value = value.substring(1, value.length() - 1);
+                        }
+                        if (value.equals("$HOME") || value.equals("$HOME/")) {
+                            return home;
+                        } else if (value.startsWith("$HOME/")) {
+                            return home.resolve(value.substring("$HOME/".length()));
+                        } else if (value.startsWith("/")) {
+                            return Paths.get(value);
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // An unreadable file falls back to the default
+                }
+            }
+            documents = home.resolve("Documents");
+            return Files.isDirectory(documents) ? documents : home;
+        }
+
+        /**
+         * Get a directory set by an environment variable, ignoring relative paths like the XDG specification requires.
+         *
+         * @param value    the value of the environment variable, or null if it is not set
+         * @param fallback the directory used if the value is missing or relative
+         * @return the directory
+         */
+        private static Path absolute(@Nullable String value, @Nullable Path fallback) {
+            if (value != null && !value.isEmpty()) {
+                try {
+                    Path path = Paths.get(value);
+                    if (path.isAbsolute()) {
+                        return path;
+                    }
+                } catch (RuntimeException e) {
+                    // An invalid path falls back to the default
+                }
+            }
+            return fallback;
+        }
+
+        /**
+         * Asks Swing for the documents directory, through reflection so that the java.desktop module is optional.
+         *
+         * @return the documents directory, or null if Swing is not available
+         */
+        @Nullable
+        private static Path swingDocumentsDir() {
+            try {
+                Class<?> type = Class.forName("javax.swing.filechooser.FileSystemView");
+                Object view = type.getMethod("getFileSystemView").invoke(null);
+                File directory = (File) type.getMethod("getDefaultDirectory").invoke(view);
+                return directory != null ? directory.toPath() : null;
+            } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * The I/O capabilities of the machine and of a file store, and the persistence choices derived from them.
+     * The probed profiles are kept here rather than in {@link JPlatform}, so that {@link JConfig} reading them
+     * does not initialize the operating system facts of {@link JPlatform}.
+     */
+    public static final class IoProfile {
+        /**
+         * The smallest file, in pages, worth memory-mapping rather than parsing as a stream.
+         */
+        private static final int MAPPED_MIN_PAGES = 256;
+        private static final int DEFAULT_PAGE_SIZE = 4096;
+        /**
+         * The maximum number of directories whose profile is kept, the least recently used being dropped first.
+         */
+        private static final int MAX_PROFILES = 64;
+        private static final boolean WINDOWS = System.getProperty("os.name").toLowerCase(Locale.ROOT).contains("windows");
+        private static final boolean SIXTY_FOUR_BIT = System.getProperty("os.arch").contains("64");
+        private static final ProfileCache PROFILES = new ProfileCache();
+        private static volatile IoProfile override;
+
+        private final int availableProcessors;
+        private final long maxHeap;
+        private final String fileStoreType;
+        private final boolean atomicMove;
+        private final int pageSize;
+
+        /**
+         * Constructor for the IoProfile class, to override the probed profile.
+         *
+         * @param availableProcessors the number of processors available to the JVM
+         * @param maxHeap             the maximum heap size, in bytes
+         * @param fileStoreType       the type of the file store, like {@code ext4}, {@code tmpfs}, {@code overlay}
+         *                            or {@code nfs4}, or {@code unknown}
+         * @param atomicMove          whether a file can be renamed atomically over another in the file store
+         * @param pageSize            the size of a memory page, in bytes
+         */
+        public IoProfile(int availableProcessors, long maxHeap, String fileStoreType, boolean atomicMove, int pageSize) {
+            if (availableProcessors < 1 || maxHeap < 1 || pageSize < 1) {
+                throw new IllegalArgumentException("Processors, heap and page size must be positive");
+            }
+            this.availableProcessors = availableProcessors;
+            this.maxHeap = maxHeap;
+            this.fileStoreType = Objects.requireNonNull(fileStoreType).toLowerCase(Locale.ROOT);
+            this.atomicMove = atomicMove;
+            this.pageSize = pageSize;
+        }
+
+        /**
+         * Get the number of processors available to the JVM.
+         *
+         * @return the number of processors
+         */
+        public int getAvailableProcessors() {
+            return availableProcessors;
+        }
+
+        /**
+         * Get the maximum heap size.
+         *
+         * @return the maximum heap size, in bytes
+         */
+        public long getMaxHeap() {
+            return maxHeap;
+        }
+
+        /**
+         * Get the type of the file store.
+         *
+         * @return the type, in lower case, like {@code ext4}, {@code tmpfs}, {@code overlay} or {@code nfs4}
+         */
+        public String getFileStoreType() {
+            return fileStoreType;
+        }
+
+        /**
+         * Checks if a file can be renamed atomically over another in the file store.
+         *
+         * @return {@code true} unless the probe saw the atomic move fail
+         */
+        public boolean isAtomicMove() {
+            return atomicMove;
+        }
+
+        /**
+         * Get the size of a memory page.
+         *
+         * @return the page size, in bytes
+         */
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        /**
+         * Checks if the file store lives in memory, like tmpfs, so forcing its files to disk is pointless.
+         *
+         * @return {@code true} for a memory file store, {@code false} otherwise
+         */
+        public boolean isVolatileStore() {
+            return fileStoreType.equals("tmpfs") || fileStoreType.equals("ramfs");
+        }
+
+        /**
+         * Checks if the file store is a network file system, where a mapped file can vanish under the reader
+         * and every round trip is expensive.
+         *
+         * @return {@code true} for a network file store, {@code false} otherwise
+         */
+        public boolean isNetworkStore() {
+            return fileStoreType.startsWith("nfs") || fileStoreType.startsWith("smb") || fileStoreType.equals("cifs")
+                    || fileStoreType.equals("9p") || fileStoreType.equals("fuse.sshfs") || fileStoreType.equals("afs");
+        }
+
+        /**
+         * Get the number of threads re-encrypting the secrets of a settings file at once.
+         *
+         * @return the number of available processors
+         */
+        public int getCryptoThreads() {
+            return availableProcessors;
+        }
+
+        /**
+         * Checks if a settings file is better memory-mapped than parsed as a stream.
+         * Files of at least {@value #MAPPED_MIN_PAGES} pages are mapped on a 64-bit local file store other than
+         * on Windows, which keeps mapped files locked. Files larger than a quarter of the heap are mapped on any
+         * 64-bit store, since parsing them could exhaust the heap.
+         *
+         * @param fileSize the size of the settings file, in bytes
+         * @return {@code true} to memory-map the file, {@code false} to parse it as a stream
+         */
+        public boolean shouldMap(long fileSize) {
+            if (!SIXTY_FOUR_BIT) {
+                return false;
+            }
+            if (fileSize > maxHeap / 4) {
+                return true;
+            }
+            return fileSize >= (long) MAPPED_MIN_PAGES * pageSize && !isNetworkStore() && !WINDOWS;
+        }
+
+        /**
+         * Get the durability policy fitting the file store: nothing is forced to disk on a memory file store,
+         * the content is forced on a network file store, whose server commits the directory itself,
+         * and both the content and the directory are forced on a local file store.
+         *
+         * @return the durability policy
+         */
+        public JConfig.Durability getDurability() {
+            if (isVolatileStore()) {
+                return JConfig.Durability.NONE;
+            }
+            return isNetworkStore() ? JConfig.Durability.FSYNC_DATA : JConfig.Durability.FSYNC_DATA_AND_DIR;
+        }
+
+        @Override
+        public String toString() {
+            return "IoProfile{availableProcessors=" + availableProcessors + ", maxHeap=" + maxHeap
+                    + ", fileStoreType=" + fileStoreType + ", atomicMove=" + atomicMove + ", pageSize=" + pageSize + '}';
+        }
+
+        /**
+         * Get the profile of a directory, probed once, or the overriding profile.
+         *
+         * @param directory the directory
+         * @return the profile of the directory
+         * @see JPlatform#getIoProfile(Path)
+         */
+        static IoProfile of(Path directory) {
+            IoProfile profile = override;
+            if (profile != null) {
+                return profile;
+            }
+            Path key = directory.toAbsolutePath().normalize();
+            synchronized (PROFILES) {
+                profile = PROFILES.get(key);
+            }
+            if (profile == null) {
+                // Probed outside the lock, so a slow file store does not hold up the other directories
+                IoProfile probed = probe(key);
+                synchronized (PROFILES) {
+                    profile = PROFILES.putIfAbsent(key, probed);
+                }
+                if (profile == null) {
+                    profile = probed;
+                }
+            }
+            return profile;
+        }
+
+        /**
+         * Overrides the profile of every directory.
+         *
+         * @param profile the overriding profile, or null to use the probed profiles again
+         * @see JPlatform#setIoProfile(IoProfile)
+         */
+        static void override(@Nullable IoProfile profile) {
+            override = profile;
+        }
+
+        /**
+         * Least recently used cache of the probed profiles, keeping at most {@link #MAX_PROFILES} directories,
+         * so the probe runs once per directory in use however many directories were seen.
+         * Only accessed while holding its own lock.
+         */
+        private static final class ProfileCache extends LinkedHashMap<Path, IoProfile> {
+            private static final long serialVersionUID = 1L;
+
+            private ProfileCache() {
+                super(16, 0.75f, true);
+            }
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, IoProfile> eldest) {
+                return size() > MAX_PROFILES;
+            }
+        }
+
+        /**
+         * Probes the machine and the file store holding a directory.
+         *
+         * @param directory the absolute directory to probe
+         * @return the probed profile
+         */
+        static IoProfile probe(Path directory) {
+            Path existing = directory;
+            while (existing != null && !Files.isDirectory(existing)) {
+                existing = existing.getParent();
+            }
+            String type = "unknown";
+            boolean atomicMove = true;
+            if (existing != null) {
+                try {
+                    type = Files.getFileStore(existing).type();
+                } catch (IOException | RuntimeException e) {
+                    // Keep the unknown type
+                }
+                atomicMove = probeAtomicMove(existing);
+            }
+            return new IoProfile(Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().maxMemory(),
+                    type, atomicMove, probePageSize());
+        }
+
+        /**
+         * Renames a temporary file atomically in a directory.
+         *
+         * @param directory the directory
+         * @return {@code false} if the file system refused the atomic move, {@code true} otherwise,
+         * including when the directory cannot be written
+         */
+        private static boolean probeAtomicMove(Path directory) {
+            Path source = null;
+            Path target = null;
+            try {
+                source = Files.createTempFile(directory, ".jconf-probe", ".tmp");
+                target = source.resolveSibling(source.getFileName() + ".moved");
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+                return true;
+            } catch (AtomicMoveNotSupportedException e) {
+                return false;
+            } catch (IOException | RuntimeException e) {
+                return true;
+            } finally {
+                try {
+                    if (source != null) {
+                        Files.deleteIfExists(source);
+                    }
+                    if (target != null) {
+                        Files.deleteIfExists(target);
+                    }
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        /**
+         * Reads the page size through {@code sun.misc.Unsafe}, when the jdk.unsupported module is present.
+         *
+         * @return the page size, or 4096 if it cannot be read
+         */
+        private static int probePageSize() {
+            try {
+                Class<?> type = Class.forName("sun.misc.Unsafe");
+                Field field = type.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                return (int) type.getMethod("pageSize").invoke(field.get(null));
+            } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+                return DEFAULT_PAGE_SIZE;
+            }
+        }
+    }
+
     /**
      * Represents different operating systems.
      */
@@ -0,0 +1,121 @@
+package xss.it.conf;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Lock-free histogram of durations used by {@link ConfigMetrics}.
+ * Durations are counted in power-of-two buckets of nanoseconds, so recording is a few striped
+ * additions, and a percentile is reported as the upper bound of its bucket, within a factor of two.
+ */
+final class LatencyHistogram {
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Constructor for the LatencyHistogram class.
+     */
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds, negative durations are recorded as 0
+     */
+    void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        buckets[bucketOf(value)].increment();
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    /**
+     * Get the number of recorded durations.
+     *
+     * @return the number of recorded durations
+     */
+    long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Get the sum of the recorded durations.
+     *
+     * @return the total duration in nanoseconds
+     */
+    long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Get the longest recorded duration.
+     *
+     * @return the longest duration in nanoseconds, 0 if nothing was recorded
+     */
+    long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Get an approximate percentile of the recorded durations.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound of the bucket holding the percentile, capped by the longest duration,
+     * or 0 if nothing was recorded
+     */
+    long getPercentileNanos(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(total * Math.min(100d, Math.max(0d, percentile)) / 100d));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long upperBound = i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                return Math.min(upperBound, getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * Clears the recorded durations.
+     */
+    void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    /**
+     * Gets the bucket of a duration: bucket {@code i} holds the durations in {@code [2^i, 2^(i+1))},
+     * and bucket 0 holds 0 as well.
+     *
+     * @param nanos the duration in nanoseconds, not negative
+     * @return the index of the bucket
+     */
+    private static int bucketOf(long nanos) {
+        return nanos == 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+}
@@ -0,0 +1,391 @@
+package xss.it.conf;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Read view of the settings of a {@link JConfig} layered over other sources: built-in defaults below the file,
+ * environment variables and system properties above it. A property is read from the highest layer holding it.
+ * The layers are resolved ahead of time into a single map, so a read is one hash lookup however many layers
+ * there are. When a layer changes, only its changed keys are resolved again. The file layer follows the JConfig
+ * through a change listener, and changes are written to the file only, so the defaults never reach the disk.
+ */
+public final class LayeredConfig implements AutoCloseable {
+    private final JConfig config;
+    private final Map<Layer, Map<String, String>> layers = new EnumMap<>(Layer.class);
+    private final Map<String, String> resolved = new ConcurrentHashMap<>();
+    private final TypedValueCache typedValues = new TypedValueCache();
+    private final List<ConfigChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final ConfigChangeListener fileListener = this::fileChanged;
+
+    /**
+     * Constructor for the LayeredConfig class, with the settings file as the only layer.
+     *
+     * @param config the JConfig of the settings file
+     */
+    public LayeredConfig(JConfig config) {
+        this.config = Objects.requireNonNull(config);
+        for (Layer layer : Layer.values()) {
+            layers.put(layer, new HashMap<>());
+        }
+        synchronized (this) {
+            config.addChangeListener(fileListener);
+            replace(Layer.FILE, config.entries());
+        }
+    }
+
+    /**
+     * Get the JConfig of the settings file, to change encrypted properties or the file modes.
+     *
+     * @return the JConfig of the settings file
+     */
+    public JConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Set the built-in defaults, usually a {@code .properties} resource, replacing the previous ones.
+     *
+     * @param stream the InputStream of the defaults, in the properties file format
+     * @throws IOException if an I/O error occurs while reading the defaults
+     */
+    public void setDefaults(InputStream stream) throws IOException {
+        Properties defaults = config.readFromResources(stream);
+        Map<String, String> entries = new HashMap<>();
+        defaults.forEach((k, v) -> entries.put(k.toString(), v.toString()));
+        setLayer(Layer.DEFAULTS, entries);
+    }
+
+    /**
+     * Set the environment variables layer from the variables starting with a prefix, replacing the previous ones.
+     * The prefix is removed, the rest is lower-cased and its underscores become dots,
+     * so {@code MYAPP_DATABASE_URL} is read as {@code database.url} with the {@code MYAPP_} prefix.
+     *
+     * @param prefix the prefix of the variables to use, or null to clear the layer
+     */
+    public void setEnvironment(@Nullable String prefix) {
+        setLayer(Layer.ENVIRONMENT, prefix == null ? Collections.emptyMap() : fromEnvironment(System.getenv(), prefix));
+    }
+
+    /**
+     * Set the system properties layer from the properties starting with a prefix, replacing the previous ones.
+     * The prefix is removed, so {@code myapp.database.url} is read as {@code database.url} with the
+     * {@code myapp.} prefix. System properties changed afterwards are only seen after another call.
+     *
+     * @param prefix the prefix of the system properties to use, or null to clear the layer
+     */
+    public void setSystemProperties(@Nullable String prefix) {
+        Map<String, String> entries = new HashMap<>();
+        if (prefix != null) {
+            Properties system = System.getProperties();
+            for (String name : system.stringPropertyNames()) {
+                String value = system.getProperty(name);
+                if (name.startsWith(prefix) && name.length() > prefix.length() && value != null) {
+                    entries.put(name.substring(prefix.length()), value);
+                }
+            }
+        }
+        setLayer(Layer.SYSTEM_PROPERTIES, entries);
+    }
+
+    /**
+     * Replace every property of a layer, resolving only the keys that changed.
+     *
+     * @param layer   the layer to replace
+     * @param entries the properties of the layer
+     * @throws IllegalArgumentException if the layer is {@link Layer#FILE}, which follows the JConfig
+     */
+    public void setLayer(Layer layer, Map<String, String> entries) {
+        if (layer == Layer.FILE) {
+            throw new IllegalArgumentException("The file layer follows the JConfig, change the JConfig instead");
+        }
+        List<ConfigChange> changes;
+        synchronized (this) {
+            changes = replace(layer, entries);
+        }
+        fireChanges(changes);
+    }
+
+    /**
+     * Get the properties of a layer.
+     *
+     * @param layer the layer
+     * @return an unmodifiable copy of the properties of the layer
+     */
+    public synchronized Map<String, String> getLayer(Layer layer) {
+        return Collections.unmodifiableMap(new HashMap<>(layers.get(layer)));
+    }
+
+    /**
+     * Get the layer a property is read from.
+     *
+     * @param key the key of the property
+     * @return the highest layer holding the property, or null if the property does not exist
+     */
+    public synchronized @Nullable Layer getSource(String key) {
+        Layer[] order = Layer.values();
+        for (int i = order.length - 1; i >= 0; i--) {
+            if (layers.get(order[i]).containsKey(key)) {
+                return order[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get every resolved property.
+     *
+     * @return an unmodifiable live view of the resolved properties
+     */
+    public Map<String, String> asMap() {
+        return Collections.unmodifiableMap(resolved);
+    }
+
+    /**
+     * Set or update the value of a property in the settings file.
+     * The value is read back through the layers, so a higher layer holding the same key still wins.
+     *
+     * @param key   the key of the property
+     * @param value the value to be set
+     */
+    public void set(String key, String value) {
+        config.set(key, value);
+    }
+
+    /**
+     * Get the value of a property as a string, from the highest layer holding it.
+     *
+     * @param key the key of the property
+     * @return the value of the property as a string, or null if the property does not exist
+     */
+    public String get(String key) {
+        return resolved.get(key);
+    }
+
+    /**
+     * Get the value of a property as an integer.
+     *
+     * @param key the key of the property
+     * @return the value of the property as an integer, or -1 if the property does not exist or cannot be parsed as an integer
+     */
+    public int getInteger(String key) {
+        String value = resolved.get(key);
+        return value != null ? typedValues.getInt(key, value, -1) : -1;
+    }
+
+    /**
+     * Get the value of a property as a double.
+     *
+     * @param key the key of the property
+     * @return the value of the property as a double, or -1.0 if the property does not exist or cannot be parsed as a double
+     */
+    public double getDouble(String key) {
+        String value = resolved.get(key);
+        return value != null ? typedValues.getDouble(key, value, -1d) : -1d;
+    }
+
+    /**
+     * Get the value of a property as a long.
+     *
+     * @param key the key of the property
+     * @return the value of the property as a long, or -1L if the property does not exist or cannot be parsed as a long
+     */
+    public long getLong(String key) {
+        String value = resolved.get(key);
+        return value != null ? typedValues.getLong(key, value, -1L) : -1L;
+    }
+
+    /**
+     * Get the value of a property as a float.
+     *
+     * @param key the key of the property
+     * @return the value of the property as a float, or -1.0 if the property does not exist or cannot be parsed as a float
+     */
+    public float getFloat(String key) {
+        String value = resolved.get(key);
+        return value != null ? typedValues.getFloat(key, value, -1F) : -1F;
+    }
+
+    /**
+     * Get the value of a property as a boolean.
+     *
+     * @param key the key of the property
+     * @return the value of the property as a boolean, or false if the property does not exist or cannot be parsed as a boolean
+     */
+    public boolean getBoolean(String key) {
+        String value = resolved.get(key);
+        return value != null && typedValues.getBoolean(key, value);
+    }
+
+    /**
+     * Registers a listener notified of the resolved properties that change, whatever the layer that changed.
+     *
+     * @param listener the listener to add
+     */
+    public void addChangeListener(ConfigChangeListener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Unregisters a listener of the resolved properties that change.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeChangeListener(ConfigChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Stops following the changes of the JConfig. The JConfig itself stays open.
+     */
+    @Override
+    public void close() {
+        config.removeChangeListener(fileListener);
+    }
+
+    /**
+     * Maps environment variables to property keys.
+     *
+     * @param environment the environment variables
+     * @param prefix      the prefix of the variables to use
+     * @return the properties, keyed by the lower-cased variable names without the prefix, with dots for underscores
+     */
+    static Map<String, String> fromEnvironment(Map<String, String> environment, String prefix) {
+        Map<String, String> entries = new HashMap<>();
+        environment.forEach((name, value) -> {
+            if (name.startsWith(prefix) && name.length() > prefix.length()) {
+                entries.put(name.substring(prefix.length()).toLowerCase(Locale.ROOT).replace('_', '.'), value);
+            }
+        });
+        return entries;
+    }
+
+    /**
+     * Follows the changes of the JConfig into the file layer.
+     * The current value of each changed key is read back, so changes notified out of order still converge.
+     *
+     * @param fileChanges the changes of the JConfig
+     */
+    private void fileChanged(List<ConfigChange> fileChanges) {
+        List<ConfigChange> changes = new ArrayList<>();
+        synchronized (this) {
+            Map<String, String> file = layers.get(Layer.FILE);
+            for (ConfigChange change : fileChanges) {
+                String key = change.getKey();
+                String value = config.current(key);
+                if (value == null) {
+                    file.remove(key);
+                } else {
+                    file.put(key, value);
+                }
+                resolve(key, changes);
+            }
+        }
+        fireChanges(changes);
+    }
+
+    /**
+     * Replaces the properties of a layer and resolves the keys that changed.
+     *
+     * @param layer   the layer to replace
+     * @param entries the new properties of the layer
+     * @return the changes of the resolved properties
+     */
+    private List<ConfigChange> replace(Layer layer, Map<String, String> entries) {
+        Map<String, String> previous = layers.put(layer, new HashMap<>(entries));
+        Set<String> keys = new HashSet<>();
+        entries.forEach((key, value) -> {
+            if (!value.equals(previous.get(key))) {
+                keys.add(key);
+            }
+        });
+        for (String key : previous.keySet()) {
+            if (!entries.containsKey(key)) {
+                keys.add(key);
+            }
+        }
+        List<ConfigChange> changes = new ArrayList<>();
+        for (String key : keys) {
+            resolve(key, changes);
+        }
+        return changes;
+    }
+
+    /**
+     * Resolves a key from the highest layer holding it into the resolved properties.
+     *
+     * @param key     the key of the property
+     * @param changes the list collecting the change of the resolved property, if any
+     */
+    private void resolve(String key, List<ConfigChange> changes) {
+        String value = null;
+        Layer[] order = Layer.values();
+        for (int i = order.length - 1; i >= 0 && value == null; i--) {
+            value = layers.get(order[i]).get(key);
+        }
+        String previous = value == null ? resolved.remove(key) : resolved.put(key, value);
+        if (!Objects.equals(previous, value)) {
+            typedValues.invalidate(key);
+            changes.add(new ConfigChange(key, previous, value));
+        }
+    }
+
+    /**
+     * Notifies the listeners of changed resolved properties.
+     * A failing listener does not prevent the others from being notified.
+     *
+     * @param changes the changed properties
+     */
+    private void fireChanges(List<ConfigChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<ConfigChange> unmodifiable = Collections.unmodifiableList(changes);
+        for (ConfigChangeListener listener : listeners) {
+            try {
+                listener.changed(unmodifiable);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Represents the layers of the settings, from the lowest to the highest precedence.
+     */
+    public enum Layer {
+        /**
+         * The built-in defaults, kept in memory only.
+         */
+        DEFAULTS,
+        /**
+         * The settings file of the JConfig.
+         */
+        FILE,
+        /**
+         * The environment variables.
+         */
+        ENVIRONMENT,
+        /**
+         * The system properties.
+         */
+        SYSTEM_PROPERTIES
+    }
+}
@@ -0,0 +1,150 @@
+package xss.it.conf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Storage of the {@link JConfig.Concurrency#LOCKED} mode, backed by a live {@link Properties} object.
+ * Every access synchronizes on the properties object, which is also exposed as is.
+ * Writes go through a write lock as well, and reads validate an optimistic stamp against it,
+ * so a batch of changes is never seen half-applied while a read stays lock-free.
+ * Writes to the file work from a copy, so readers do not wait for the disk.
+ */
+final class LockedStore implements PropertyStore {
+    private final Properties properties = new Properties();
+    private final StampedLock lock = new StampedLock();
+
+    @Override
+    public String get(String key) {
+        long stamp = lock.tryOptimisticRead();
+        String value = properties.getProperty(key);
+        if (lock.validate(stamp)) {
+            return value;
+        }
+        stamp = lock.readLock();
+        try {
+            return properties.getProperty(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public String put(String key, String value) {
+        long stamp = lock.writeLock();
+        try {
+            return (String) properties.setProperty(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Map<String, String> apply(Map<String, String> entries) {
+        Map<String, String> previous = new HashMap<>();
+        long stamp = lock.writeLock();
+        try {
+            synchronized (properties) {
+                entries.forEach((k, v) -> previous.put(k, (String) properties.setProperty(k, v)));
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return previous;
+    }
+
+    @Override
+    public List<ConfigChange> applyIfUnchanged(List<ConfigChange> changes) {
+        List<ConfigChange> applied = new ArrayList<>();
+        long stamp = lock.writeLock();
+        try {
+            synchronized (properties) {
+                for (ConfigChange change : changes) {
+                    if (!Objects.equals(properties.get(change.getKey()), change.getOldValue())) {
+                        continue;
+                    }
+                    if (change.getNewValue() == null) {
+                        properties.remove(change.getKey());
+                    } else {
+                        properties.setProperty(change.getKey(), change.getNewValue());
+                    }
+                    applied.add(change);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return applied;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries, boolean overwrite) {
+        long stamp = lock.writeLock();
+        try {
+            synchronized (properties) {
+                if (overwrite) {
+                    properties.putAll(entries);
+                } else {
+                    entries.forEach(properties::putIfAbsent);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void replaceAll(Map<?, ?> entries) {
+        long stamp = lock.writeLock();
+        try {
+            synchronized (properties) {
+                properties.clear();
+                properties.putAll(entries);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Map<String, String> entries() {
+        Map<String, String> entries = new HashMap<>();
+        synchronized (properties) {
+            properties.forEach((k, v) -> entries.put(k.toString(), v.toString()));
+        }
+        return Collections.unmodifiableMap(entries);
+    }
+
+    @Override
+    public List<String> keys() {
+        List<String> keys = new ArrayList<>();
+        synchronized (properties) {
+            properties.keySet().forEach(key -> keys.add(key.toString()));
+        }
+        return keys;
+    }
+
+    @Override
+    public Properties view() {
+        return properties;
+    }
+
+    @Override
+    public void store(OutputStream outputStream, String comments) throws IOException {
+        Properties copy = new Properties();
+        synchronized (properties) {
+            copy.putAll(properties);
+        }
+        copy.store(outputStream, comments);
+    }
+}
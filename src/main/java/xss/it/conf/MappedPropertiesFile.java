@@ -0,0 +1,429 @@
+package xss.it.conf;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Read-only, memory-mapped view of a properties file, used by {@link JConfig} in
+ * {@link JConfig.Loading#MAPPED} loading mode.
+ * Opening the file scans it once and builds a compact index of the raw offsets of every entry,
+ * following the escape, comment and continuation rules of {@link java.util.Properties#load(java.io.InputStream)}.
+ * Keys and values are only decoded into strings when they are looked up.
+ * Safe to read from many threads at once.
+ */
+final class MappedPropertiesFile {
+    private final MappedByteBuffer buffer;
+    private int[] keyStarts = new int[64];
+    private int[] keyEnds = new int[64];
+    private int[] valueStarts = new int[64];
+    private int[] valueEnds = new int[64];
+    private int[] hashes = new int[64];
+    private int count;
+    private int[] table;
+    private int size;
+
+    /**
+     * Constructor for the MappedPropertiesFile class.
+     *
+     * @param buffer the mapped content of the file
+     */
+    private MappedPropertiesFile(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps a properties file and indexes its entries.
+     *
+     * @param path the path of the properties file
+     * @return the indexed file
+     * @throws IOException              if the file cannot be mapped, for example when larger than 2GB
+     * @throws IllegalArgumentException if the file contains a malformed {@code \\uxxxx} escape
+     */
+    static MappedPropertiesFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("File too large to map: " + path);
+            }
+            MappedPropertiesFile file = new MappedPropertiesFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, length));
+            file.scan();
+            file.index();
+            return file;
+        }
+    }
+
+    /**
+     * Get the number of distinct keys in the file.
+     *
+     * @return the number of keys
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the file holds a key, without decoding its value.
+     *
+     * @param key the key to look up
+     * @return {@code true} if the file holds the key, {@code false} otherwise
+     */
+    boolean containsKey(String key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Decodes the value of a key.
+     *
+     * @param key the key to look up
+     * @return a new string holding the value, or null if the file does not hold the key
+     */
+    String get(String key) {
+        int entry = find(key);
+        return entry < 0 ? null : decode(valueStarts[entry], valueEnds[entry]);
+    }
+
+    /**
+     * Decodes every key, without decoding the values.
+     *
+     * @return the keys
+     */
+    List<String> keys() {
+        List<String> keys = new ArrayList<>(size);
+        for (int slot : table) {
+            if (slot != 0) {
+                keys.add(decode(keyStarts[slot - 1], keyEnds[slot - 1]));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Decodes every entry.
+     *
+     * @param action the action receiving each key and value
+     */
+    void forEach(BiConsumer<String, String> action) {
+        for (int slot : table) {
+            if (slot != 0) {
+                int entry = slot - 1;
+                action.accept(decode(keyStarts[entry], keyEnds[entry]), decode(valueStarts[entry], valueEnds[entry]));
+            }
+        }
+    }
+
+    /**
+     * Finds the entry of a key.
+     *
+     * @param key the key to look up
+     * @return the index of the entry, or -1 if the file does not hold the key
+     */
+    private int find(String key) {
+        int hash = key.hashCode();
+        int mask = table.length - 1;
+        for (int index = spread(hash) & mask; table[index] != 0; index = (index + 1) & mask) {
+            int entry = table[index] - 1;
+            if (hashes[entry] == hash && keyEquals(entry, key)) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Scans the file once, recording the raw offsets and the hash of the decoded key of every entry.
+     */
+    private void scan() {
+        int limit = buffer.limit();
+        int pos = 0;
+        while (pos < limit) {
+            int c = raw(pos);
+            if (c == ' ' || c == '\t' || c == '\f' || c == '\r' || c == '\n') {
+                pos++;
+                continue;
+            }
+            if (c == '#' || c == '!') {
+                while (pos < limit && raw(pos) != '\r' && raw(pos) != '\n') {
+                    pos++;
+                }
+                continue;
+            }
+
+            // Key, up to the first unescaped separator, white space or line terminator
+            int keyStart = pos;
+            int hash = 0;
+            while (pos < limit) {
+                c = raw(pos);
+                if (c == '\\') {
+                    if (pos + 1 >= limit) {
+                        pos++;
+                        break;
+                    }
+                    int n = raw(pos + 1);
+                    if (n == '\r' || n == '\n') {
+                        pos = skipContinuation(pos + 1, limit);
+                        continue;
+                    }
+                    long next = next(pos, limit);
+                    hash = 31 * hash + (char) next;
+                    pos = (int) (next >>> 16);
+                    continue;
+                }
+                if (c == '=' || c == ':' || c == ' ' || c == '\t' || c == '\f' || c == '\r' || c == '\n') {
+                    break;
+                }
+                hash = 31 * hash + c;
+                pos++;
+            }
+            int keyEnd = pos;
+
+            // Separator, surrounded by optional white space
+            boolean separator = false;
+            while (pos < limit) {
+                c = raw(pos);
+                if (c == ' ' || c == '\t' || c == '\f') {
+                    pos++;
+                } else if (c == '\\' && pos + 1 < limit && (raw(pos + 1) == '\r' || raw(pos + 1) == '\n')) {
+                    pos = skipContinuation(pos + 1, limit);
+                } else if (!separator && (c == '=' || c == ':')) {
+                    separator = true;
+                    pos++;
+                } else {
+                    break;
+                }
+            }
+
+            // Value, up to the end of the logical line
+            int valueStart = pos;
+            while (pos < limit) {
+                c = raw(pos);
+                if (c == '\\') {
+                    if (pos + 1 >= limit) {
+                        pos++;
+                        break;
+                    }
+                    int n = raw(pos + 1);
+                    if (n == '\r' || n == '\n') {
+                        pos = skipContinuation(pos + 1, limit);
+                    } else if (n == 'u') {
+                        unicode(pos + 2, limit);
+                        pos += 6;
+                    } else {
+                        pos += 2;
+                    }
+                    continue;
+                }
+                if (c == '\r' || c == '\n') {
+                    break;
+                }
+                pos++;
+            }
+            add(keyStart, keyEnd, valueStart, Math.min(pos, limit), hash);
+        }
+    }
+
+    /**
+     * Records an entry, growing the offset arrays when needed.
+     */
+    private void add(int keyStart, int keyEnd, int valueStart, int valueEnd, int hash) {
+        if (count == keyStarts.length) {
+            int capacity = count * 2;
+            keyStarts = Arrays.copyOf(keyStarts, capacity);
+            keyEnds = Arrays.copyOf(keyEnds, capacity);
+            valueStarts = Arrays.copyOf(valueStarts, capacity);
+            valueEnds = Arrays.copyOf(valueEnds, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+        }
+        keyStarts[count] = keyStart;
+        keyEnds[count] = keyEnd;
+        valueStarts[count] = valueStart;
+        valueEnds[count] = valueEnd;
+        hashes[count] = hash;
+        count++;
+    }
+
+    /**
+     * Builds the open-addressing table from key hash to entry.
+     * When a key appears several times the last entry wins, like in {@link java.util.Properties#load}.
+     */
+    private void index() {
+        int capacity = Integer.highestOneBit(Math.max(count, 8) * 2 - 1) << 1;
+        table = new int[capacity];
+        int mask = capacity - 1;
+        for (int entry = 0; entry < count; entry++) {
+            int index = spread(hashes[entry]) & mask;
+            while (table[index] != 0) {
+                int other = table[index] - 1;
+                if (hashes[other] == hashes[entry] && sameKey(other, entry)) {
+                    break;
+                }
+                index = (index + 1) & mask;
+            }
+            if (table[index] == 0) {
+                size++;
+            }
+            table[index] = entry + 1;
+        }
+    }
+
+    /**
+     * Checks if an entry has the given key, decoding its key on the fly.
+     */
+    private boolean keyEquals(int entry, String key) {
+        int pos = keyStarts[entry];
+        int end = keyEnds[entry];
+        for (int i = 0; i < key.length(); i++) {
+            long next = next(pos, end);
+            if (next < 0 || (char) next != key.charAt(i)) {
+                return false;
+            }
+            pos = (int) (next >>> 16);
+        }
+        return next(pos, end) < 0;
+    }
+
+    /**
+     * Checks if two entries have the same decoded key.
+     */
+    private boolean sameKey(int first, int second) {
+        int pos1 = keyStarts[first];
+        int pos2 = keyStarts[second];
+        while (true) {
+            long next1 = next(pos1, keyEnds[first]);
+            long next2 = next(pos2, keyEnds[second]);
+            if (next1 < 0 || next2 < 0) {
+                return next1 < 0 && next2 < 0;
+            }
+            if ((char) next1 != (char) next2) {
+                return false;
+            }
+            pos1 = (int) (next1 >>> 16);
+            pos2 = (int) (next2 >>> 16);
+        }
+    }
+
+    /**
+     * Decodes a raw range of the file into a string.
+     */
+    private String decode(int start, int end) {
+        char[] chars = new char[end - start];
+        int length = 0;
+        int pos = start;
+        long next;
+        while ((next = next(pos, end)) >= 0) {
+            chars[length++] = (char) next;
+            pos = (int) (next >>> 16);
+        }
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * Decodes the character at the given raw position, resolving escapes and line continuations.
+     *
+     * @param pos the raw position
+     * @param end the end of the raw range
+     * @return the position after the character shifted left by 16 bits, combined with the character,
+     * or -1 at the end of the range
+     */
+    private long next(int pos, int end) {
+        while (pos < end) {
+            int c = raw(pos);
+            if (c != '\\') {
+                return pack(pos + 1, c);
+            }
+            if (pos + 1 >= end) {
+                return -1;
+            }
+            int n = raw(pos + 1);
+            switch (n) {
+                case '\r':
+                case '\n':
+                    pos = skipContinuation(pos + 1, end);
+                    break;
+                case 't':
+                    return pack(pos + 2, '\t');
+                case 'n':
+                    return pack(pos + 2, '\n');
+                case 'r':
+                    return pack(pos + 2, '\r');
+                case 'f':
+                    return pack(pos + 2, '\f');
+                case 'u':
+                    return pack(pos + 6, unicode(pos + 2, end));
+                default:
+                    return pack(pos + 2, n);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Skips the line terminator of a continuation and the leading white space of the next line.
+     *
+     * @param pos the raw position of the line terminator
+     * @param end the end of the raw range
+     * @return the raw position of the first character of the continued line
+     */
+    private int skipContinuation(int pos, int end) {
+        if (raw(pos) == '\r' && pos + 1 < end && raw(pos + 1) == '\n') {
+            pos += 2;
+        } else {
+            pos++;
+        }
+        while (pos < end) {
+            int c = raw(pos);
+            if (c != ' ' && c != '\t' && c != '\f') {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Decodes the four hexadecimal digits of a {@code \\uxxxx} escape.
+     *
+     * @param pos the raw position of the first digit
+     * @param end the end of the raw range
+     * @return the decoded character
+     * @throws IllegalArgumentException if the escape is malformed
+     */
+    private int unicode(int pos, int end) {
+        if (pos + 4 > end) {
+            throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+        }
+        int value = 0;
+        for (int i = pos; i < pos + 4; i++) {
+            int digit = Character.digit(raw(i), 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    /**
+     * Reads the raw character at the given position, the file being encoded in ISO 8859-1.
+     */
+    private int raw(int pos) {
+        return buffer.get(pos) & 0xFF;
+    }
+
+    private static long pack(int pos, int c) {
+        return ((long) pos << 16) | c;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,191 @@
+package xss.it.conf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Storage of the {@link JConfig.Loading#MAPPED} loading mode.
+ * The settings file is memory-mapped and indexed instead of parsed, and a value is only decoded
+ * the first time it is read. Changes go to the store of the concurrency mode, which takes precedence
+ * over the mapped file. The first call needing every property at once, like a save or
+ * {@link JConfig#getProperties()}, decodes the rest of the file into that store and drops the mapping.
+ */
+final class MappedStore implements PropertyStore {
+    private final PropertyStore delegate;
+    private final Map<String, String> decoded = new ConcurrentHashMap<>();
+    private volatile MappedPropertiesFile mapped;
+
+    /**
+     * Constructor for the MappedStore class.
+     *
+     * @param delegate the store of the concurrency mode, holding the changes and the decoded properties
+     */
+    MappedStore(PropertyStore delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Maps a settings file as the base of the properties.
+     * Only done for the first load, while the store is still empty.
+     *
+     * @param path the path of the settings file
+     * @return {@code true} if the file was mapped, {@code false} if the store already holds properties
+     * @throws IOException if the file cannot be mapped
+     */
+    synchronized boolean map(Path path) throws IOException {
+        if (mapped != null || !delegate.keys().isEmpty()) {
+            return false;
+        }
+        mapped = MappedPropertiesFile.open(path);
+        return true;
+    }
+
+    @Override
+    public String get(String key) {
+        String value = delegate.get(key);
+        if (value != null) {
+            return value;
+        }
+        MappedPropertiesFile file = mapped;
+        if (file == null) {
+            // The mapping may have been dropped between both reads, the delegate now holds every property
+            return delegate.get(key);
+        }
+        value = decoded.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = file.get(key);
+        if (value == null) {
+            return null;
+        }
+        // Keep a single instance per value, so the typed value cache recognizes it
+        String previous = decoded.putIfAbsent(key, value);
+        return previous != null ? previous : value;
+    }
+
+    @Override
+    public String put(String key, String value) {
+        String previous = delegate.put(key, value);
+        if (previous == null && mapped != null) {
+            previous = decoded.remove(key);
+            MappedPropertiesFile file = mapped;
+            if (previous == null && file != null) {
+                previous = file.get(key);
+            }
+        }
+        return previous;
+    }
+
+    @Override
+    public Map<String, String> apply(Map<String, String> entries) {
+        Map<String, String> previous = delegate.apply(entries);
+        if (mapped != null) {
+            previous.replaceAll((k, v) -> {
+                if (v != null) {
+                    return v;
+                }
+                String decodedValue = decoded.remove(k);
+                MappedPropertiesFile file = mapped;
+                return decodedValue != null || file == null ? decodedValue : file.get(k);
+            });
+        }
+        return previous;
+    }
+
+    @Override
+    public List<ConfigChange> applyIfUnchanged(List<ConfigChange> changes) {
+        decodeAll();
+        return delegate.applyIfUnchanged(changes);
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries, boolean overwrite) {
+        MappedPropertiesFile file = mapped;
+        if (overwrite || file == null) {
+            delegate.putAll(entries, overwrite);
+            return;
+        }
+        Map<Object, Object> missing = new HashMap<>();
+        entries.forEach((k, v) -> {
+            if (!file.containsKey((String) k)) {
+                missing.put(k, v);
+            }
+        });
+        delegate.putAll(missing, false);
+    }
+
+    @Override
+    public void replaceAll(Map<?, ?> entries) {
+        decodeAll();
+        delegate.replaceAll(entries);
+    }
+
+    @Override
+    public Map<String, String> entries() {
+        decodeAll();
+        return delegate.entries();
+    }
+
+    /**
+     * Get the keys of every property, decoding the keys of the mapped file but not its values.
+     *
+     * @return a copy of the keys
+     */
+    @Override
+    public List<String> keys() {
+        MappedPropertiesFile file = mapped;
+        if (file == null) {
+            return delegate.keys();
+        }
+        List<String> changed = delegate.keys();
+        if (changed.isEmpty()) {
+            return file.keys();
+        }
+        Set<String> keys = new LinkedHashSet<>(file.keys());
+        keys.addAll(changed);
+        return new ArrayList<>(keys);
+    }
+
+    @Override
+    public Properties view() {
+        decodeAll();
+        return delegate.view();
+    }
+
+    @Override
+    public void store(OutputStream outputStream, String comments) throws IOException {
+        decodeAll();
+        delegate.store(outputStream, comments);
+    }
+
+    /**
+     * Decodes every property of the mapped file that was not changed into the delegate,
+     * and drops the mapping.
+     */
+    private synchronized void decodeAll() {
+        MappedPropertiesFile file = mapped;
+        if (file == null) {
+            return;
+        }
+        Map<String, String> all = new HashMap<>(file.size());
+        file.forEach((k, v) -> {
+            String known = decoded.get(k);
+            all.put(k, known != null ? known : v);
+        });
+        delegate.putAll(all, false);
+        mapped = null;
+        decoded.clear();
+    }
+}
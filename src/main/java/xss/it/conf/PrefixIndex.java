@@ -0,0 +1,120 @@
+package xss.it.conf;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Sorted index of the keys of a {@link JConfig}, answering prefix queries in O(log n + k)
+ * instead of scanning every property.
+ * The index is only built by the first prefix query, so instances that never use it pay a null check per change.
+ * Writers call {@link #touch(String)} after changing the store, and the index is published before it is filled,
+ * so a key is never missed. A key removed concurrently may linger in the index; it is skipped and dropped by
+ * the queries, which read every value from the store anyway.
+ */
+final class PrefixIndex {
+    private final PropertyStore store;
+    private volatile ConcurrentSkipListSet<String> keys;
+
+    /**
+     * Constructor for the PrefixIndex class.
+     *
+     * @param store the store of the indexed properties
+     */
+    PrefixIndex(PropertyStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Updates the index after a property was set or removed in the store.
+     *
+     * @param key the key of the property
+     */
+    void touch(String key) {
+        ConcurrentSkipListSet<String> current = keys;
+        if (current != null) {
+            update(current, key);
+        }
+    }
+
+    /**
+     * Updates the index after several properties were set or removed in the store.
+     *
+     * @param changed the keys of the properties
+     */
+    void touch(Iterable<?> changed) {
+        ConcurrentSkipListSet<String> current = keys;
+        if (current != null) {
+            for (Object key : changed) {
+                update(current, key.toString());
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the index after every property may have been replaced, if the index is built.
+     */
+    void rebuild() {
+        if (keys != null) {
+            build();
+        }
+    }
+
+    /**
+     * Get the properties whose key starts with a prefix.
+     *
+     * @param prefix the prefix of the keys
+     * @return an unmodifiable copy of the properties, sorted by key
+     */
+    Map<String, String> get(String prefix) {
+        ConcurrentSkipListSet<String> current = keys;
+        if (current == null) {
+            current = build();
+        }
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (String key : current.tailSet(prefix)) {
+            if (!key.startsWith(prefix)) {
+                break;
+            }
+            String value = store.get(key);
+            if (value != null) {
+                entries.put(key, value);
+            } else {
+                update(current, key);
+            }
+        }
+        return Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * Builds a new index from the keys of the store.
+     * The new index is published before it is filled, so a key set meanwhile is either in the keys
+     * read from the store or added by its writer.
+     *
+     * @return the new index
+     */
+    private synchronized ConcurrentSkipListSet<String> build() {
+        ConcurrentSkipListSet<String> built = new ConcurrentSkipListSet<>();
+        keys = built;
+        built.addAll(store.keys());
+        return built;
+    }
+
+    /**
+     * Adds or removes a key of the index, depending on whether the store holds it.
+     * A removed key is checked again, in case a writer set it back in between.
+     *
+     * @param index the index
+     * @param key   the key of the property
+     */
+    private void update(ConcurrentSkipListSet<String> index, String key) {
+        if (store.get(key) != null) {
+            index.add(key);
+        } else if (index.remove(key) && store.get(key) != null) {
+            index.add(key);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package xss.it.conf;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Append-only journal kept next to the settings file, used by {@link JConfig} in journal mode.
+ * Every change is appended as one escaped {@code key=value} line, so the journal itself is a valid
+ * properties fragment that is replayed on top of the settings file when loading.
+ * Once the journal grows past its size or ratio threshold, a background compaction saves the
+ * whole settings file and truncates the journal.
+ */
+final class PropertiesJournal {
+    /**
+     * The suffix appended to the settings file path to get the journal path.
+     */
+    static final String SUFFIX = ".journal";
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * Saves the whole settings file.
+     */
+    @FunctionalInterface
+    interface Saver {
+        /**
+         * Saves the whole settings file.
+         *
+         * @throws IOException if the settings file cannot be saved
+         */
+        void save() throws IOException;
+    }
+
+    private final Path path;
+    private final Path basePath;
+    private final Saver saver;
+    private final long maxJournalBytes;
+    private final double maxJournalRatio;
+    private final FileChannel channel;
+    private final ExecutorService compactor;
+    private final ConfigMetrics metrics;
+    private final Object lock;
+    private long baseBytes;
+    private boolean compactionScheduled;
+
+    /**
+     * Constructor for the PropertiesJournal class.
+     *
+     * @param basePath        the path of the settings file
+     * @param saver           the action that saves the whole settings file
+     * @param maxJournalBytes the journal size that triggers a compaction, in bytes
+     * @param maxJournalRatio the journal to settings file size ratio that triggers a compaction
+     * @param metrics         the metrics recording the bytes appended and the swallowed errors, or null
+     * @throws IOException if the journal cannot be opened
+     */
+    PropertiesJournal(String basePath, Saver saver, long maxJournalBytes, double maxJournalRatio,
+                      @Nullable ConfigMetrics metrics) throws IOException {
+        this(basePath, saver, maxJournalBytes, maxJournalRatio, metrics, new Object());
+    }
+
+    /**
+     * Constructor for the PropertiesJournal class, guarding the journal with the lock of the settings file,
+     * so the appends and the compactions are serialized with the other writes and the reloads of the file.
+     *
+     * @param basePath        the path of the settings file
+     * @param saver           the action that saves the whole settings file
+     * @param maxJournalBytes the journal size that triggers a compaction, in bytes
+     * @param maxJournalRatio the journal to settings file size ratio that triggers a compaction
+     * @param metrics         the metrics recording the bytes appended and the swallowed errors, or null
+     * @param lock            the lock of the settings file
+     * @throws IOException if the journal cannot be opened
+     */
+    PropertiesJournal(String basePath, Saver saver, long maxJournalBytes, double maxJournalRatio,
+                      @Nullable ConfigMetrics metrics, Object lock) throws IOException {
+        this.lock = lock;
+        this.basePath = Paths.get(basePath);
+        this.metrics = metrics;
+        this.path = pathOf(basePath);
+        this.saver = saver;
+        this.maxJournalBytes = maxJournalBytes;
+        this.maxJournalRatio = maxJournalRatio;
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.baseBytes = Files.exists(this.basePath) ? Files.size(this.basePath) : 0;
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "JConfig-compactor-" + this.basePath.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Appends a single change to the journal and schedules a compaction if a threshold is exceeded.
+     *
+     * @param key   the key of the property
+     * @param value the value of the property
+     * @param force whether to force the record to disk before returning
+     * @return {@code true} if the change was appended, {@code false} if the journal could not be written
+     */
+    boolean append(String key, String value, boolean force) {
+        byte[] record = record(key, value);
+        long size;
+        synchronized (lock) {
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (force) {
+                    channel.force(false);
+                }
+                size = channel.size();
+            } catch (IOException e) {
+                e.printStackTrace();
+                if (metrics != null) {
+                    metrics.record(ConfigMetrics.Event.IO_ERROR);
+                }
+                return false;
+            }
+            if (metrics != null) {
+                metrics.record(ConfigMetrics.Event.BYTES_WRITTEN, record.length);
+            }
+            if (compactionScheduled || !exceedsThreshold(size)) {
+                return true;
+            }
+            compactionScheduled = true;
+        }
+        compactor.execute(() -> {
+            try {
+                compact();
+            } catch (IOException e) {
+                e.printStackTrace();
+                if (metrics != null) {
+                    metrics.record(ConfigMetrics.Event.IO_ERROR);
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Folds the journal back into the settings file.
+     * The whole settings file is saved first and the journal truncated afterwards, so a crash in between
+     * only leaves journal records that replay to the values already saved.
+     * If the settings file cannot be saved, the journal is kept as is.
+     *
+     * @throws IOException if the settings file cannot be saved or the journal cannot be truncated
+     */
+    void compact() throws IOException {
+        synchronized (lock) {
+            compactionScheduled = false;
+            saver.save();
+            channel.truncate(0);
+            baseBytes = Files.exists(basePath) ? Files.size(basePath) : 0;
+        }
+    }
+
+    /**
+     * Gets the current size of the journal.
+     *
+     * @return the journal size in bytes, or -1 if it cannot be determined
+     */
+    long size() {
+        synchronized (lock) {
+            try {
+                return channel.size();
+            } catch (IOException e) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Waits for a scheduled compaction and closes the journal.
+     * The journal file is kept, and its records are replayed by the next load.
+     */
+    void close() {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Checks if the journal grew past its size or ratio threshold.
+     *
+     * @param size the current journal size in bytes
+     * @return {@code true} if the journal should be compacted, {@code false} otherwise
+     */
+    private boolean exceedsThreshold(long size) {
+        return size >= maxJournalBytes || (baseBytes > 0 && size >= baseBytes * maxJournalRatio);
+    }
+
+    /**
+     * Gets the journal path for a settings file.
+     *
+     * @param basePath the path of the settings file
+     * @return the path of the journal
+     */
+    static Path pathOf(String basePath) {
+        return Paths.get(basePath + SUFFIX);
+    }
+
+    /**
+     * Replays the journal of a settings file on top of the given properties, if the journal exists.
+     * A trailing record without its line terminator was torn by a crash and is ignored.
+     *
+     * @param basePath   the path of the settings file
+     * @param properties the properties to apply the journal records to
+     * @throws IOException if an I/O error occurs while reading the journal
+     */
+    static void replay(String basePath, Properties properties) throws IOException {
+        Path journal = pathOf(basePath);
+        if (!Files.exists(journal)) {
+            return;
+        }
+        byte[] bytes = Files.readAllBytes(journal);
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        if (end > 0) {
+            properties.load(new ByteArrayInputStream(bytes, 0, end));
+        }
+    }
+
+    /**
+     * Truncates the journal of a settings file, if it exists and is not empty.
+     * Used after the whole settings file has been saved outside the journal mode.
+     *
+     * @param basePath the path of the settings file
+     * @return {@code true} if the journal is empty or missing afterwards, {@code false} if it cannot be truncated
+     */
+    static boolean discard(String basePath) {
+        Path journal = pathOf(basePath);
+        try {
+            if (Files.exists(journal) && Files.size(journal) > 0) {
+                Files.write(journal, new byte[0]);
+            }
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Encodes a single change as a {@code key=value} line, escaped the same way {@link Properties#store}
+     * escapes entries, so the line reads back through {@link Properties#load}.
+     *
+     * @param key   the key of the property
+     * @param value the value of the property
+     * @return the encoded line as ASCII bytes
+     */
+    static byte[] record(String key, String value) {
+        StringBuilder builder = new StringBuilder(key.length() + value.length() + 8);
+        escape(builder, key, true);
+        builder.append('=');
+        escape(builder, value, false);
+        builder.append('\n');
+        return builder.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Escapes a key or a value in the properties file format.
+     *
+     * @param builder the builder to append the escaped text to
+     * @param text    the text to escape
+     * @param isKey   whether the text is a key, in which case every space is escaped
+     */
+    private static void escape(StringBuilder builder, String text, boolean isKey) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case ' ':
+                    if (i == 0 || isKey) {
+                        builder.append('\\');
+                    }
+                    builder.append(' ');
+                    break;
+                case '\t': builder.append("\\t"); break;
+                case '\n': builder.append("\\n"); break;
+                case '\r': builder.append("\\r"); break;
+                case '\f': builder.append("\\f"); break;
+                case '\\': case '=': case ':': case '#': case '!':
+                    builder.append('\\').append(c);
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        builder.append("\\u")
+                                .append(HEX[(c >> 12) & 0xF])
+                                .append(HEX[(c >> 8) & 0xF])
+                                .append(HEX[(c >> 4) & 0xF])
+                                .append(HEX[c & 0xF]);
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package xss.it.conf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Streaming reader of a properties file, returning one entry at a time instead of loading every entry
+ * into a {@link java.util.Properties}. It follows the escape, comment and continuation rules of
+ * {@link java.util.Properties#load(InputStream)}, so it reads the same entries in the same order.
+ * Memory is bounded by the longest logical line, whatever the size of the file.
+ */
+final class PropertiesReader {
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limit;
+    private boolean skipLF;
+    private final StringBuilder line = new StringBuilder();
+    private String key;
+    private String value;
+
+    /**
+     * Constructor for the PropertiesReader class.
+     *
+     * @param reader the reader of the properties, left open
+     */
+    PropertiesReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Constructor for the PropertiesReader class, reading the stream in ISO 8859-1 like
+     * {@link java.util.Properties#load(InputStream)}.
+     *
+     * @param stream the stream of the properties, left open
+     */
+    PropertiesReader(InputStream stream) {
+        this(new InputStreamReader(stream, StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Reads the next entry.
+     *
+     * @return {@code true} if an entry was read, {@code false} at the end of the stream
+     * @throws IOException              if an I/O error occurs while reading the stream
+     * @throws IllegalArgumentException if the entry contains a malformed {@code \\uxxxx} escape
+     */
+    boolean next() throws IOException {
+        if (!readLine()) {
+            key = null;
+            value = null;
+            return false;
+        }
+        int length = line.length();
+        int keyEnd = 0;
+        int valueStart = length;
+        boolean separator = false;
+        boolean precedingBackslash = false;
+        while (keyEnd < length) {
+            char c = line.charAt(keyEnd);
+            if ((c == '=' || c == ':') && !precedingBackslash) {
+                valueStart = keyEnd + 1;
+                separator = true;
+                break;
+            } else if ((c == ' ' || c == '\t' || c == '\f') && !precedingBackslash) {
+                valueStart = keyEnd + 1;
+                break;
+            }
+            precedingBackslash = c == '\\' && !precedingBackslash;
+            keyEnd++;
+        }
+        while (valueStart < length) {
+            char c = line.charAt(valueStart);
+            if (c != ' ' && c != '\t' && c != '\f') {
+                if (!separator && (c == '=' || c == ':')) {
+                    separator = true;
+                } else {
+                    break;
+                }
+            }
+            valueStart++;
+        }
+        key = decode(0, keyEnd);
+        value = decode(valueStart, length);
+        return true;
+    }
+
+    /**
+     * Get the key of the entry read by the last call to {@link #next()}.
+     *
+     * @return the key of the entry
+     */
+    String key() {
+        return key;
+    }
+
+    /**
+     * Get the value of the entry read by the last call to {@link #next()}.
+     *
+     * @return the value of the entry
+     */
+    String value() {
+        return value;
+    }
+
+    /**
+     * Reads the next logical line, skipping blank and comment lines and joining continued lines.
+     * Escapes are kept as is, except the backslashes of line continuations.
+     *
+     * @return {@code true} if a line was read, {@code false} at the end of the stream
+     * @throws IOException if an I/O error occurs while reading the stream
+     */
+    private boolean readLine() throws IOException {
+        line.setLength(0);
+        boolean skipWhiteSpace = true;
+        boolean commentLine = false;
+        boolean newLine = true;
+        boolean appendedLineBegin = false;
+        boolean precedingBackslash = false;
+        while (true) {
+            if (pos >= limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                pos = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    if (line.length() == 0 || commentLine) {
+                        return false;
+                    }
+                    if (precedingBackslash) {
+                        line.setLength(line.length() - 1);
+                    }
+                    return true;
+                }
+            }
+            char c = buffer[pos++];
+            if (skipLF) {
+                skipLF = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+            if (skipWhiteSpace) {
+                if (c == ' ' || c == '\t' || c == '\f') {
+                    continue;
+                }
+                if (!appendedLineBegin && (c == '\r' || c == '\n')) {
+                    continue;
+                }
+                skipWhiteSpace = false;
+                appendedLineBegin = false;
+            }
+            if (newLine) {
+                newLine = false;
+                if (c == '#' || c == '!') {
+                    commentLine = true;
+                    continue;
+                }
+            }
+            if (c != '\n' && c != '\r') {
+                if (!commentLine) {
+                    line.append(c);
+                    precedingBackslash = c == '\\' && !precedingBackslash;
+                }
+                continue;
+            }
+            if (commentLine || line.length() == 0) {
+                commentLine = false;
+                newLine = true;
+                skipWhiteSpace = true;
+                precedingBackslash = false;
+                line.setLength(0);
+                continue;
+            }
+            if (c == '\r') {
+                skipLF = true;
+            }
+            if (!precedingBackslash) {
+                return true;
+            }
+            // A line continuation: drop the backslash and the leading white space of the next line
+            line.setLength(line.length() - 1);
+            skipWhiteSpace = true;
+            appendedLineBegin = true;
+            precedingBackslash = false;
+        }
+    }
+
+    /**
+     * Decodes the escapes of a range of the current line.
+     *
+     * @param start the start of the range
+     * @param end   the end of the range
+     * @return the decoded string
+     * @throws IllegalArgumentException if the range contains a malformed {@code \\uxxxx} escape
+     */
+    private String decode(int start, int end) {
+        int escape = line.indexOf("\\", start);
+        if (escape < 0 || escape >= end) {
+            return line.substring(start, end);
+        }
+        StringBuilder decoded = new StringBuilder(end - start);
+        int i = start;
+        while (i < end) {
+            char c = line.charAt(i++);
+            if (c != '\\' || i >= end) {
+                decoded.append(c);
+                continue;
+            }
+            c = line.charAt(i++);
+            switch (c) {
+                case 'u':
+                    if (i + 4 > end) {
+                        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                    }
+                    int unicode = 0;
+                    for (int j = i; j < i + 4; j++) {
+                        int digit = Character.digit(line.charAt(j), 16);
+                        if (digit < 0) {
+                            throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                        }
+                        unicode = (unicode << 4) | digit;
+                    }
+                    decoded.append((char) unicode);
+                    i += 4;
+                    break;
+                case 't':
+                    decoded.append('\t');
+                    break;
+                case 'n':
+                    decoded.append('\n');
+                    break;
+                case 'r':
+                    decoded.append('\r');
+                    break;
+                case 'f':
+                    decoded.append('\f');
+                    break;
+                default:
+                    decoded.append(c);
+            }
+        }
+        return decoded.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package xss.it.conf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * In-memory storage of the settings behind a {@link JConfig}, one implementation per concurrency mode.
+ */
+interface PropertyStore {
+
+    /**
+     * Get the value of a property.
+     *
+     * @param key the key of the property
+     * @return the value of the property, or null if the property does not exist
+     */
+    String get(String key);
+
+    /**
+     * Set or update the value of a property.
+     *
+     * @param key   the key of the property
+     * @param value the value to be set
+     * @return the previous value of the property, or null if the property did not exist
+     */
+    String put(String key, String value);
+
+    /**
+     * Set or update several properties at once, atomically for the readers.
+     *
+     * @param entries the properties to set
+     * @return the previous values of the properties, with a null value for the properties that did not exist
+     */
+    Map<String, String> apply(Map<String, String> entries);
+
+    /**
+     * Apply several changes at once, atomically for the readers, skipping the properties that no longer
+     * hold the old value of their change.
+     *
+     * @param changes the changes to apply, a null new value removing the property
+     * @return the changes that were applied
+     */
+    List<ConfigChange> applyIfUnchanged(List<ConfigChange> changes);
+
+    /**
+     * Set or update several properties at once, atomically for the readers.
+     *
+     * @param entries   the properties to set
+     * @param overwrite whether to update existing properties or only add missing ones
+     */
+    void putAll(Map<?, ?> entries, boolean overwrite);
+
+    /**
+     * Replace every property at once, atomically for the readers.
+     *
+     * @param entries the new properties
+     */
+    void replaceAll(Map<?, ?> entries);
+
+    /**
+     * Get every property.
+     *
+     * @return a consistent, unmodifiable copy of the properties
+     */
+    Map<String, String> entries();
+
+    /**
+     * Get the keys of every property.
+     *
+     * @return a copy of the keys
+     */
+    List<String> keys();
+
+    /**
+     * Get the properties object exposed by {@link JConfig#getProperties()}.
+     *
+     * @return the properties object
+     */
+    Properties view();
+
+    /**
+     * Writes every property in the properties file format.
+     *
+     * @param outputStream the stream to write to
+     * @param comments     the comment written at the top
+     * @throws IOException if an I/O error occurs while writing
+     */
+    void store(OutputStream outputStream, String comments) throws IOException;
+}
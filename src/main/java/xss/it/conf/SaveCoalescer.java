@@ -0,0 +1,105 @@
+package xss.it.conf;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Runs the asynchronous saves of a {@link JConfig}, merging the requests that pile up.
+ * At most one save is in flight and at most one more is queued. A request made while a save is queued
+ * shares the queued save, which has not started yet and so includes every change made before the request.
+ */
+final class SaveCoalescer {
+    private final PropertiesJournal.Saver saver;
+    private final Supplier<Executor> executor;
+    private CompletableFuture<Void> running;
+    private CompletableFuture<Void> queued;
+
+    /**
+     * Constructor for the SaveCoalescer class.
+     *
+     * @param saver    the action that saves the whole settings file
+     * @param executor the supplier of the executor running the saves
+     */
+    SaveCoalescer(PropertiesJournal.Saver saver, Supplier<Executor> executor) {
+        this.saver = saver;
+        this.executor = executor;
+    }
+
+    /**
+     * Requests a save of every change made so far.
+     *
+     * @return a future completed once a save started after this request finished,
+     * or completed exceptionally with the error of that save
+     */
+    synchronized CompletableFuture<Void> request() {
+        if (queued != null) {
+            return queued;
+        }
+        if (running != null) {
+            queued = new CompletableFuture<>();
+            return queued;
+        }
+        running = new CompletableFuture<>();
+        CompletableFuture<Void> requested = running;
+        dispatch(requested);
+        return requested;
+    }
+
+    /**
+     * Get the future of the last requested save.
+     *
+     * @return the future of the queued or running save, or a completed future if there is none
+     */
+    synchronized CompletableFuture<Void> last() {
+        if (queued != null) {
+            return queued;
+        }
+        return running != null ? running : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Hands a save to the executor, failing it if the executor rejects it.
+     *
+     * @param future the future of the save
+     */
+    private void dispatch(CompletableFuture<Void> future) {
+        try {
+            executor.get().execute(() -> run(future));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            finished();
+        }
+    }
+
+    /**
+     * Runs a save and starts the queued one, if any.
+     *
+     * @param future the future of the save
+     */
+    private void run(CompletableFuture<Void> future) {
+        try {
+            saver.save();
+            future.complete(null);
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+        } finally {
+            finished();
+        }
+    }
+
+    /**
+     * Promotes the queued save, if any, to the running one.
+     */
+    private synchronized void finished() {
+        running = queued;
+        queued = null;
+        if (running != null) {
+            dispatch(running);
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package xss.it.conf;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Index of the encrypted entries of a {@link JConfig}, from plaintext key to encrypted key,
+ * with a companion cache of decrypted values.
+ * Since the encryption is deterministic, an indexed encrypted key never goes stale. Only the keys of entries
+ * that were loaded, written or found are indexed; the encrypted keys of the last keys looked up without an entry
+ * are kept apart, in a bounded cache, so checking a missing key again does not encrypt it again.
+ * The decrypted values are kept in least recently used order, and the least recently used ones are evicted first.
+ * A cached value
+ * remembers the encrypted value it was decrypted from, and is only used while the entry still holds
+ * that same encrypted value, so writes through any path invalidate it.
+ * Decrypted values read through {@link #secret(String, String)} are kept apart, in direct memory
+ * overwritten with zeros as soon as they are replaced, evicted or wiped.
+ */
+final class SecretIndex {
+    /**
+     * The maximum number of encrypted keys of missing entries kept.
+     */
+    static final int MAX_MISSING_KEYS = 256;
+
+    private final CipherEngine cipher;
+    private final ConfigMetrics metrics;
+    private final Map<String, String> encryptedKeys = new ConcurrentHashMap<>();
+    private final Map<String, String> missingKeys = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Decrypted> values = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, HeldSecret> secrets = new LinkedHashMap<>(16, 0.75f, true);
+    private volatile int maxCachedValues;
+
+    /**
+     * Constructor for the SecretIndex class.
+     *
+     * @param cipher          the cipher engine used to encrypt keys and decrypt values
+     * @param maxCachedValues the maximum number of decrypted values to keep, 0 to disable the cache
+     */
+    SecretIndex(CipherEngine cipher, int maxCachedValues) {
+        this(cipher, maxCachedValues, null);
+    }
+
+    /**
+     * Constructor for the SecretIndex class recording the hits and misses of its cache.
+     *
+     * @param cipher          the cipher engine used to encrypt keys and decrypt values
+     * @param maxCachedValues the maximum number of decrypted values to keep, 0 to disable the cache
+     * @param metrics         the metrics recording the decrypted reads, or null
+     */
+    SecretIndex(CipherEngine cipher, int maxCachedValues, @Nullable ConfigMetrics metrics) {
+        this.cipher = cipher;
+        this.metrics = metrics;
+        this.maxCachedValues = maxCachedValues;
+    }
+
+    /**
+     * Indexes the encrypted keys among the given keys.
+     * Only keys shaped like an encrypted key are decrypted, and a key is indexed only when its
+     * plaintext encrypts back to it, so plain keys that happen to look encrypted are skipped.
+     * The decrypted values cache is cleared, since the entries have just been reloaded.
+     *
+     * @param keys the keys of the properties
+     */
+    void rebuild(Iterable<?> keys) {
+        wipe();
+        index(keys);
+    }
+
+    /**
+     * Indexes the encrypted keys among the given keys, keeping the entries already indexed.
+     * Used after part of the properties changed.
+     *
+     * @param keys the keys to index
+     */
+    void index(Iterable<?> keys) {
+        for (Object key : keys) {
+            String candidate = key.toString();
+            if (!isEncryptedShape(candidate)) {
+                continue;
+            }
+            String plainKey = cipher.decryptQuietly(candidate);
+            if (plainKey != null && candidate.equals(cipher.encrypt(plainKey))) {
+                encryptedKeys.put(plainKey, candidate);
+            }
+        }
+    }
+
+    /**
+     * Restores an index saved by {@link #encryptedKeys(Map)}, without decrypting every key.
+     * One entry is checked against the cipher first, so an index built with another secret key is rejected.
+     * The decrypted values cache is cleared, since the entries have just been reloaded.
+     *
+     * @param saved the saved index, from plaintext key to encrypted key
+     * @return {@code true} if the index was restored, {@code false} if it does not match the secret key
+     */
+    boolean restore(Map<String, String> saved) {
+        Iterator<Map.Entry<String, String>> iterator = saved.entrySet().iterator();
+        if (iterator.hasNext()) {
+            Map.Entry<String, String> probe = iterator.next();
+            if (!probe.getValue().equals(cipher.encrypt(probe.getKey()))) {
+                return false;
+            }
+        }
+        wipe();
+        encryptedKeys.putAll(saved);
+        return true;
+    }
+
+    /**
+     * Gets the indexed encrypted keys that are present among the given properties.
+     *
+     * @param entries the properties
+     * @return a copy of the index, from plaintext key to encrypted key
+     */
+    Map<String, String> encryptedKeys(Map<String, String> entries) {
+        Map<String, String> present = new HashMap<>();
+        encryptedKeys.forEach((plainKey, encryptedKey) -> {
+            if (entries.containsKey(encryptedKey)) {
+                present.put(plainKey, encryptedKey);
+            }
+        });
+        return present;
+    }
+
+    /**
+     * Gets the encrypted key for a plaintext key about to be written, encrypting it only the first time.
+     * Lookups go through {@link #encryptedValue(String, Function)} instead, which does not index missing keys.
+     *
+     * @param plainKey the plaintext key
+     * @return the encrypted key, or null if encryption fails
+     */
+    String encryptedKey(String plainKey) {
+        String encryptedKey = encryptedKeys.get(plainKey);
+        if (encryptedKey == null) {
+            synchronized (missingKeys) {
+                encryptedKey = missingKeys.remove(plainKey);
+            }
+            if (encryptedKey == null) {
+                encryptedKey = cipher.encrypt(plainKey);
+            }
+            if (encryptedKey != null) {
+                encryptedKeys.put(plainKey, encryptedKey);
+            }
+        }
+        return encryptedKey;
+    }
+
+    /**
+     * Reads the encrypted value of a plaintext key, indexing its encrypted key only if the entry exists.
+     * A key missing from the index is encrypted for the lookup, and its encrypted key kept among the
+     * {@value #MAX_MISSING_KEYS} most recently missed keys if no entry holds it, so checking it again,
+     * like a feature flag that is not set, encrypts nothing.
+     *
+     * @param plainKey the plaintext key
+     * @param reader   the function reading the value of an encrypted key from the properties
+     * @return the encrypted value, or null if the entry does not exist or the key cannot be encrypted
+     */
+    @Nullable
+    String encryptedValue(String plainKey, Function<String, String> reader) {
+        String encryptedKey = encryptedKeys.get(plainKey);
+        if (encryptedKey != null) {
+            return reader.apply(encryptedKey);
+        }
+        synchronized (missingKeys) {
+            encryptedKey = missingKeys.get(plainKey);
+        }
+        if (encryptedKey == null) {
+            encryptedKey = cipher.encrypt(plainKey);
+            if (encryptedKey == null) {
+                return null;
+            }
+        }
+        String encryptedValue = reader.apply(encryptedKey);
+        synchronized (missingKeys) {
+            if (encryptedValue != null) {
+                missingKeys.remove(plainKey);
+            } else if (missingKeys.put(plainKey, encryptedKey) == null && missingKeys.size() > MAX_MISSING_KEYS) {
+                Iterator<String> eldest = missingKeys.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        if (encryptedValue != null) {
+            encryptedKeys.put(plainKey, encryptedKey);
+        }
+        return encryptedValue;
+    }
+
+    /**
+     * Decrypts the value of an encrypted entry, using the cached value when it is still current.
+     *
+     * @param plainKey       the plaintext key of the entry
+     * @param encryptedValue the encrypted value currently held by the entry
+     * @return the decrypted value, or null if decryption fails
+     */
+    String decrypt(String plainKey, String encryptedValue) {
+        Decrypted cached;
+        synchronized (values) {
+            cached = values.get(plainKey);
+        }
+        if (cached != null && cached.encryptedValue.equals(encryptedValue)) {
+            if (metrics != null) {
+                metrics.record(ConfigMetrics.Event.DECRYPTED_CACHE_HIT);
+            }
+            return cached.value;
+        }
+        if (metrics != null) {
+            metrics.record(ConfigMetrics.Event.DECRYPTED_CACHE_MISS);
+        }
+        String value = cipher.decrypt(encryptedValue);
+        if (value != null) {
+            cache(plainKey, encryptedValue, value);
+        }
+        return value;
+    }
+
+    /**
+     * Decrypts the value of an encrypted entry into direct memory, reusing the held secret while it is still current.
+     * The secret replaced by a new value, or evicted to make room, is overwritten with zeros.
+     *
+     * @param plainKey       the plaintext key of the entry
+     * @param encryptedValue the encrypted value currently held by the entry
+     * @return the decrypted value, or null if decryption fails
+     */
+    ConfigSecret secret(String plainKey, String encryptedValue) {
+        synchronized (secrets) {
+            HeldSecret held = secrets.get(plainKey);
+            if (held != null && held.encryptedValue.equals(encryptedValue) && !held.secret.isDestroyed()) {
+                if (metrics != null) {
+                    metrics.record(ConfigMetrics.Event.DECRYPTED_CACHE_HIT);
+                }
+                return held.secret;
+            }
+        }
+        if (metrics != null) {
+            metrics.record(ConfigMetrics.Event.DECRYPTED_CACHE_MISS);
+        }
+        ConfigSecret secret = cipher.decryptSecret(encryptedValue);
+        if (secret == null) {
+            return null;
+        }
+        synchronized (secrets) {
+            HeldSecret previous = secrets.put(plainKey, new HeldSecret(encryptedValue, secret));
+            if (previous != null) {
+                previous.secret.destroy();
+            }
+            evictSecrets();
+        }
+        return secret;
+    }
+
+    /**
+     * Drops every decrypted value, overwriting the secrets held in direct memory with zeros,
+     * and forgets the keys found missing, since the entries are about to be reloaded.
+     */
+    void wipe() {
+        synchronized (missingKeys) {
+            missingKeys.clear();
+        }
+        synchronized (values) {
+            values.clear();
+        }
+        synchronized (secrets) {
+            for (HeldSecret held : secrets.values()) {
+                held.secret.destroy();
+            }
+            secrets.clear();
+        }
+    }
+
+    /**
+     * Records an encrypted entry that has just been written.
+     *
+     * @param plainKey       the plaintext key of the entry
+     * @param encryptedKey   the encrypted key of the entry
+     * @param encryptedValue the encrypted value of the entry
+     * @param value          the plaintext value of the entry
+     */
+    void put(String plainKey, String encryptedKey, String encryptedValue, String value) {
+        encryptedKeys.put(plainKey, encryptedKey);
+        synchronized (missingKeys) {
+            missingKeys.remove(plainKey);
+        }
+        synchronized (secrets) {
+            HeldSecret held = secrets.remove(plainKey);
+            if (held != null) {
+                held.secret.destroy();
+            }
+        }
+        synchronized (values) {
+            values.remove(plainKey);
+            cache(plainKey, encryptedValue, value);
+        }
+    }
+
+    /**
+     * Get the cipher engine of the secret key of the index.
+     *
+     * @return the cipher engine
+     */
+    CipherEngine getCipher() {
+        return cipher;
+    }
+
+    /**
+     * Get the maximum number of decrypted values kept in the cache.
+     *
+     * @return the maximum number of cached values, 0 if the cache is disabled
+     */
+    int getMaxCachedValues() {
+        return maxCachedValues;
+    }
+
+    /**
+     * Set the maximum number of decrypted values kept in the cache, evicting the extra ones.
+     *
+     * @param maxCachedValues the maximum number of cached values, 0 to disable the cache
+     */
+    void setMaxCachedValues(int maxCachedValues) {
+        this.maxCachedValues = maxCachedValues;
+        synchronized (values) {
+            evict();
+        }
+        synchronized (secrets) {
+            evictSecrets();
+        }
+    }
+
+    /**
+     * Caches a decrypted value, evicting other values if the cache is full.
+     *
+     * @param plainKey       the plaintext key of the entry
+     * @param encryptedValue the encrypted value the plaintext value belongs to
+     * @param value          the plaintext value
+     */
+    private void cache(String plainKey, String encryptedValue, String value) {
+        if (maxCachedValues <= 0) {
+            return;
+        }
+        synchronized (values) {
+            values.put(plainKey, new Decrypted(encryptedValue, value));
+            evict();
+        }
+    }
+
+    /**
+     * Evicts the least recently used values until the cache fits its maximum size.
+     * The value just cached is the most recently used one, so it is evicted last.
+     * Only called while holding the lock of the values.
+     */
+    private void evict() {
+        Iterator<String> iterator = values.keySet().iterator();
+        while (values.size() > maxCachedValues && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Evicts and wipes the least recently used secrets until they fit the maximum size of the cache, keeping
+     * at least one, the most recently used, so that the secret just handed out is still valid.
+     * Only called while holding the lock of the secrets.
+     */
+    private void evictSecrets() {
+        int max = Math.max(1, maxCachedValues);
+        Iterator<HeldSecret> iterator = secrets.values().iterator();
+        while (secrets.size() > max && iterator.hasNext()) {
+            HeldSecret held = iterator.next();
+            iterator.remove();
+            held.secret.destroy();
+        }
+    }
+
+    /**
+     * Checks if a key has the shape of an encrypted key: Base64 text encoding whole AES blocks.
+     *
+     * @param key the key to check
+     * @return {@code true} if the key may be an encrypted key, {@code false} otherwise
+     */
+    private static boolean isEncryptedShape(String key) {
+        int length = key.length();
+        if (length < 24 || length % 4 != 0) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = key.charAt(i);
+            boolean base64 = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '+' || c == '/' || (c == '=' && i >= length - 2);
+            if (!base64) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A decrypted value along with the encrypted value it was decrypted from.
+     */
+    private static final class Decrypted {
+        private final String encryptedValue;
+        private final String value;
+
+        private Decrypted(String encryptedValue, String value) {
+            this.encryptedValue = encryptedValue;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A secret in direct memory along with the encrypted value it was decrypted from.
+     */
+    private static final class HeldSecret {
+        private final String encryptedValue;
+        private final ConfigSecret secret;
+
+        private HeldSecret(String encryptedValue, ConfigSecret secret) {
+            this.encryptedValue = encryptedValue;
+            this.secret = secret;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package xss.it.conf;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Re-encryption of every encrypted entry of a {@link JConfig} under a new secret key, used by
+ * {@link JConfig#rotateSecretKey(String)}.
+ * The entries are split in halves until small enough, and re-encrypted in parallel on a fork-join pool.
+ * The {@link CipherEngine}s keep one initialized cipher per worker thread, so the workers never share a cipher
+ * and only set one up once. Nothing is changed here: the result is a list of changes to apply at once.
+ */
+final class SecretRotation extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of entries below which a task re-encrypts its entries instead of splitting them.
+     */
+    private static final int THRESHOLD = 64;
+
+    private final CipherEngine from;
+    private final CipherEngine to;
+    private final String[] plainKeys;
+    private final String[] encryptedKeys;
+    private final String[] encryptedValues;
+    private final String[] rotatedKeys;
+    private final String[] rotatedValues;
+    private final int start;
+    private final int end;
+
+    private SecretRotation(CipherEngine from, CipherEngine to, String[] plainKeys, String[] encryptedKeys,
+                           String[] encryptedValues, String[] rotatedKeys, String[] rotatedValues, int start, int end) {
+        this.from = from;
+        this.to = to;
+        this.plainKeys = plainKeys;
+        this.encryptedKeys = encryptedKeys;
+        this.encryptedValues = encryptedValues;
+        this.rotatedKeys = rotatedKeys;
+        this.rotatedValues = rotatedValues;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Re-encrypts encrypted entries under a new secret key.
+     *
+     * @param from      the cipher engine of the current secret key
+     * @param to        the cipher engine of the new secret key
+     * @param secrets   the encrypted entries, from plaintext key to encrypted key
+     * @param entries   the properties holding the encrypted entries
+     * @param pool      the pool running the re-encryption
+     * @param rotated   the map receiving the new encrypted keys, from plaintext key to encrypted key
+     * @return the changes removing the entries encrypted with the current key and adding the new ones
+     * @throws IllegalStateException if a key or a value cannot be decrypted or encrypted again
+     */
+    static List<ConfigChange> rotate(CipherEngine from, CipherEngine to, Map<String, String> secrets,
+                                     Map<String, String> entries, ForkJoinPool pool, Map<String, String> rotated) {
+        int size = secrets.size();
+        String[] plainKeys = new String[size];
+        String[] encryptedKeys = new String[size];
+        String[] encryptedValues = new String[size];
+        int i = 0;
+        for (Map.Entry<String, String> secret : secrets.entrySet()) {
+            plainKeys[i] = secret.getKey();
+            encryptedKeys[i] = secret.getValue();
+            encryptedValues[i] = entries.get(secret.getValue());
+            i++;
+        }
+        String[] rotatedKeys = new String[size];
+        String[] rotatedValues = new String[size];
+        pool.invoke(new SecretRotation(from, to, plainKeys, encryptedKeys, encryptedValues,
+                rotatedKeys, rotatedValues, 0, size));
+
+        Map<String, String> removed = new HashMap<>();
+        for (int j = 0; j < size; j++) {
+            removed.put(encryptedKeys[j], encryptedValues[j]);
+            rotated.put(plainKeys[j], rotatedKeys[j]);
+        }
+        List<ConfigChange> changes = new ArrayList<>(size * 2);
+        for (int j = 0; j < size; j++) {
+            // An entry may already sit where another one moves, so the removal is kept only if nothing moves in
+            String replaced = removed.remove(rotatedKeys[j]);
+            changes.add(new ConfigChange(rotatedKeys[j], replaced, rotatedValues[j]));
+        }
+        removed.forEach((key, value) -> changes.add(new ConfigChange(key, value, null)));
+        return changes;
+    }
+
+    @Override
+    protected void compute() {
+        if (end - start > THRESHOLD) {
+            int middle = (start + end) >>> 1;
+            invokeAll(
+                    new SecretRotation(from, to, plainKeys, encryptedKeys, encryptedValues,
+                            rotatedKeys, rotatedValues, start, middle),
+                    new SecretRotation(from, to, plainKeys, encryptedKeys, encryptedValues,
+                            rotatedKeys, rotatedValues, middle, end));
+            return;
+        }
+        for (int i = start; i < end; i++) {
+            String value = encryptedValues[i] == null ? null : from.decrypt(encryptedValues[i]);
+            String rotatedKey = to.encrypt(plainKeys[i]);
+            String rotatedValue = value == null ? null : to.encrypt(value);
+            if (rotatedKey == null || rotatedValue == null) {
+                throw new IllegalStateException("Cannot re-encrypt the value of " + plainKeys[i]);
+            }
+            rotatedKeys[i] = rotatedKey;
+            rotatedValues[i] = rotatedValue;
+        }
+    }
+}
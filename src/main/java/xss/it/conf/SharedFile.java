@@ -0,0 +1,144 @@
+package xss.it.conf;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Lock file kept next to a settings file shared by several processes, used by {@link JConfig} in shared file mode.
+ * The lock file holds the version stamp of the settings file, bumped by every save. It is memory-mapped, so checking
+ * whether another process saved the file is a single memory read, without any system call or lock.
+ * Saves hold an exclusive {@link FileLock} on the lock file, and reads of the settings file a shared one.
+ * Since file locks are held by the whole process, the instances of one process sharing a file are
+ * serialized by an in-process lock first.
+ */
+final class SharedFile {
+    /**
+     * The suffix appended to the settings file path to get the lock file path.
+     */
+    static final String SUFFIX = ".lock";
+
+    private static final VarHandle STAMP = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final Map<Path, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer stamp;
+    private final ReentrantLock processLock;
+
+    /**
+     * Constructor for the SharedFile class, creating the lock file if needed.
+     *
+     * @param basePath the path of the settings file
+     * @throws IOException if the lock file cannot be opened or mapped
+     */
+    SharedFile(String basePath) throws IOException {
+        Path path = pathOf(basePath);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            // Mapping past the end grows a new lock file with zeros, so concurrent creations agree on version 0
+            this.stamp = channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+            this.processLock = LOCKS.computeIfAbsent(path.toRealPath(), p -> new ReentrantLock());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the current version of the settings file, as last published by any process.
+     *
+     * @return the version stamp
+     */
+    long version() {
+        return (long) STAMP.getVolatile(stamp, 0);
+    }
+
+    /**
+     * Publishes a new version of the settings file. Only called while holding the exclusive lock,
+     * after the settings file has been replaced.
+     *
+     * @param version the new version stamp
+     * @param force   whether to force the stamp to disk
+     */
+    void publish(long version, boolean force) {
+        STAMP.setVolatile(stamp, 0, version);
+        if (force) {
+            stamp.force();
+        }
+    }
+
+    /**
+     * Locks the settings file against the other processes and the other instances of this process.
+     *
+     * @param exclusive whether to lock for a save, or for a read shared with the other readers
+     * @return the held lock, to close once done
+     * @throws IOException if the file lock cannot be acquired
+     */
+    Lock lock(boolean exclusive) throws IOException {
+        processLock.lock();
+        try {
+            return new Lock(channel.lock(0, Long.MAX_VALUE, !exclusive));
+        } catch (IOException | RuntimeException e) {
+            processLock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the lock file. The lock file itself is kept for the other processes.
+     */
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Gets the lock file path for a settings file.
+     *
+     * @param basePath the path of the settings file
+     * @return the path of the lock file
+     */
+    static Path pathOf(String basePath) {
+        return Paths.get(basePath + SUFFIX);
+    }
+
+    /**
+     * A lock held on the settings file, released by {@link #close()}.
+     */
+    final class Lock implements AutoCloseable {
+        private final FileLock fileLock;
+
+        private Lock(FileLock fileLock) {
+            this.fileLock = fileLock;
+        }
+
+        /**
+         * Releases the file lock and the in-process lock.
+         *
+         * @throws IOException if the file lock cannot be released
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                fileLock.release();
+            } finally {
+                processLock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package xss.it.conf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Storage of the {@link JConfig.Concurrency#SNAPSHOT} mode.
+ * Readers use an immutable snapshot of the properties published through a volatile reference,
+ * without taking any lock. Writers copy the snapshot, apply their change and publish the copy,
+ * so every write is atomic for the readers, and costs a copy of every property.
+ * Writes to the file work from a snapshot with no lock held.
+ */
+final class SnapshotStore implements PropertyStore {
+    private volatile Map<String, String> snapshot = new HashMap<>();
+
+    @Override
+    public String get(String key) {
+        return snapshot.get(key);
+    }
+
+    @Override
+    public synchronized String put(String key, String value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        Map<String, String> copy = new HashMap<>(snapshot);
+        String previous = copy.put(key, value);
+        snapshot = copy;
+        return previous;
+    }
+
+    @Override
+    public synchronized Map<String, String> apply(Map<String, String> entries) {
+        Map<String, String> copy = new HashMap<>(snapshot);
+        Map<String, String> previous = new HashMap<>();
+        entries.forEach((k, v) -> {
+            if (k == null || v == null) {
+                throw new NullPointerException();
+            }
+            previous.put(k, copy.put(k, v));
+        });
+        snapshot = copy;
+        return previous;
+    }
+
+    @Override
+    public synchronized List<ConfigChange> applyIfUnchanged(List<ConfigChange> changes) {
+        Map<String, String> copy = new HashMap<>(snapshot);
+        List<ConfigChange> applied = new ArrayList<>();
+        for (ConfigChange change : changes) {
+            if (!Objects.equals(copy.get(change.getKey()), change.getOldValue())) {
+                continue;
+            }
+            if (change.getNewValue() == null) {
+                copy.remove(change.getKey());
+            } else {
+                copy.put(change.getKey(), change.getNewValue());
+            }
+            applied.add(change);
+        }
+        if (!applied.isEmpty()) {
+            snapshot = copy;
+        }
+        return applied;
+    }
+
+    @Override
+    public synchronized void putAll(Map<?, ?> entries, boolean overwrite) {
+        Map<String, String> copy = new HashMap<>(snapshot);
+        entries.forEach((k, v) -> {
+            if (overwrite) {
+                copy.put((String) k, (String) v);
+            } else {
+                copy.putIfAbsent((String) k, (String) v);
+            }
+        });
+        snapshot = copy;
+    }
+
+    @Override
+    public synchronized void replaceAll(Map<?, ?> entries) {
+        Map<String, String> copy = new HashMap<>();
+        entries.forEach((k, v) -> copy.put((String) k, (String) v));
+        snapshot = copy;
+    }
+
+    @Override
+    public Map<String, String> entries() {
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    @Override
+    public List<String> keys() {
+        return new ArrayList<>(snapshot.keySet());
+    }
+
+    /**
+     * Get a read-only copy of the current snapshot.
+     * Changes must go through {@link JConfig}, the returned object rejects them.
+     *
+     * @return the read-only properties object
+     */
+    @Override
+    public Properties view() {
+        return new ReadOnlyProperties(snapshot);
+    }
+
+    @Override
+    public void store(OutputStream outputStream, String comments) throws IOException {
+        Properties copy = new Properties();
+        copy.putAll(snapshot);
+        copy.store(outputStream, comments);
+    }
+
+    /**
+     * A properties object that rejects every change once filled.
+     * Its key, value and entry views come from an unmodifiable view of the snapshot, whose entries reject
+     * {@link Map.Entry#setValue(Object)}, rather than from the backing table of the properties.
+     */
+    private static final class ReadOnlyProperties extends Properties {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean sealed;
+        private final Map<Object, Object> entries;
+
+        private ReadOnlyProperties(Map<String, String> entries) {
+            super(entries.size());
+            super.putAll(entries);
+            this.entries = Collections.unmodifiableMap(entries);
+            sealed = true;
+        }
+
+        private UnsupportedOperationException readOnly() {
+            return new UnsupportedOperationException("Properties are read-only in SNAPSHOT mode, use JConfig to change them.");
+        }
+
+        @Override
+        public synchronized Object put(Object key, Object value) {
+            if (sealed) {
+                throw readOnly();
+            }
+            return super.put(key, value);
+        }
+
+        @Override
+        public synchronized void putAll(Map<?, ?> t) {
+            if (sealed) {
+                throw readOnly();
+            }
+            super.putAll(t);
+        }
+
+        @Override
+        public Set<Object> keySet() {
+            return entries.keySet();
+        }
+
+        @Override
+        public Set<Map.Entry<Object, Object>> entrySet() {
+            return entries.entrySet();
+        }
+
+        @Override
+        public Collection<Object> values() {
+            return entries.values();
+        }
+
+        @Override
+        public synchronized Object setProperty(String key, String value) {
+            throw readOnly();
+        }
+
+        @Override
+        public synchronized Object remove(Object key) {
+            throw readOnly();
+        }
+
+        @Override
+        public synchronized boolean remove(Object key, Object value) {
+            throw readOnly();
+        }
+
+        @Override
+        public synchronized void clear() {
+            throw readOnly();
+        }
+
+        @Override
+        public synchronized void load(InputStream inStream) {
+            throw readOnly();
+        }
+
+        @Override
+        public synchronized void load(Reader reader) {
+            throw readOnly();
+        }
+
+        @Override
+        public synchronized void loadFromXML(InputStream in) {
+            throw readOnly();
+        }
+
+        @Override
+        public synchronized Object putIfAbsent(Object key, Object value) {
+            throw readOnly();
+        }
+
+        @Override
+        public synchronized boolean replace(Object key, Object oldValue, Object newValue) {
+            throw readOnly();
+        }
+
+        @Override
+        public synchronized Object replace(Object key, Object value) {
+            throw readOnly();
+        }
+
+        @Override
+        public synchronized void replaceAll(BiFunction<? super Object, ? super Object, ?> function) {
+            throw readOnly();
+        }
+
+        @Override
+        public synchronized Object computeIfAbsent(Object key, Function<? super Object, ?> mappingFunction) {
+            throw readOnly();
+        }
+
+        @Override
+        public synchronized Object computeIfPresent(Object key, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+            throw readOnly();
+        }
+
+        @Override
+        public synchronized Object compute(Object key, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+            throw readOnly();
+        }
+
+        @Override
+        public synchronized Object merge(Object key, Object value, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+            throw readOnly();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package xss.it.conf;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Binary snapshot of a settings file, kept next to it by {@link JConfig} in {@link JConfig.Loading#SNAPSHOT} mode.
+ * The snapshot holds a length-prefixed table of the properties and the index of the encrypted keys,
+ * stamped with the size, the modification time and the checksum of the settings file it was taken from.
+ * It is only used while the settings file still matches the stamp, otherwise the file is parsed again.
+ * The journal is not part of the snapshot, it is replayed on top like on top of the settings file.
+ */
+final class StartupSnapshot {
+    /**
+     * The suffix appended to the settings file path to get the snapshot path.
+     */
+    static final String SUFFIX = ".snapshot";
+
+    private static final int MAGIC = 0x4A43534E;
+    private static final int VERSION = 1;
+
+    private final long sourceSize;
+    private final long sourceModified;
+    private final long sourceChecksum;
+    private final Map<String, String> entries;
+    private final Map<String, String> encryptedKeys;
+
+    /**
+     * Constructor for the StartupSnapshot class.
+     *
+     * @param sourceSize     the size of the settings file, in bytes
+     * @param sourceModified the modification time of the settings file, in milliseconds
+     * @param sourceChecksum the CRC32C checksum of the settings file
+     * @param entries        the properties of the settings file
+     * @param encryptedKeys  the index of the encrypted keys, from plaintext key to encrypted key
+     */
+    StartupSnapshot(long sourceSize, long sourceModified, long sourceChecksum,
+                    Map<String, String> entries, Map<String, String> encryptedKeys) {
+        this.sourceSize = sourceSize;
+        this.sourceModified = sourceModified;
+        this.sourceChecksum = sourceChecksum;
+        this.entries = entries;
+        this.encryptedKeys = encryptedKeys;
+    }
+
+    /**
+     * Get the properties of the settings file.
+     *
+     * @return the properties
+     */
+    Map<String, String> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Get the index of the encrypted keys.
+     *
+     * @return the index, from plaintext key to encrypted key
+     */
+    Map<String, String> getEncryptedKeys() {
+        return encryptedKeys;
+    }
+
+    /**
+     * Creates a snapshot of the same settings file with another index of the encrypted keys.
+     *
+     * @param encryptedKeys the index of the encrypted keys, from plaintext key to encrypted key
+     * @return the new snapshot
+     */
+    StartupSnapshot withEncryptedKeys(Map<String, String> encryptedKeys) {
+        return new StartupSnapshot(sourceSize, sourceModified, sourceChecksum, entries, encryptedKeys);
+    }
+
+    /**
+     * Gets the snapshot path for a settings file.
+     *
+     * @param basePath the path of the settings file
+     * @return the path of the snapshot
+     */
+    static Path pathOf(String basePath) {
+        return Paths.get(basePath + SUFFIX);
+    }
+
+    /**
+     * Parses a settings file as text, computing its stamp on the way.
+     *
+     * @param basePath the path of the settings file
+     * @return the snapshot of the settings file, without encrypted keys index
+     * @throws IOException if an I/O error occurs while reading the settings file
+     */
+    static StartupSnapshot parse(String basePath) throws IOException {
+        Path source = Paths.get(basePath);
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        CRC32C checksum = new CRC32C();
+        Properties properties = new Properties();
+        try (InputStream inputStream = new CheckedInputStream(Files.newInputStream(source), checksum)) {
+            properties.load(inputStream);
+            // Properties.load may stop before the end of the file, the checksum covers all of it
+            byte[] rest = new byte[8192];
+            while (inputStream.read(rest) >= 0) {
+                // Skip to the end of the file
+            }
+        }
+        Map<String, String> entries = new HashMap<>(properties.size() * 2);
+        properties.forEach((k, v) -> entries.put(k.toString(), v.toString()));
+        return new StartupSnapshot(attributes.size(), attributes.lastModifiedTime().toMillis(), checksum.getValue(),
+                entries, Collections.emptyMap());
+    }
+
+    /**
+     * Creates a snapshot of a settings file that has just been written.
+     *
+     * @param basePath       the path of the settings file
+     * @param sourceChecksum the CRC32C checksum of the written content
+     * @param entries        the written properties
+     * @param encryptedKeys  the index of the encrypted keys, from plaintext key to encrypted key
+     * @return the snapshot of the settings file
+     * @throws IOException if the attributes of the settings file cannot be read
+     */
+    static StartupSnapshot of(String basePath, long sourceChecksum, Map<String, String> entries,
+                              Map<String, String> encryptedKeys) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(Paths.get(basePath), BasicFileAttributes.class);
+        return new StartupSnapshot(attributes.size(), attributes.lastModifiedTime().toMillis(), sourceChecksum,
+                entries, encryptedKeys);
+    }
+
+    /**
+     * Reads the snapshot of a settings file, if it exists and still matches the settings file.
+     *
+     * @param basePath the path of the settings file
+     * @return the snapshot, or null if it is missing, corrupted or stale
+     */
+    static StartupSnapshot read(String basePath) {
+        try {
+            Path source = Paths.get(basePath);
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(pathOf(basePath)));
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            long sourceSize = buffer.getLong();
+            long sourceModified = buffer.getLong();
+            long sourceChecksum = buffer.getLong();
+            BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+            if (attributes.size() != sourceSize
+                    || attributes.lastModifiedTime().toMillis() != sourceModified
+                    || checksum(source) != sourceChecksum) {
+                return null;
+            }
+            Map<String, String> entries = readTable(buffer);
+            Map<String, String> encryptedKeys = readTable(buffer);
+            return new StartupSnapshot(sourceSize, sourceModified, sourceChecksum, entries, encryptedKeys);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // BufferUnderflowException and friends, the snapshot is torn or corrupted
+            return null;
+        }
+    }
+
+    /**
+     * Writes the snapshot next to its settings file, atomically replacing the previous one.
+     * The snapshot is only a cache, so it is never forced to disk.
+     *
+     * @param basePath the path of the settings file
+     * @return the number of bytes written
+     * @throws IOException if an I/O error occurs while writing
+     */
+    long write(String basePath) throws IOException {
+        return AtomicFileWriter.write(pathOf(basePath), outputStream -> {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(outputStream, 64 * 1024));
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            data.writeLong(sourceSize);
+            data.writeLong(sourceModified);
+            data.writeLong(sourceChecksum);
+            writeTable(data, entries);
+            writeTable(data, encryptedKeys);
+            data.flush();
+        }, JConfig.Durability.NONE);
+    }
+
+    /**
+     * Deletes the snapshot of a settings file, if it exists.
+     *
+     * @param basePath the path of the settings file
+     */
+    static void discard(String basePath) {
+        try {
+            Files.deleteIfExists(pathOf(basePath));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Computes the CRC32C checksum of a file, reading it through a memory mapping.
+     *
+     * @param file the file to checksum
+     * @return the checksum
+     * @throws IOException if an I/O error occurs while reading
+     */
+    static long checksum(Path file) throws IOException {
+        CRC32C checksum = new CRC32C();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += Integer.MAX_VALUE) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(Integer.MAX_VALUE, size - position));
+                checksum.update(buffer);
+            }
+        }
+        return checksum.getValue();
+    }
+
+    /**
+     * Writes a table of strings as a count followed by length-prefixed UTF-8 keys and values.
+     */
+    private static void writeTable(DataOutputStream data, Map<String, String> table) throws IOException {
+        data.writeInt(table.size());
+        for (Map.Entry<String, String> entry : table.entrySet()) {
+            writeString(data, entry.getKey());
+            writeString(data, entry.getValue());
+        }
+    }
+
+    private static void writeString(DataOutputStream data, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    /**
+     * Reads a table of strings written by {@link #writeTable(DataOutputStream, Map)}.
+     */
+    private static Map<String, String> readTable(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        if (size < 0) {
+            throw new BufferUnderflowException();
+        }
+        Map<String, String> table = new HashMap<>(Math.max(16, (int) (Math.min(size, buffer.remaining()) / 0.75f) + 1));
+        for (int i = 0; i < size; i++) {
+            String key = readString(buffer);
+            table.put(key, readString(buffer));
+        }
+        return table;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String text = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return text;
+    }
+}
@@ -0,0 +1,255 @@
+package xss.it.conf;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Cache of parsed values behind the typed getters of {@link JConfig}.
+ * Parsed values are kept as primitive bits in an open-addressing table, and each one remembers the
+ * exact string it was parsed from. A value is only used while the property still holds that same
+ * string instance, so a steady-state read neither parses nor allocates, and a change through any path
+ * is never served stale. Values that cannot be parsed are cached as failures, so a bad value does not
+ * throw on every read.
+ * Reads are lock-free; writes are serialized.
+ * When metrics are given, every read is recorded as a hit or a miss, and as a parse failure when
+ * the value cannot be parsed.
+ */
+final class TypedValueCache {
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte FLOAT = 4;
+    private static final byte BOOLEAN = 5;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final ConfigMetrics metrics;
+    private volatile Slot[] table = new Slot[INITIAL_CAPACITY];
+    private int used;
+
+    /**
+     * Constructor for the TypedValueCache class.
+     */
+    TypedValueCache() {
+        this(null);
+    }
+
+    /**
+     * Constructor for the TypedValueCache class recording its hits and misses.
+     *
+     * @param metrics the metrics recording the reads, or null
+     */
+    TypedValueCache(@Nullable ConfigMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets a value parsed as an integer.
+     *
+     * @param key      the key of the property
+     * @param value    the current value of the property
+     * @param fallback the value returned when the value cannot be parsed
+     * @return the parsed value, or the fallback
+     */
+    int getInt(String key, String value, int fallback) {
+        Slot slot = slot(key, value, INT);
+        return slot.valid ? (int) slot.bits : fallback;
+    }
+
+    /**
+     * Gets a value parsed as a long.
+     *
+     * @param key      the key of the property
+     * @param value    the current value of the property
+     * @param fallback the value returned when the value cannot be parsed
+     * @return the parsed value, or the fallback
+     */
+    long getLong(String key, String value, long fallback) {
+        Slot slot = slot(key, value, LONG);
+        return slot.valid ? slot.bits : fallback;
+    }
+
+    /**
+     * Gets a value parsed as a double.
+     *
+     * @param key      the key of the property
+     * @param value    the current value of the property
+     * @param fallback the value returned when the value cannot be parsed
+     * @return the parsed value, or the fallback
+     */
+    double getDouble(String key, String value, double fallback) {
+        Slot slot = slot(key, value, DOUBLE);
+        return slot.valid ? Double.longBitsToDouble(slot.bits) : fallback;
+    }
+
+    /**
+     * Gets a value parsed as a float.
+     *
+     * @param key      the key of the property
+     * @param value    the current value of the property
+     * @param fallback the value returned when the value cannot be parsed
+     * @return the parsed value, or the fallback
+     */
+    float getFloat(String key, String value, float fallback) {
+        Slot slot = slot(key, value, FLOAT);
+        return slot.valid ? Float.intBitsToFloat((int) slot.bits) : fallback;
+    }
+
+    /**
+     * Gets a value parsed as a boolean.
+     *
+     * @param key   the key of the property
+     * @param value the current value of the property
+     * @return the parsed value
+     */
+    boolean getBoolean(String key, String value) {
+        return slot(key, value, BOOLEAN).bits != 0;
+    }
+
+    /**
+     * Drops the parsed value of a key.
+     *
+     * @param key the key of the property
+     */
+    synchronized void invalidate(String key) {
+        Slot[] current = table;
+        int index = indexOf(current, key);
+        if (current[index] != null && current[index].source != null) {
+            current[index] = new Slot(key, null, (byte) 0, 0L, false);
+        }
+    }
+
+    /**
+     * Drops every parsed value.
+     */
+    synchronized void clear() {
+        table = new Slot[INITIAL_CAPACITY];
+        used = 0;
+    }
+
+    /**
+     * Finds the slot holding the value parsed from the given string, parsing it on a miss.
+     *
+     * @param key   the key of the property
+     * @param value the current value of the property
+     * @param kind  the kind of the parsed value
+     * @return the slot holding the parsed value
+     */
+    private Slot slot(String key, String value, byte kind) {
+        Slot[] current = table;
+        Slot slot = current[indexOf(current, key)];
+        boolean hit = slot != null && slot.source == value && slot.kind == kind;
+        if (!hit) {
+            slot = store(parse(key, value, kind));
+        }
+        if (metrics != null) {
+            metrics.record(hit ? ConfigMetrics.Event.TYPED_CACHE_HIT : ConfigMetrics.Event.TYPED_CACHE_MISS);
+            if (!slot.valid) {
+                metrics.record(ConfigMetrics.Event.PARSE_FAILURE);
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Stores a parsed value, growing the table when it gets half full.
+     *
+     * @param slot the slot holding the parsed value
+     * @return the stored slot
+     */
+    private synchronized Slot store(Slot slot) {
+        Slot[] current = table;
+        int index = indexOf(current, slot.key);
+        if (current[index] == null) {
+            if (++used * 2 > current.length) {
+                current = resize(current);
+                index = indexOf(current, slot.key);
+            }
+        }
+        current[index] = slot;
+        return slot;
+    }
+
+    /**
+     * Copies the slots into a table twice as large and publishes it.
+     *
+     * @param current the current table
+     * @return the new table
+     */
+    private Slot[] resize(Slot[] current) {
+        Slot[] resized = new Slot[current.length * 2];
+        for (Slot slot : current) {
+            if (slot != null) {
+                resized[indexOf(resized, slot.key)] = slot;
+            }
+        }
+        table = resized;
+        return resized;
+    }
+
+    /**
+     * Finds the index of the slot of a key, or of the empty slot where it belongs, by linear probing.
+     * The hash is multiplied by the 32-bit golden ratio first: keys like {@code item.1}, {@code item.2} have
+     * consecutive hash codes that fill runs of adjacent slots, and linear probing degrades into long scans
+     * when such runs merge, while the multiplication scatters them over the table.
+     *
+     * @param slots the table to probe
+     * @param key   the key of the property
+     * @return the index of the slot
+     */
+    private static int indexOf(Slot[] slots, String key) {
+        int mask = slots.length - 1;
+        int hash = key.hashCode() * 0x9E3779B9;
+        int index = (hash ^ (hash >>> 16)) & mask;
+        while (slots[index] != null && !slots[index].key.equals(key)) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Parses a value into a new slot.
+     *
+     * @param key   the key of the property
+     * @param value the value to parse
+     * @param kind  the kind of the parsed value
+     * @return the slot holding the parsed value, marked as invalid if the value cannot be parsed
+     */
+    private static Slot parse(String key, String value, byte kind) {
+        try {
+            switch (kind) {
+                case INT:
+                    return new Slot(key, value, kind, Integer.parseInt(value), true);
+                case LONG:
+                    return new Slot(key, value, kind, Long.parseLong(value), true);
+                case DOUBLE:
+                    return new Slot(key, value, kind, Double.doubleToRawLongBits(Double.parseDouble(value)), true);
+                case FLOAT:
+                    return new Slot(key, value, kind, Float.floatToRawIntBits(Float.parseFloat(value)), true);
+                default:
+                    return new Slot(key, value, kind, Boolean.parseBoolean(value) ? 1L : 0L, true);
+            }
+        } catch (NumberFormatException e) {
+            return new Slot(key, value, kind, 0L, false);
+        }
+    }
+
+    /**
+     * An immutable parsed value, along with the string it was parsed from.
+     */
+    private static final class Slot {
+        private final String key;
+        private final String source;
+        private final byte kind;
+        private final long bits;
+        private final boolean valid;
+
+        private Slot(String key, String source, byte kind, long bits, boolean valid) {
+            this.key = key;
+            this.source = source;
+            this.kind = kind;
+            this.bits = bits;
+            this.valid = valid;
+        }
+    }
+}
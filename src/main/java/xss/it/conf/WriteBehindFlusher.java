@@ -0,0 +1,203 @@
+package xss.it.conf;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ * Background writer used by {@link JConfig} in write-behind mode.
+ * Mutations only mark the store as dirty, and the flusher coalesces them into a single save
+ * once the maximum staleness elapses or the dirty-count threshold is reached, whichever comes first.
+ * A save that fails leaves the mutations pending, and is retried once the maximum staleness elapses again.
+ */
+final class WriteBehindFlusher {
+    private final PropertiesJournal.Saver saver;
+    private final long maxStalenessMillis;
+    private final int dirtyThreshold;
+    private final ScheduledExecutorService scheduler;
+    private final Object lock = new Object();
+    private final Object flushLock = new Object();
+    private int dirtyCount;
+    private ScheduledFuture<?> pending;
+    private CompletableFuture<Void> nextSave;
+    private CompletableFuture<Void> runningSave;
+    private boolean pendingImmediate;
+    private boolean closed;
+
+    /**
+     * Constructor for the WriteBehindFlusher class.
+     *
+     * @param name               the name used for the background writer thread
+     * @param saver              the action that persists the whole store, throwing if it fails
+     * @param maxStalenessMillis the maximum time a mutation may stay unsaved, in milliseconds
+     * @param dirtyThreshold     the number of pending mutations that triggers an immediate save
+     */
+    WriteBehindFlusher(String name, PropertiesJournal.Saver saver, long maxStalenessMillis, int dirtyThreshold) {
+        this.saver = saver;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.dirtyThreshold = dirtyThreshold;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Records a mutation and schedules a save if none is pending yet.
+     * The save is brought forward to run immediately once the dirty-count threshold is reached.
+     * Once the flusher is closed the save runs synchronously on the calling thread, and a failure is printed.
+     */
+    void markDirty() {
+        synchronized (lock) {
+            dirtyCount++;
+            if (!closed) {
+                scheduleFlush();
+                return;
+            }
+        }
+        try {
+            flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Schedules a save for the pending mutations if none is scheduled yet.
+     * Must be called while holding the state lock.
+     */
+    private void scheduleFlush() {
+        boolean immediate = dirtyCount >= dirtyThreshold;
+        if (pending == null) {
+            pending = schedule(immediate ? 0 : maxStalenessMillis);
+            pendingImmediate = immediate;
+        } else if (immediate && !pendingImmediate) {
+            pending.cancel(false);
+            pending = schedule(0);
+            pendingImmediate = true;
+        }
+    }
+
+    /**
+     * Get a future completed once every mutation recorded so far is saved.
+     *
+     * @return a future completed by the save including the mutations recorded so far,
+     * or completed exceptionally if that save failed; the mutations stay pending and are retried then
+     */
+    CompletableFuture<Void> whenSaved() {
+        synchronized (lock) {
+            if (dirtyCount > 0) {
+                if (nextSave == null) {
+                    nextSave = new CompletableFuture<>();
+                }
+                return nextSave;
+            }
+            return runningSave != null ? runningSave : CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Saves the store now if it has unsaved mutations, on the calling thread.
+     * Mutations made while the save is running are picked up by the next one.
+     * If the save fails, its mutations stay pending and a retry is scheduled, unless the flusher is closed.
+     *
+     * @throws IOException if the store cannot be saved
+     */
+    void flush() throws IOException {
+        synchronized (flushLock) {
+            int count;
+            CompletableFuture<Void> saving;
+            synchronized (lock) {
+                if (dirtyCount == 0) {
+                    return;
+                }
+                count = dirtyCount;
+                dirtyCount = 0;
+                if (pending != null) {
+                    pending.cancel(false);
+                    pending = null;
+                }
+                pendingImmediate = false;
+                saving = nextSave != null ? nextSave : new CompletableFuture<>();
+                nextSave = null;
+                runningSave = saving;
+            }
+            try {
+                saver.save();
+            } catch (IOException | RuntimeException e) {
+                synchronized (lock) {
+                    runningSave = null;
+                    dirtyCount += count;
+                    if (!closed && pending == null) {
+                        pending = schedule(maxStalenessMillis);
+                    }
+                }
+                saving.completeExceptionally(e);
+                throw e;
+            }
+            synchronized (lock) {
+                runningSave = null;
+            }
+            saving.complete(null);
+        }
+    }
+
+    /**
+     * Flushes pending mutations and stops the background writer thread.
+     * The thread is stopped even if the last save fails.
+     *
+     * @throws IOException if the pending mutations cannot be saved, in which case they are left unsaved
+     */
+    void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+        }
+        try {
+            flush();
+        } finally {
+            stop();
+        }
+    }
+
+    /**
+     * Stops the background writer thread, waiting for a save it is running.
+     */
+    private void stop() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(maxStalenessMillis, TimeUnit.MILLISECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Schedules a flush on the background writer thread.
+     *
+     * @param delayMillis the delay before the flush runs, in milliseconds
+     * @return the scheduled flush
+     */
+    private ScheduledFuture<?> schedule(long delayMillis) {
+        return scheduler.schedule(this::flushInBackground, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Flushes on the background writer thread, printing a failure since the retry is already scheduled.
+     */
+    private void flushInBackground() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package xss.it.conf;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ */
+public class AtomicFileWriterTest {
+
+    @Test
+    public void testKeepsLinkAndPermissions() throws IOException {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Path tempDir = Files.createTempDirectory("jconfig");
+        Path realFile = tempDir.resolve("real.properties");
+        Path link = tempDir.resolve("settings.properties");
+        Files.write(realFile, "name=John Doe\n".getBytes(StandardCharsets.ISO_8859_1));
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+        Files.setPosixFilePermissions(realFile, permissions);
+        Files.createSymbolicLink(link, realFile.getFileName());
+
+        // Writing through the link replaces the file it points to, and keeps its permissions
+        AtomicFileWriter.write(link, outputStream -> outputStream.write("name=Jane Doe\n".getBytes(StandardCharsets.ISO_8859_1)),
+                JConfig.Durability.NONE);
+        assertTrue(Files.isSymbolicLink(link));
+        assertEquals("name=Jane Doe\n", new String(Files.readAllBytes(realFile), StandardCharsets.ISO_8859_1));
+        assertEquals(permissions, Files.getPosixFilePermissions(realFile));
+
+        // A new file is only readable and writable by its owner
+        Path newFile = tempDir.resolve("new.properties");
+        AtomicFileWriter.write(newFile, outputStream -> outputStream.write('x'), JConfig.Durability.NONE);
+        assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(newFile));
+
+        Files.deleteIfExists(newFile);
+        Files.deleteIfExists(link);
+        Files.deleteIfExists(realFile);
+        Files.deleteIfExists(tempDir);
+    }
+}
@@ -0,0 +1,104 @@
+package xss.it.conf;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ */
+public class CipherEngineTest {
+    private static final byte[] KEY = "MySecretKeyXXXXX".getBytes();
+
+    @Test
+    public void testMatchesPerCallCipher() throws Exception {
+        // Encrypt the value the way every call used to, with a fresh cipher
+        Cipher cipher = Cipher.getInstance(CipherEngine.TRANSFORMATION);
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(KEY, "AES"));
+        String expected = Base64.getEncoder().encodeToString(cipher.doFinal("s3cr3t".getBytes()));
+
+        // The reused cipher produces the same output, so existing files stay readable
+        CipherEngine engine = new CipherEngine(KEY);
+        assertEquals(expected, engine.encrypt("s3cr3t"));
+        assertEquals(expected, engine.encrypt("s3cr3t"));
+        assertEquals("s3cr3t", engine.decrypt(expected));
+    }
+
+    @Test
+    public void testInvalidValueDoesNotBreakEngine() {
+        CipherEngine engine = new CipherEngine(KEY);
+
+        // A value that is not a valid ciphertext returns null
+        assertNull(engine.decrypt("bm90LWVuY3J5cHRlZA=="));
+
+        // The engine keeps working on the same thread afterwards
+        assertEquals("value", engine.decrypt(engine.encrypt("value")));
+    }
+
+    @Test
+    public void testConcurrentRoundTrips() throws Exception {
+        CipherEngine engine = new CipherEngine(KEY);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        String value = "value-" + thread + "-" + i;
+                        if (!value.equals(engine.decrypt(engine.encrypt(value)))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDecryptSecretAndDestroy() throws Exception {
+        CipherEngine engine = new CipherEngine(KEY);
+        String encrypted = engine.encrypt("s3cr3t");
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        assertEquals("s3cr3t", other.submit(() -> engine.decrypt(encrypted)).get());
+
+        // The secret holds the same characters as the decrypted string
+        ConfigSecret secret = engine.decryptSecret(encrypted);
+        assertNotNull(secret);
+        assertTrue(secret.contentEquals("s3cr3t".toCharArray()));
+        assertNull(engine.decryptSecret("bm90LWVuY3J5cHRlZA=="));
+        assertTrue(engine.hasKey(KEY));
+
+        // Once destroyed, the key material is gone and nothing decrypts anymore
+        engine.destroy();
+        assertFalse(engine.hasKey(KEY));
+        assertThrows(IllegalStateException.class, engine::copyKey);
+        assertNull(engine.decrypt(encrypted));
+        assertNull(engine.decryptSecret(encrypted));
+
+        // The cipher another thread created before is dropped too
+        assertNull(other.submit(() -> engine.decrypt(encrypted)).get());
+        other.shutdown();
+
+        // A secret destroyed after being read can no longer be read
+        secret.destroy();
+        assertThrows(IllegalStateException.class, () -> secret.charAt(0));
+        assertThrows(IllegalStateException.class, () -> secret.getChars(new char[6], 0));
+    }
+}
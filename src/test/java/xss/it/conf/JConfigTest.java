@@ -3,9 +3,29 @@ package xss.it.conf;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -155,4 +175,1058 @@ public class JConfigTest {
         // Check if the file does not exist
         assertFalse(tempJConfig.exist());
     }
+
+    @Test
+    public void testWriteBehindCoalescesWrites() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY);
+
+        // Large staleness and threshold, so nothing is written until the explicit flush
+        config.enableWriteBehind(60_000, 1_000);
+        assertTrue(config.isWriteBehind());
+        for (int i = 0; i < 500; i++) {
+            config.setInteger("key." + i, i);
+        }
+        assertNull(new JConfig(tempFilePath.toString(), SECRET_KEY).get("key.0"));
+
+        // Flush and verify every change reached the file
+        config.flush();
+        JConfig loadedConfig = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        assertEquals(0, loadedConfig.getInteger("key.0"));
+        assertEquals(499, loadedConfig.getInteger("key.499"));
+
+        config.close();
+        assertFalse(config.isWriteBehind());
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testWriteBehindBoundedStaleness() throws Exception {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        config.enableWriteBehind(50, 1_000);
+        config.set("name", "John Doe");
+
+        // The background writer saves the change once the max staleness elapses
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (new JConfig(tempFilePath.toString(), SECRET_KEY).get("name") == null
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("John Doe", new JConfig(tempFilePath.toString(), SECRET_KEY).get("name"));
+
+        config.close();
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testWriteBehindRetriesFailedSaves() throws Exception {
+        Path tempDir = Files.createTempDirectory("jconfig");
+        Path missingDir = tempDir.resolve("missing");
+        Path tempFilePath = missingDir.resolve("settings.properties");
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        config.enableWriteBehind(50, 1_000);
+        config.set("name", "John Doe");
+
+        // A save that fails is reported, and its change stays pending
+        assertThrows(IOException.class, config::flush);
+        assertFalse(Files.exists(tempFilePath));
+
+        // The background writer retries it until it succeeds
+        Files.createDirectory(missingDir);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!Files.exists(tempFilePath) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("John Doe", new JConfig(tempFilePath.toString(), SECRET_KEY).get("name"));
+
+        // Closing reports a last save that fails
+        config.set("name", "Jane Doe");
+        Files.delete(tempFilePath);
+        Files.delete(missingDir);
+        assertThrows(UncheckedIOException.class, config::close);
+        assertFalse(config.isWriteBehind());
+
+        Files.deleteIfExists(tempDir);
+    }
+
+    @Test
+    public void testJournalAppendsAndCompacts() throws Exception {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        Path journalPath = PropertiesJournal.pathOf(tempFilePath.toString());
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        config.set("name", "John Doe");
+
+        // Changes go to the journal and leave the settings file untouched
+        config.enableJournal(1_000_000, 1_000);
+        assertTrue(config.isJournaled());
+        long baseSize = Files.size(tempFilePath);
+        config.set("name", "Jane Doe");
+        config.setEncrypted("password", "s3cr3t");
+        assertEquals(baseSize, Files.size(tempFilePath));
+        assertTrue(Files.size(journalPath) > 0);
+
+        // A new instance replays the journal on top of the settings file
+        JConfig loadedConfig = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        assertEquals("Jane Doe", loadedConfig.get("name"));
+        assertEquals("s3cr3t", loadedConfig.getDecrypted("password"));
+
+        // A full save folds the journal back into the settings file
+        config.saveToFile();
+        assertEquals(0, Files.size(journalPath));
+        assertEquals("Jane Doe", new JConfig(tempFilePath.toString(), SECRET_KEY).get("name"));
+
+        // Concurrent changes of one key reach the journal in the order they reached the store
+        config.setDurability(JConfig.Durability.NONE);
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            String writer = "writer-" + t;
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    config.set("name", writer + "-" + i);
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertEquals(config.get("name"), new JConfig(tempFilePath.toString(), SECRET_KEY).get("name"));
+
+        config.close();
+        Files.deleteIfExists(journalPath);
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testAtomicSaveWithDurability() throws IOException {
+        Path tempDir = Files.createTempDirectory("jconfig");
+        Path tempFilePath = tempDir.resolve("settings.properties");
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY);
+
+        // Save under every durability policy
+        for (JConfig.Durability durability : JConfig.Durability.values()) {
+            config.setDurability(durability);
+            assertEquals(durability, config.getDurability());
+            config.set("durability", durability.name());
+            assertEquals(durability.name(), new JConfig(tempFilePath.toString(), SECRET_KEY).get("durability"));
+        }
+
+        // Only the settings file is left, no temporary files
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+
+        Files.deleteIfExists(tempFilePath);
+        Files.deleteIfExists(tempDir);
+    }
+
+    @Test
+    public void testEncryptedIndexAndDecryptedCache() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        config.setEncrypted("password", "s3cr3t");
+        config.setEncrypted("blank", " ");
+        assertTrue(config.isSet("password"));
+        assertFalse(config.isSet("blank"));
+        assertFalse(config.isSet("missing"));
+
+        // A write replaces the cached value
+        config.setEncrypted("password", "n3w-s3cr3t");
+        assertEquals("n3w-s3cr3t", config.getDecrypted("password"));
+
+        // A change made behind the cache is picked up as well
+        JConfig other = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        other.setEncrypted("password", "0th3r");
+        config.getProperties().putAll(other.getProperties());
+        assertEquals("0th3r", config.getDecrypted("password"));
+
+        // A new instance indexes the encrypted entries at load time, with or without the cache
+        JConfig loadedConfig = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        loadedConfig.setDecryptedCacheSize(0);
+        assertEquals(0, loadedConfig.getDecryptedCacheSize());
+        assertEquals("0th3r", loadedConfig.getDecrypted("password"));
+        assertTrue(loadedConfig.isSet("password"));
+
+        // Only the keys of existing entries are indexed, so lookups of missing keys leave the index as is
+        CipherEngine cipher = new CipherEngine(new byte[16]);
+        SecretIndex index = new SecretIndex(cipher, 16);
+        Map<String, String> entries = Map.of(cipher.encrypt("missing"), "a", cipher.encrypt("present"), "b");
+        assertNull(index.encryptedValue("missing", key -> null));
+        assertEquals("b", index.encryptedValue("present", entries::get));
+        assertEquals(Map.of("present", cipher.encrypt("present")), index.encryptedKeys(entries));
+
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testSecretLookupsAndEviction() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        JConfig config;
+        System.setProperty(ConfigMetrics.ENABLED_PROPERTY, "true");
+        try {
+            config = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        } finally {
+            System.clearProperty(ConfigMetrics.ENABLED_PROPERTY);
+        }
+        ConfigMetrics metrics = config.getMetrics();
+        assertNotNull(metrics);
+
+        // A missing key, like a feature flag that is not set, is encrypted once, not on every check
+        for (int i = 0; i < 100; i++) {
+            assertFalse(config.isSet("feature.flag"));
+        }
+        assertEquals(1, metrics.getEncryptCount());
+        config.setEncrypted("feature.flag", "on");
+        assertTrue(config.isSet("feature.flag"));
+        assertEquals(2, metrics.getEncryptCount());
+
+        // At capacity the least recently used value is evicted, never the one just read
+        config.setEncrypted("first", "1");
+        config.setEncrypted("second", "2");
+        config.setDecryptedCacheSize(2);
+        assertEquals("1", config.getDecrypted("first"));
+        long decrypts = metrics.getDecryptCount();
+        config.setEncrypted("third", "3");
+        assertEquals("1", config.getDecrypted("first"));
+        assertEquals("3", config.getDecrypted("third"));
+        assertEquals(decrypts, metrics.getDecryptCount());
+        assertEquals("2", config.getDecrypted("second"));
+        assertEquals(decrypts + 1, metrics.getDecryptCount());
+
+        config.close();
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testTypedValuesFollowChanges() {
+        // A bad value returns the default without failing
+        jConfig.set("timeout", "abc");
+        assertEquals(-1, jConfig.getInteger("timeout"));
+
+        // A new value is parsed again
+        jConfig.setInteger("timeout", 30);
+        assertEquals(30, jConfig.getInteger("timeout"));
+        assertEquals(30L, jConfig.getLong("timeout"));
+
+        // A change made behind the cache is picked up as well
+        jConfig.getProperties().setProperty("timeout", "60");
+        assertEquals(60, jConfig.getInteger("timeout"));
+    }
+
+    @Test
+    public void testSnapshotConcurrency() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY, JConfig.Concurrency.SNAPSHOT);
+        config.set("name", "John Doe");
+        config.setEncrypted("password", "s3cr3t");
+        config.setInteger("count", 10);
+        assertEquals("John Doe", config.get("name"));
+        assertEquals("s3cr3t", config.getDecrypted("password"));
+        assertEquals(10, config.getInteger("count"));
+
+        // The properties object is a read-only copy
+        Properties properties = config.getProperties();
+        assertEquals("John Doe", properties.getProperty("name"));
+        assertThrows(UnsupportedOperationException.class, () -> properties.setProperty("name", "Jane Doe"));
+        assertThrows(UnsupportedOperationException.class, () -> properties.keySet().clear());
+        assertThrows(UnsupportedOperationException.class, () -> properties.entrySet().iterator().next().setValue("Jane Doe"));
+        assertEquals("John Doe", config.get("name"));
+
+        // The settings are saved and loaded like in the default mode
+        JConfig loadedConfig = new JConfig(tempFilePath.toString(), SECRET_KEY, JConfig.Concurrency.SNAPSHOT);
+        assertEquals("John Doe", loadedConfig.get("name"));
+        assertEquals("s3cr3t", loadedConfig.getDecrypted("password"));
+
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testReloadNotifiesChangedKeys() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        config.set("name", "John Doe");
+        config.set("age", "30");
+        config.set("country", "USA");
+
+        List<ConfigChange> notified = new ArrayList<>();
+        config.addChangeListener(notified::addAll);
+
+        // Another instance changes one key, adds one and removes one
+        JConfig other = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        other.getProperties().remove("country");
+        other.set("age", "31");
+        other.set("city", "Miami");
+
+        // Only the changed keys are reported, with their old and new values
+        List<ConfigChange> changes = config.reload();
+        assertEquals(3, changes.size());
+        assertTrue(changes.contains(new ConfigChange("age", "30", "31")));
+        assertTrue(changes.contains(new ConfigChange("city", null, "Miami")));
+        assertTrue(changes.contains(new ConfigChange("country", "USA", null)));
+        assertEquals(changes, notified);
+        assertEquals(31, config.getInteger("age"));
+        assertNull(config.get("country"));
+
+        // Nothing changed since the last reload
+        assertTrue(config.reload().isEmpty());
+
+        // Local changes are reported as well
+        notified.clear();
+        config.set("age", "32");
+        assertEquals(List.of(new ConfigChange("age", "31", "32")), notified);
+
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testMappedLoading() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        JConfig writer = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        for (int i = 0; i < 100; i++) {
+            writer.setInteger("item." + i, i);
+        }
+        writer.set("name", "John Doe");
+        writer.setEncrypted("password", "s3cr3t");
+
+        // Values are decoded from the mapped file on first read
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY, JConfig.Concurrency.SNAPSHOT, JConfig.Loading.MAPPED);
+        assertEquals("John Doe", config.get("name"));
+        assertEquals(42, config.getInteger("item.42"));
+        assertEquals("s3cr3t", config.getDecrypted("password"));
+        assertSame(config.get("name"), config.get("name"));
+        assertNull(config.get("missing"));
+
+        // Changes take precedence over the file, and a save keeps every property
+        config.set("name", "Jane Doe");
+        config.copyFromResource(new ByteArrayInputStream("name=Ignored\ncity=Miami".getBytes()), false);
+        assertEquals("Jane Doe", config.get("name"));
+        assertEquals("Miami", config.get("city"));
+        JConfig reloaded = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        assertEquals(103, reloaded.getProperties().size());
+        assertEquals("Jane Doe", reloaded.get("name"));
+        assertEquals(99, reloaded.getInteger("item.99"));
+        assertEquals("s3cr3t", reloaded.getDecrypted("password"));
+
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testStartupSnapshot() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        Path snapshotPath = StartupSnapshot.pathOf(tempFilePath.toString());
+        JConfig writer = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        writer.set("name", "John Doe");
+        writer.setEncrypted("password", "s3cr3t");
+
+        // The first load parses the file and writes the snapshot
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY, JConfig.Concurrency.LOCKED, JConfig.Loading.SNAPSHOT);
+        assertTrue(Files.exists(snapshotPath));
+        assertEquals("John Doe", config.get("name"));
+
+        // A save rewrites the snapshot, and the next load uses it with the encrypted keys index
+        config.setInteger("age", 30);
+        StartupSnapshot snapshot = StartupSnapshot.read(tempFilePath.toString());
+        assertNotNull(snapshot);
+        assertEquals("30", snapshot.getEntries().get("age"));
+        assertTrue(snapshot.getEncryptedKeys().containsKey("password"));
+        JConfig restored = new JConfig(tempFilePath.toString(), SECRET_KEY, JConfig.Concurrency.LOCKED, JConfig.Loading.SNAPSHOT);
+        assertEquals("s3cr3t", restored.getDecrypted("password"));
+        assertEquals(30, restored.getInteger("age"));
+
+        // An edit made without the snapshot makes it stale, and the file is parsed again
+        writer.set("name", "Jane Doe");
+        assertNull(StartupSnapshot.read(tempFilePath.toString()));
+        JConfig reparsed = new JConfig(tempFilePath.toString(), SECRET_KEY, JConfig.Concurrency.LOCKED, JConfig.Loading.SNAPSHOT);
+        assertEquals("Jane Doe", reparsed.get("name"));
+        assertEquals("s3cr3t", reparsed.getDecrypted("password"));
+        assertNotNull(StartupSnapshot.read(tempFilePath.toString()));
+
+        // A snapshot indexed with another secret key is not trusted
+        JConfig otherKey = new JConfig(tempFilePath.toString(), "AnotherKey", JConfig.Concurrency.LOCKED, JConfig.Loading.SNAPSHOT);
+        assertNull(otherKey.getDecrypted("password"));
+
+        Files.deleteIfExists(snapshotPath);
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testLazyLoading() throws Exception {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+
+        // Nothing is read until the first access
+        JConfig config = JConfig.lazy(tempFilePath.toString(), SECRET_KEY);
+        assertFalse(config.isLoaded());
+        JConfig writer = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        writer.set("name", "John Doe");
+        writer.setEncrypted("password", "s3cr3t");
+        assertFalse(config.isLoaded());
+
+        // Concurrent first accesses load the file once and all see its content
+        List<Thread> threads = new ArrayList<>();
+        List<String> names = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> names.add(config.get("name")));
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(List.of("John Doe", "John Doe", "John Doe", "John Doe"), names);
+        assertTrue(config.isLoaded());
+        assertEquals("s3cr3t", config.getDecrypted("password"));
+
+        // A preloaded instance is ready before the first access
+        JConfig preloaded = JConfig.lazy(tempFilePath.toString(), SECRET_KEY);
+        preloaded.preloadAsync().get(10, TimeUnit.SECONDS);
+        assertTrue(preloaded.isLoaded());
+
+        // A first change keeps the properties already in the file
+        JConfig changed = JConfig.lazy(tempFilePath.toString(), SECRET_KEY);
+        changed.set("age", "30");
+        JConfig reloaded = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        assertEquals("John Doe", reloaded.get("name"));
+        assertEquals(30, reloaded.getInteger("age"));
+
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testUpdateBatch() throws Exception {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        config.set("database.url", "jdbc:mysql://old");
+        List<List<ConfigChange>> notified = new ArrayList<>();
+        config.addChangeListener(notified::add);
+
+        // The whole batch is applied and notified at once
+        config.update(tx -> {
+            tx.set("database.url", "jdbc:mysql://new");
+            tx.set("database.username", "admin");
+            tx.setEncrypted("database.password", "s3cr3t");
+            tx.setInteger("database.pool", 10);
+        });
+        assertEquals(1, notified.size());
+        assertEquals(4, notified.get(0).size());
+        assertTrue(notified.get(0).contains(new ConfigChange("database.url", "jdbc:mysql://old", "jdbc:mysql://new")));
+        JConfig reloaded = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        assertEquals("admin", reloaded.get("database.username"));
+        assertEquals("s3cr3t", reloaded.getDecrypted("database.password"));
+        assertEquals(10, reloaded.getInteger("database.pool"));
+
+        // Nothing is applied when the batch fails
+        assertThrows(IllegalStateException.class, () -> config.update(tx -> {
+            tx.set("database.url", "jdbc:mysql://broken");
+            throw new IllegalStateException("Broken batch");
+        }));
+        assertEquals("jdbc:mysql://new", config.get("database.url"));
+        assertEquals("jdbc:mysql://new", new JConfig(tempFilePath.toString(), SECRET_KEY).get("database.url"));
+        assertEquals(1, notified.size());
+
+        // Readers never see part of a batch applied
+        config.setAll(Map.of("first", "0", "second", "0"));
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= 200; i++) {
+                config.setAll(Map.of("first", String.valueOf(i), "second", String.valueOf(i)));
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            int first = config.getInteger("first");
+            int second = config.getInteger("second");
+            assertTrue(second >= first, first + " then " + second);
+        }
+        writer.join();
+        assertEquals(200, config.getInteger("second"));
+
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testAsyncSaveLoadAndSet() throws Exception {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY);
+
+        // Saves wait for a gate, counting how many reach the executor
+        CountDownLatch gate = new CountDownLatch(1);
+        AtomicInteger dispatched = new AtomicInteger();
+        config.setAsyncExecutor(command -> {
+            dispatched.incrementAndGet();
+            new Thread(() -> {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                command.run();
+            }).start();
+        });
+
+        // One save in flight, and every later request shares the single queued save
+        CompletableFuture<Void> first = config.setAsync("name", "John Doe");
+        assertEquals("John Doe", config.get("name"));
+        List<CompletableFuture<Void>> later = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            later.add(config.setAsync("item." + i, String.valueOf(i)));
+        }
+        assertEquals(1, dispatched.get());
+        for (CompletableFuture<Void> future : later) {
+            assertSame(later.get(0), future);
+        }
+        gate.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        later.get(0).get(10, TimeUnit.SECONDS);
+        assertEquals(2, dispatched.get());
+        JConfig reloaded = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        assertEquals("John Doe", reloaded.get("name"));
+        assertEquals(9, reloaded.getInteger("item.9"));
+
+        // Loads report the changed properties
+        reloaded.set("name", "Jane Doe");
+        List<ConfigChange> changes = config.loadAsync().get(10, TimeUnit.SECONDS);
+        assertEquals(List.of(new ConfigChange("name", "John Doe", "Jane Doe")), changes);
+
+        // Errors reach the future instead of being printed
+        JConfig broken = new JConfig(tempFilePath.resolve("missing").resolve("test.properties").toString(), null);
+        broken.set("name", "John Doe");
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> broken.saveAsync().get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, error.getCause());
+
+        // In write-behind mode the future follows the background writer
+        config.enableWriteBehind(60_000, 1_000);
+        int saves = dispatched.get();
+        CompletableFuture<Void> behind = config.setAsync("name", "Behind");
+        assertFalse(behind.isDone());
+        config.flush();
+        behind.get(10, TimeUnit.SECONDS);
+        assertEquals(saves, dispatched.get());
+        assertEquals("Behind", new JConfig(tempFilePath.toString(), SECRET_KEY).get("name"));
+        config.close();
+
+        // In journal mode the change is appended to the journal, without saving the file
+        Path journalPath = PropertiesJournal.pathOf(tempFilePath.toString());
+        config.enableJournal(1_000_000, 1_000);
+        long baseSize = Files.size(tempFilePath);
+        long journalSize = Files.size(journalPath);
+        config.setAsync("name", "Journaled").get(10, TimeUnit.SECONDS);
+        assertEquals(saves, dispatched.get());
+        assertEquals(baseSize, Files.size(tempFilePath));
+        assertTrue(Files.size(journalPath) > journalSize);
+        assertEquals("Journaled", new JConfig(tempFilePath.toString(), SECRET_KEY).get("name"));
+
+        config.close();
+        Files.deleteIfExists(journalPath);
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        Files.write(tempFilePath, "timeout=30\nratio=oops\n".getBytes());
+
+        // Disabled unless the system property is set when the instance is created
+        assertNull(new JConfig(tempFilePath.toString(), SECRET_KEY).getMetrics());
+        JConfig config;
+        System.setProperty(ConfigMetrics.ENABLED_PROPERTY, "true");
+        try {
+            config = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        } finally {
+            System.clearProperty(ConfigMetrics.ENABLED_PROPERTY);
+        }
+        ConfigMetrics metrics = config.getMetrics();
+        assertNotNull(metrics);
+        assertEquals(1, metrics.getLoadCount());
+        List<ConfigMetrics.Event> events = new CopyOnWriteArrayList<>();
+        metrics.addListener((event, value) -> events.add(event));
+
+        // Reads, typed reads and their cache
+        config.get("timeout");
+        assertEquals(30, config.getInteger("timeout"));
+        assertEquals(30, config.getInteger("timeout"));
+        assertEquals(-1d, config.getDouble("ratio"));
+        assertEquals(1, metrics.getGetCount());
+        assertEquals(3, metrics.getTypedGetCount());
+        assertEquals(1, metrics.getTypedCacheHits());
+        assertEquals(2, metrics.getTypedCacheMisses());
+        assertEquals(1, metrics.getParseFailures());
+
+        // Writes, saves and encryption
+        long bytes = metrics.getBytesWritten();
+        config.setEncrypted("password", "secret");
+        config.setAll(Map.of("a", "1", "b", "2"));
+        assertEquals(3, metrics.getSetCount());
+        assertEquals(2, metrics.getSaveCount());
+        assertTrue(metrics.getSaveTimeNanos() > 0);
+        assertTrue(metrics.getSaveLatencyP99Nanos() >= metrics.getSaveLatencyP50Nanos());
+        assertTrue(metrics.getSaveLatencyMaxNanos() >= metrics.getSaveLatencyP99Nanos());
+        assertEquals(bytes + 2 * Files.size(tempFilePath), metrics.getBytesWritten(), 64);
+        assertTrue(metrics.getEncryptCount() >= 2);
+        assertEquals("secret", config.getDecrypted("password"));
+        assertEquals(1, metrics.getDecryptedGetCount());
+        assertEquals(1, metrics.getDecryptedCacheHits());
+        config.setDecryptedCacheSize(0);
+        assertEquals("secret", config.getDecrypted("password"));
+        assertEquals(1, metrics.getDecryptedCacheMisses());
+        assertEquals(1, metrics.getDecryptCount());
+
+        // Swallowed I/O errors
+        config.reload();
+        assertEquals(2, metrics.getLoadCount());
+        assertTrue(events.contains(ConfigMetrics.Event.LOAD));
+        JConfig broken;
+        System.setProperty(ConfigMetrics.ENABLED_PROPERTY, "true");
+        try {
+            broken = new JConfig(tempFilePath.resolve("missing").resolve("test.properties").toString(), null);
+        } finally {
+            System.clearProperty(ConfigMetrics.ENABLED_PROPERTY);
+        }
+        broken.set("name", "John Doe");
+        assertEquals(1, broken.getMetrics().getIoErrors());
+
+        // Exposed through JMX until closed
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = metrics.getObjectName();
+        assertEquals(tempFilePath.toString(), server.getAttribute(name, "FilePath"));
+        assertEquals(3L, server.getAttribute(name, "SetCount"));
+        server.invoke(name, "reset", null, null);
+        assertEquals(0, metrics.getSetCount());
+        config.close();
+        broken.close();
+        assertFalse(server.isRegistered(name));
+
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testSharedFile() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        JConfig first = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        JConfig second = new JConfig(tempFilePath.toString(), SECRET_KEY, JConfig.Concurrency.SNAPSHOT);
+        first.enableSharedFile();
+        second.enableSharedFile();
+        assertTrue(first.isSharedFile());
+        assertThrows(IllegalStateException.class, () -> first.enableJournal(1024, 1));
+        List<List<ConfigChange>> notified = new CopyOnWriteArrayList<>();
+        second.addChangeListener(notified::add);
+
+        // Each save merges its own changes instead of overwriting the other's
+        first.set("name", "John Doe");
+        second.set("city", "Paris");
+        second.setEncrypted("password", "secret");
+        first.set("age", "30");
+        Properties saved = new Properties();
+        try (InputStream inputStream = Files.newInputStream(tempFilePath)) {
+            saved.load(inputStream);
+        }
+        assertEquals("John Doe", saved.getProperty("name"));
+        assertEquals("Paris", saved.getProperty("city"));
+        assertEquals("30", saved.getProperty("age"));
+
+        // Reads pick up the other's saves through the version stamp
+        assertEquals("30", second.get("age"));
+        assertEquals("secret", first.getDecrypted("password"));
+        assertEquals(List.of(new ConfigChange("age", null, "30")), notified.get(notified.size() - 1));
+
+        // The last save of a property wins
+        first.set("name", "Jane Doe");
+        second.set("name", "Jim Doe");
+        assertEquals("Jim Doe", first.get("name"));
+
+        first.close();
+        second.close();
+        assertFalse(first.isSharedFile());
+        Files.deleteIfExists(SharedFile.pathOf(tempFilePath.toString()));
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testPrefixIndexAndScope() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        Files.writeString(tempFilePath, "database.url=jdbc:h2:mem\ndatabase.username=sa\napp.timeout=30\n");
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY, JConfig.Concurrency.LOCKED, JConfig.Loading.MAPPED);
+        assertEquals(Map.of("database.url", "jdbc:h2:mem", "database.username", "sa"), config.getByPrefix("database."));
+        assertEquals(List.of("database.url", "database.username"), new ArrayList<>(config.getByPrefix("database").keySet()));
+
+        // The index follows set, copyFromResource and reloads
+        config.set("database.pool.size", "10");
+        config.copyFromResource(new ByteArrayInputStream("database.driver=h2\n".getBytes()), false);
+        assertEquals(List.of("database.driver", "database.pool.size", "database.url", "database.username"),
+                new ArrayList<>(config.getByPrefix("database.").keySet()));
+        Files.writeString(tempFilePath, "database.url=jdbc:h2:file\napp.timeout=60\n");
+        config.reload();
+        assertEquals(Map.of("database.url", "jdbc:h2:file"), config.getByPrefix("database."));
+        config.copyFromResource(new ByteArrayInputStream("app.name=demo\n".getBytes()), true);
+        assertTrue(config.getByPrefix("database.").isEmpty());
+        assertEquals(Map.of("app.name", "demo"), config.getByPrefix("app."));
+
+        // Scopes read and write relative keys
+        ConfigScope database = config.scope("database");
+        assertSame(database.key("url"), database.key("url"));
+        database.set("url", "jdbc:h2:tcp");
+        database.scope("pool").set("size", "20");
+        database.setEncrypted("password", "secret");
+        assertEquals("jdbc:h2:tcp", config.get("database.url"));
+        assertEquals(20, config.getInteger("database.pool.size"));
+        assertEquals("secret", database.getDecrypted("password"));
+        assertEquals(20, database.getInteger("pool.size"));
+        assertEquals(Map.of("url", "jdbc:h2:tcp", "pool.size", "20"), database.getAll());
+        assertThrows(IllegalArgumentException.class, () -> config.scope(""));
+
+        config.close();
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testRotateSecretKey() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY, JConfig.Concurrency.LOCKED, JConfig.Loading.SNAPSHOT);
+        config.update(batch -> {
+            for (int i = 0; i < 500; i++) {
+                batch.setEncrypted("secret." + i, "value " + i);
+            }
+            batch.set("name", "John Doe");
+        });
+        List<List<ConfigChange>> notified = new CopyOnWriteArrayList<>();
+        config.addChangeListener(notified::add);
+
+        // Every encrypted property moves to the new key, plain ones are untouched
+        config.rotateSecretKey("AnotherKey");
+        assertEquals("AnotherKeyXXXXXX", config.getSecretKey());
+        assertEquals("value 42", config.getDecrypted("secret.42"));
+        assertEquals("John Doe", config.get("name"));
+        assertEquals(501, config.getProperties().size());
+        assertEquals(1000, notified.get(0).size());
+        config.setEncrypted("password", "secret");
+
+        // The file is saved once, under the new key only
+        JConfig rotated = new JConfig(tempFilePath.toString(), "AnotherKey");
+        assertEquals("value 499", rotated.getDecrypted("secret.499"));
+        assertEquals("secret", rotated.getDecrypted("password"));
+        JConfig stale = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        assertNull(stale.getDecrypted("secret.0"));
+
+        assertThrows(IllegalArgumentException.class, () -> config.rotateSecretKey(" "));
+        assertThrows(NullSecretKeyException.class, () -> new JConfig(tempFilePath.toString(), null).rotateSecretKey("Key"));
+        config.close();
+        rotated.close();
+        stale.close();
+        Files.deleteIfExists(StartupSnapshot.pathOf(tempFilePath.toString()));
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testDiffAndMerge() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        config.update(batch -> batch.setAll(Map.of("name", "John Doe", "age", "30", "city", "Paris")));
+        String source = "name=Jane Doe\nage=30\ncountry=France\n";
+        List<List<ConfigChange>> notified = new CopyOnWriteArrayList<>();
+        config.addChangeListener(notified::add);
+
+        // The diff reports added, changed and removed keys without changing anything
+        List<ConfigChange> diff = new ArrayList<>();
+        config.diff(new ByteArrayInputStream(source.getBytes()), diff::add);
+        assertEquals(List.of(
+                new ConfigChange("name", "John Doe", "Jane Doe"),
+                new ConfigChange("country", null, "France"),
+                new ConfigChange("city", "Paris", null)), diff);
+        assertEquals("John Doe", config.get("name"));
+
+        // A conflict fails the merge and rolls back what was applied
+        StringBuilder conflicting = new StringBuilder("country=France\n");
+        for (int i = 0; i < 3000; i++) {
+            conflicting.append("key.").append(i).append("=value\n");
+        }
+        conflicting.append("name=Jim Doe\n");
+        assertThrows(IllegalStateException.class, () ->
+                config.merge(new ByteArrayInputStream(conflicting.toString().getBytes()), JConfig.MergePolicy.FAIL_ON_CONFLICT));
+        assertNull(config.get("country"));
+        assertTrue(config.getByPrefix("key.").isEmpty());
+        assertThrows(IllegalArgumentException.class, () ->
+                config.merge(new ByteArrayInputStream("country=France\nbad=\\u00g1".getBytes()), JConfig.MergePolicy.OVERWRITE));
+        assertNull(config.get("country"));
+        assertTrue(notified.isEmpty());
+
+        // Each policy applies its changes, saved once and notified once
+        assertEquals(1, config.merge(new ByteArrayInputStream(source.getBytes()), JConfig.MergePolicy.KEEP_EXISTING));
+        assertEquals("John Doe", config.get("name"));
+        assertEquals(1, config.merge(new ByteArrayInputStream(source.getBytes()), JConfig.MergePolicy.OVERWRITE));
+        assertEquals("Jane Doe", config.get("name"));
+        assertEquals(1, config.merge(new ByteArrayInputStream(source.getBytes()), JConfig.MergePolicy.REPLACE));
+        assertNull(config.get("city"));
+        assertEquals(List.of(List.of(new ConfigChange("country", null, "France")),
+                List.of(new ConfigChange("name", "John Doe", "Jane Doe")),
+                List.of(new ConfigChange("city", "Paris", null))), notified);
+        assertEquals(0, config.merge(new ByteArrayInputStream("name=Jim Doe\nname=Jane Doe\n".getBytes()),
+                JConfig.MergePolicy.OVERWRITE));
+        JConfig loadedConfig = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        assertEquals(Map.of("name", "Jane Doe", "age", "30", "country", "France"), loadedConfig.getByPrefix(""));
+
+        config.close();
+        loadedConfig.close();
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testBind() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        Files.writeString(tempFilePath, "server.host=localhost\nserver.port=8080\nserver.mode=FAST\nserver.tls=true\n"
+                + "pool.size=4\npool.name=main\n");
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY);
+
+        // Records are created through their canonical constructor, missing and malformed values read like the typed getters
+        ConfigBinding<Server> server = config.bind(Server.class, "server");
+        assertEquals(new Server("localhost", 8080, Mode.FAST, true, null), server.get());
+        assertEquals(Set.of("server.host", "server.port", "server.mode", "server.tls", "server.timeout"), server.getKeys());
+        Server first = server.get();
+
+        // The object is created again only when one of its properties changes
+        config.set("other", "value");
+        assertSame(first, server.get());
+        config.update(batch -> batch.setAll(Map.of("server.port", "bad", "server.timeout", "2.5")));
+        assertEquals(new Server("localhost", -1, Mode.FAST, true, 2.5), server.get());
+        Files.writeString(tempFilePath, "server.host=example.com\nserver.mode=SLOW\n");
+        config.reload();
+        assertEquals(new Server("example.com", -1, null, false, null), server.get());
+
+        // Classes are created through their no-argument constructor and their fields are set
+        config.set("pool.size", "8");
+        ConfigBinding<Pool> pool = config.bind(Pool.class, "pool.");
+        assertEquals(8, pool.get().size);
+        assertNull(pool.get().label);
+        pool.close();
+        config.set("pool.size", "16");
+        assertEquals(8, pool.get().size);
+        assertThrows(IllegalArgumentException.class, () -> config.bind(List.class, "pool"));
+
+        server.close();
+        config.close();
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testOpenSharesOneInstance() throws IOException {
+        Path directory = Files.createTempDirectory("jconfig");
+        Path tempFilePath = directory.resolve("settings.properties");
+        Files.writeString(tempFilePath, "name=John Doe\n");
+
+        // Every path to the same file shares one instance through its own handle
+        ConfigHandle first = JConfig.open(tempFilePath.toString(), SECRET_KEY);
+        ConfigHandle second = JConfig.open(directory.resolve("..").resolve(directory.getFileName()).resolve("settings.properties").toString(), null);
+        assertNotSame(first, second);
+        Path canonical = ConfigRegistry.canonical(tempFilePath.toString());
+        assertEquals(2, ConfigRegistry.handles(canonical));
+        assertThrows(IllegalArgumentException.class, () -> JConfig.open(tempFilePath.toString(), "AnotherKey"));
+        assertEquals(2, ConfigRegistry.handles(canonical));
+
+        // A change made through one handle is seen and saved for all
+        List<List<ConfigChange>> notified = new CopyOnWriteArrayList<>();
+        second.addChangeListener(notified::add);
+        second.setEncrypted("password", "secret");
+        first.set("age", "30");
+        assertEquals(2, notified.size());
+
+        // Closing a handle twice releases it once, and removes its listeners
+        second.close();
+        second.close();
+        assertTrue(second.isClosed());
+        assertThrows(IllegalStateException.class, () -> second.get("age"));
+        assertEquals(1, ConfigRegistry.handles(canonical));
+        first.set("age", "31");
+        assertEquals(2, notified.size());
+        assertEquals("secret", first.getDecrypted("password"));
+
+        // The last close releases the instance
+        first.close();
+        assertEquals(0, ConfigRegistry.handles(canonical));
+        ConfigHandle reopened = JConfig.open(tempFilePath.toString(), SECRET_KEY);
+        assertEquals("31", reopened.get("age"));
+        assertEquals("secret", reopened.getDecrypted("password"));
+        assertEquals(1, ConfigRegistry.handles(canonical));
+
+        reopened.close();
+        first.close();
+        assertEquals(0, ConfigRegistry.handles(canonical));
+        Files.deleteIfExists(tempFilePath);
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void testIoProfileChoices() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        Files.writeString(tempFilePath, "name=John Doe\npadding=" + "x".repeat(300) + "\n");
+        assertEquals(JConfig.Loading.STREAM, new JConfig(tempFilePath.toString(), SECRET_KEY).getLoading());
+        JConfig lazy = JConfig.lazy(tempFilePath.toString(), SECRET_KEY, JConfig.Concurrency.LOCKED, JConfig.Loading.AUTO);
+        assertEquals(JConfig.Loading.AUTO, lazy.getLoading());
+        assertEquals(JConfig.Loading.STREAM, JConfig.lazy(tempFilePath.toString(), SECRET_KEY).getLoading());
+
+        // A profile with tiny pages maps even a small file, and picks the durability and the crypto threads.
+        // Set through IoProfile, since JPlatformTest expects JPlatform to be initialized after it changes the OS name
+        JPlatform.IoProfile.override(new JPlatform.IoProfile(3, 1L << 30, "tmpfs", false, 1));
+        try {
+            assertEquals("John Doe", lazy.get("name"));
+            assertEquals(JConfig.Loading.MAPPED, lazy.getLoading());
+            lazy.setDurability(JConfig.Durability.AUTO);
+            assertEquals(JConfig.Durability.AUTO, lazy.getDurability());
+            lazy.setEncrypted("password", "secret");
+            lazy.rotateSecretKey("AnotherKey");
+            assertEquals("secret", lazy.getDecrypted("password"));
+            JPlatform.IoProfile.override(new JPlatform.IoProfile(3, 1L << 30, "ext4", true, 4096));
+            lazy.set("name", "Jane Doe");
+        } finally {
+            JPlatform.IoProfile.override(null);
+        }
+        assertEquals("Jane Doe", new JConfig(tempFilePath.toString(), "AnotherKey").get("name"));
+
+        lazy.close();
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testGetSecret() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        config.setEncrypted("password", "hunter2");
+        config.setEncrypted("token", "abc");
+
+        // The same view is returned while the value is held
+        ConfigSecret secret = config.getSecret("password");
+        assertNotNull(secret);
+        assertSame(secret, config.getSecret("password"));
+        assertEquals(7, secret.length());
+        assertEquals('h', secret.charAt(0));
+        assertTrue(secret.contentEquals("hunter2".toCharArray()));
+        assertFalse(secret.contentEquals("hunter".toCharArray()));
+        assertFalse(secret.toString().contains("hunter2"));
+        char[] copy = new char[secret.length()];
+        secret.getChars(copy, 0);
+        assertEquals("hunter2", new String(copy));
+        assertNull(config.getSecret("missing"));
+
+        // Changing the property destroys the view
+        config.setEncrypted("password", "changed");
+        assertTrue(secret.isDestroyed());
+        assertThrows(IllegalStateException.class, secret::length);
+        assertTrue(config.getSecret("password").contentEquals("changed".toCharArray()));
+
+        // Evicted values are destroyed, the one handed out is kept
+        config.setDecryptedCacheSize(1);
+        ConfigSecret token = config.getSecret("token");
+        assertFalse(token.isDestroyed());
+        ConfigSecret password = config.getSecret("password");
+        assertTrue(token.isDestroyed());
+        assertFalse(password.isDestroyed());
+
+        // Rotating the key and closing destroy the held values
+        config.rotateSecretKey("AnotherKey");
+        assertTrue(password.isDestroyed());
+        password = config.getSecret("password");
+        assertTrue(password.contentEquals("changed".toCharArray()));
+        config.close();
+        assertTrue(password.isDestroyed());
+
+        // Destroying the key makes the encrypted properties unreadable
+        ConfigSecret again = config.getSecret("password");
+        config.destroySecretKey();
+        assertTrue(again.isDestroyed());
+        assertNull(config.getSecretKey());
+        assertThrows(NullSecretKeyException.class, () -> config.getSecret("password"));
+        assertThrows(NullSecretKeyException.class, () -> config.getDecrypted("password"));
+        assertThrows(NullSecretKeyException.class, () -> config.setEncrypted("password", "value"));
+        assertFalse(config.isSet("password"));
+        config.close();
+
+        JConfig reopened = new JConfig(tempFilePath.toString(), "AnotherKey");
+        assertEquals("changed", reopened.getDecrypted("password"));
+        reopened.close();
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testHotReload() throws Exception {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        BlockingQueue<List<ConfigChange>> notified = new LinkedBlockingQueue<>();
+        config.addChangeListener(notified::add);
+        config.enableHotReload(50);
+        assertTrue(config.isHotReload());
+
+        // An edit made outside the instance is picked up in the background
+        new JConfig(tempFilePath.toString(), SECRET_KEY).set("name", "John Doe");
+        List<ConfigChange> changes = notified.poll(10, TimeUnit.SECONDS);
+        assertEquals(List.of(new ConfigChange("name", null, "John Doe")), changes);
+        assertEquals("John Doe", config.get("name"));
+
+        config.close();
+        assertFalse(config.isHotReload());
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testHotReloadKeepsLocalChanges() throws Exception {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        JConfig config = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        config.set("shared", "initial");
+        config.enableWriteBehind(60_000, 1_000_000);
+        BlockingQueue<List<ConfigChange>> notified = new LinkedBlockingQueue<>();
+        config.addChangeListener(notified::add);
+        config.enableHotReload(20);
+
+        // A change not saved yet survives the reload of an edit made outside the instance
+        config.set("local", "pending");
+        notified.clear();
+        JConfig other = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        other.set("external", "edited");
+        assertEquals(List.of(new ConfigChange("external", null, "edited")), notified.poll(10, TimeUnit.SECONDS));
+        assertEquals("pending", config.get("local"));
+        assertEquals("edited", config.get("external"));
+
+        // The saves of the instance reload nothing, while another thread keeps changing a property
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                config.set("counter", String.valueOf(i));
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            config.flush();
+            Thread.sleep(5);
+        }
+        writer.join();
+        config.flush();
+        Thread.sleep(200);
+        assertEquals("1999", config.get("counter"));
+        assertEquals("pending", config.get("local"));
+        for (List<ConfigChange> changes : notified) {
+            for (ConfigChange change : changes) {
+                assertEquals("counter", change.getKey());
+                assertNotNull(change.getNewValue());
+            }
+        }
+
+        config.close();
+        JConfig reloaded = new JConfig(tempFilePath.toString(), SECRET_KEY);
+        assertEquals("1999", reloaded.get("counter"));
+        assertEquals("pending", reloaded.get("local"));
+        assertEquals("edited", reloaded.get("external"));
+        reloaded.close();
+        other.close();
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    enum Mode {
+        FAST
+    }
+
+    record Server(String host, int port, Mode mode, boolean tls, @ConfigKey("timeout") Double timeoutSeconds) {
+    }
+
+    static class Pool {
+        int size;
+        @ConfigKey("name.label")
+        String label;
+        transient Object ignored;
+    }
 }
@@ -1,9 +1,16 @@
 package xss.it.conf;
 
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -12,6 +19,18 @@ import static org.junit.jupiter.api.Assertions.*;
  * Created on 05/16/2023
  */
 public class JPlatformTest {
+    private static String osName;
+
+    @BeforeAll
+    public static void saveOsName() {
+        osName = System.getProperty("os.name");
+    }
+
+    @AfterAll
+    public static void restoreOsName() {
+        // The JDK reads it as well, for instance to start processes in the other tests
+        System.setProperty("os.name", osName);
+    }
 
     @Test
     public void testIsWindows() {
@@ -97,6 +116,121 @@ public class JPlatformTest {
         System.out.println("Documents Directory: " + documentsDir);
     }
 
+    @Test
+    public void testResolveXdgDirectories() throws IOException {
+        Path home = Files.createTempDirectory("home");
+        String separator = JPlatform.getDirSeparator();
+
+        // Without XDG variables, the defaults under the home directory, and the home directory without a Documents folder
+        JPlatform.Directories directories = JPlatform.Directories.resolve(JPlatform.OS.LINUX, home, Map.<String, String>of()::get);
+        assertEquals(home + separator, directories.userDocuments);
+        assertEquals(home.resolve(".config") + separator, directories.config);
+        assertEquals(home.resolve(".local/share") + separator, directories.data);
+        assertEquals(home.resolve(".cache") + separator, directories.cache);
+        assertEquals(home.resolve(".local/state") + separator, directories.state);
+        Files.createDirectory(home.resolve("Documents"));
+        directories = JPlatform.Directories.resolve(JPlatform.OS.LINUX, home, Map.<String, String>of()::get);
+        assertEquals(home.resolve("Documents") + separator, directories.userDocuments);
+        // The documents directory stays the home directory, as Swing reported it
+        assertEquals(home + separator, directories.documents);
+
+        // The documents directory of user-dirs.dirs, in the configuration directory set by XDG_CONFIG_HOME
+        Path config = Files.createDirectory(home.resolve("conf"));
+        Files.writeString(config.resolve("user-dirs.dirs"), "# comment\nXDG_DESKTOP_DIR=\"$HOME/Desktop\"\nXDG_DOCUMENTS_DIR=\"$HOME/Docs\"\n");
+        directories = JPlatform.Directories.resolve(JPlatform.OS.LINUX, home,
+                Map.of("XDG_CONFIG_HOME", config.toString(), "XDG_CACHE_HOME", "relative/cache")::get);
+        assertEquals(home.resolve("Docs") + separator, directories.userDocuments);
+        assertEquals(config + separator, directories.config);
+        assertEquals(home.resolve(".cache") + separator, directories.cache);
+
+        // The XDG_DOCUMENTS_DIR variable comes first
+        directories = JPlatform.Directories.resolve(JPlatform.OS.UNKNOWN, home,
+                Map.of("XDG_CONFIG_HOME", config.toString(), "XDG_DOCUMENTS_DIR", "/srv/docs")::get);
+        assertEquals("/srv/docs" + separator, directories.userDocuments);
+
+        Files.delete(config.resolve("user-dirs.dirs"));
+        Files.delete(config);
+        Files.delete(home.resolve("Documents"));
+        Files.delete(home);
+    }
+
+    @Test
+    public void testResolveMacAndWindowsDirectories() {
+        Path home = Path.of("/home/user");
+        String separator = JPlatform.getDirSeparator();
+
+        JPlatform.Directories mac = JPlatform.Directories.resolve(JPlatform.OS.OSX, home, Map.<String, String>of()::get);
+        assertEquals(home + separator, mac.documents);
+        assertEquals(home.resolve("Documents") + separator, mac.userDocuments);
+        assertEquals(home.resolve("Library/Application Support") + separator, mac.config);
+        assertEquals(home.resolve("Library/Caches") + separator, mac.cache);
+
+        JPlatform.Directories windows = JPlatform.Directories.resolve(JPlatform.OS.WINDOWS, home,
+                Map.of("APPDATA", "/roaming")::get);
+        assertEquals("/roaming" + separator, windows.config);
+        assertEquals("/roaming" + separator, windows.data);
+        assertEquals(home.resolve("AppData/Local") + separator, windows.cache);
+        assertNotNull(windows.documents);
+        assertEquals(windows.documents, windows.userDocuments);
+    }
+
+    @Test
+    public void testGetStandardDirs() {
+        // Resolved once
+        assertSame(JPlatform.getConfigDir(), JPlatform.getConfigDir());
+        assertNotNull(JPlatform.getDataDir());
+        assertNotNull(JPlatform.getCacheDir());
+        assertNotNull(JPlatform.getStateDir());
+        assertNotNull(JPlatform.getUserDocumentsDir());
+    }
+
+    @Test
+    public void testIoProfile() throws IOException {
+        // The probe is cached per directory and reports the file store of the directory
+        Path directory = Files.createTempDirectory("jconfig");
+        JPlatform.IoProfile probed = JPlatform.getIoProfile(directory);
+        assertSame(probed, JPlatform.getIoProfile(directory.resolve("missing").resolve("..")));
+        assertEquals(Files.getFileStore(directory).type().toLowerCase(), probed.getFileStoreType());
+        assertEquals(Runtime.getRuntime().availableProcessors(), probed.getAvailableProcessors());
+        assertTrue(probed.getPageSize() > 0);
+        assertTrue(probed.isAtomicMove());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+
+        // The choices follow the file store
+        JPlatform.IoProfile tmpfs = new JPlatform.IoProfile(4, 1L << 30, "tmpfs", true, 4096);
+        JPlatform.IoProfile nfs = new JPlatform.IoProfile(4, 1L << 30, "NFS4", true, 4096);
+        JPlatform.IoProfile ext4 = new JPlatform.IoProfile(4, 1L << 30, "ext4", true, 4096);
+        assertEquals(JConfig.Durability.NONE, tmpfs.getDurability());
+        assertEquals(JConfig.Durability.FSYNC_DATA, nfs.getDurability());
+        assertEquals(JConfig.Durability.FSYNC_DATA_AND_DIR, ext4.getDurability());
+        assertFalse(ext4.shouldMap(4096));
+        assertFalse(nfs.shouldMap(64L << 20));
+        assertTrue(nfs.shouldMap(512L << 20));
+        assertEquals(4, ext4.getCryptoThreads());
+        assertThrows(IllegalArgumentException.class, () -> new JPlatform.IoProfile(0, 1L << 30, "ext4", true, 4096));
+
+        // An override applies to every directory until cleared
+        JPlatform.setIoProfile(tmpfs);
+        try {
+            assertSame(tmpfs, JPlatform.getIoProfile(directory));
+            assertSame(tmpfs, JPlatform.getIoProfile());
+        } finally {
+            JPlatform.setIoProfile(null);
+        }
+        assertSame(probed, JPlatform.getIoProfile(directory));
+
+        // Past the size of the cache, the least recently used directories make room for the new ones
+        for (int i = 0; i < 100; i++) {
+            JPlatform.getIoProfile(directory.resolve("missing" + i));
+            assertSame(probed, JPlatform.getIoProfile(directory));
+        }
+        Path latest = directory.resolve("latest");
+        assertSame(JPlatform.getIoProfile(latest), JPlatform.getIoProfile(latest));
+        Files.delete(directory);
+    }
+
     @Test
     public void testGetDirSeparator() {
         String dirSeparator = JPlatform.getDirSeparator();
@@ -0,0 +1,37 @@
+package xss.it.conf;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileNanos(50));
+
+        // 99 fast durations and a slow one
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1_000);
+        }
+        histogram.record(1_000_000);
+        assertEquals(100, histogram.getCount());
+        assertEquals(99 * 1_000 + 1_000_000, histogram.getTotalNanos());
+        assertEquals(1_000_000, histogram.getMaxNanos());
+
+        // Percentiles are the upper bound of their power-of-two bucket
+        long median = histogram.getPercentileNanos(50);
+        assertTrue(median >= 1_000 && median < 2_000);
+        assertEquals(median, histogram.getPercentileNanos(99));
+        assertEquals(1_000_000, histogram.getPercentileNanos(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxNanos());
+    }
+}
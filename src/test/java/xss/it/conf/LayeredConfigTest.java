@@ -0,0 +1,99 @@
+package xss.it.conf;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ */
+public class LayeredConfigTest {
+
+    @Test
+    public void testLayerPrecedence() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        JConfig config = new JConfig(tempFilePath.toString(), null);
+        config.set("database.url", "jdbc:file");
+        LayeredConfig layered = new LayeredConfig(config);
+        layered.setDefaults(new ByteArrayInputStream("database.url=jdbc:default\npool.size=10\n".getBytes()));
+
+        // The file wins over the defaults, and missing keys fall back to them
+        assertEquals("jdbc:file", layered.get("database.url"));
+        assertEquals(10, layered.getInteger("pool.size"));
+        assertEquals(LayeredConfig.Layer.DEFAULTS, layered.getSource("pool.size"));
+
+        // Environment variables and system properties win over the file
+        layered.setLayer(LayeredConfig.Layer.ENVIRONMENT,
+                LayeredConfig.fromEnvironment(Map.of("MYAPP_POOL_SIZE", "20", "PATH", "/bin"), "MYAPP_"));
+        assertEquals(20, layered.getInteger("pool.size"));
+        assertNull(layered.get("path"));
+        System.setProperty("myapp.test.database.url", "jdbc:system");
+        try {
+            layered.setSystemProperties("myapp.test.");
+        } finally {
+            System.clearProperty("myapp.test.database.url");
+        }
+        assertEquals("jdbc:system", layered.get("database.url"));
+        assertEquals(LayeredConfig.Layer.SYSTEM_PROPERTIES, layered.getSource("database.url"));
+
+        // Clearing a layer falls back to the layers below
+        layered.setSystemProperties(null);
+        assertEquals("jdbc:file", layered.get("database.url"));
+
+        layered.close();
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testIncrementalUpdatesAndDefaultsNotSaved() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        JConfig config = new JConfig(tempFilePath.toString(), null);
+        LayeredConfig layered = new LayeredConfig(config);
+        layered.setDefaults(new ByteArrayInputStream("timeout=30\nretries=3\n".getBytes()));
+        List<ConfigChange> notified = new CopyOnWriteArrayList<>();
+        layered.addChangeListener(notified::addAll);
+
+        // Changes of the file reach the view, and only the changed keys are reported
+        layered.set("timeout", "60");
+        assertEquals(60, layered.getInteger("timeout"));
+        assertEquals(List.of(new ConfigChange("timeout", "30", "60")), notified);
+        new JConfig(tempFilePath.toString(), null).set("retries", "5");
+        config.reload();
+        assertEquals(5, layered.getInteger("retries"));
+
+        // The defaults never reach the file
+        layered.setDefaults(new ByteArrayInputStream("timeout=30\nretries=3\nname=default\n".getBytes()));
+        assertEquals("default", layered.get("name"));
+        config.set("other", "value");
+        Properties saved = new Properties();
+        try (InputStream inputStream = Files.newInputStream(tempFilePath)) {
+            saved.load(inputStream);
+        }
+        assertEquals(Map.of("timeout", "60", "retries", "5", "other", "value"), toMap(saved));
+        assertEquals(Map.of("timeout", "60", "retries", "5", "other", "value", "name", "default"), layered.asMap());
+
+        // A closed view stops following the file
+        layered.close();
+        config.set("other", "changed");
+        assertEquals("value", layered.get("other"));
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    private static Map<String, String> toMap(Properties properties) {
+        Map<String, String> map = new HashMap<>();
+        properties.forEach((k, v) -> map.put(k.toString(), v.toString()));
+        return map;
+    }
+}
@@ -0,0 +1,86 @@
+package xss.it.conf;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ */
+public class MappedPropertiesFileTest {
+
+    @Test
+    public void testMatchesPropertiesLoad() throws IOException {
+        // Comments, separators, escapes, continuations and duplicates
+        String content = "# comment\n"
+                + "! another comment \\\n"
+                + "plain=value\n"
+                + "   indented : colon separated  \n"
+                + "spaced    value with spaces\n"
+                + "empty=\n"
+                + "no.separator\n"
+                + "escaped\\ key\\=with\\:chars = \\tescaped\\nvalue\\\\\n"
+                + "unicode=caf\\u00e9 \\u4e2d\n"
+                + "latin=caf\u00e9\n"
+                + "multi = first, \\\n"
+                + "        second, \\\r\n"
+                + "        third\n"
+                + "split\\\n    key=joined\n"
+                + "dup=one\r"
+                + "dup=two\r\n"
+                + "\t\f tabbed=\\=value\n"
+                + "trailing=back\\\\\n"
+                + "last=no new line";
+
+        // Parse the same bytes both ways
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        byte[] bytes = content.getBytes(StandardCharsets.ISO_8859_1);
+        Files.write(tempFilePath, bytes);
+        Properties expected = new Properties();
+        expected.load(new ByteArrayInputStream(bytes));
+        MappedPropertiesFile mapped = MappedPropertiesFile.open(tempFilePath);
+
+        // Every key and value matches
+        assertEquals(expected.size(), mapped.size());
+        assertEquals(expected.stringPropertyNames(), new HashSet<>(mapped.keys()));
+        for (String key : expected.stringPropertyNames()) {
+            assertTrue(mapped.containsKey(key), key);
+            assertEquals(expected.getProperty(key), mapped.get(key), key);
+        }
+        Map<String, String> all = new HashMap<>();
+        mapped.forEach(all::put);
+        assertEquals(expected, toProperties(all));
+        assertNull(mapped.get("missing"));
+        assertFalse(mapped.containsKey("escaped key"));
+
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testMalformedUnicodeEscape() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        Files.write(tempFilePath, "bad=\\u00g1\n".getBytes(StandardCharsets.ISO_8859_1));
+
+        // Rejected like Properties.load does
+        assertThrows(IllegalArgumentException.class, () -> MappedPropertiesFile.open(tempFilePath));
+
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    private static Properties toProperties(Map<String, String> entries) {
+        Properties properties = new Properties();
+        properties.putAll(entries);
+        return properties;
+    }
+}
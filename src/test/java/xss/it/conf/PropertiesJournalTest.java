@@ -0,0 +1,54 @@
+package xss.it.conf;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ */
+public class PropertiesJournalTest {
+
+    @Test
+    public void testRecordRoundTrip() throws IOException {
+        // Keys and values with characters that need escaping
+        String key = " weird key=with:all#the!chars\\";
+        String value = " leading space\ttab\nnew line \u00e9\u4e2d";
+
+        // Read the record back through Properties.load
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(PropertiesJournal.record(key, value)));
+
+        // Verify the entry survived the round trip
+        assertEquals(value, properties.getProperty(key));
+    }
+
+    @Test
+    public void testReplayIgnoresTornRecord() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        Path journalPath = PropertiesJournal.pathOf(tempFilePath.toString());
+
+        // Write two complete records and one torn by a crash
+        Files.write(journalPath, PropertiesJournal.record("name", "John Doe"));
+        Files.write(journalPath, PropertiesJournal.record("name", "Jane Doe"), StandardOpenOption.APPEND);
+        Files.write(journalPath, "age=3".getBytes(StandardCharsets.ISO_8859_1), StandardOpenOption.APPEND);
+
+        // The last complete record wins, and the torn one is ignored
+        Properties properties = new Properties();
+        PropertiesJournal.replay(tempFilePath.toString(), properties);
+        assertEquals("Jane Doe", properties.getProperty("name"));
+        assertNull(properties.getProperty("age"));
+
+        Files.deleteIfExists(journalPath);
+        Files.deleteIfExists(tempFilePath);
+    }
+}
@@ -0,0 +1,91 @@
+package xss.it.conf;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ */
+public class PropertiesReaderTest {
+
+    @Test
+    public void testMatchesPropertiesLoad() throws IOException {
+        // Comments, separators, escapes, continuations, duplicates and a line longer than the read buffer
+        String content = "# comment\n"
+                + "! another comment \\\n"
+                + "plain=value\n"
+                + "   indented : colon separated  \n"
+                + "spaced    value with spaces\n"
+                + "empty=\n"
+                + "no.separator\n"
+                + "escaped\\ key\\=with\\:chars = \\tescaped\\nvalue\\\\\n"
+                + "unicode=caf\\u00e9 \\u4e2d\n"
+                + "latin=caf\u00e9\n"
+                + "multi = first, \\\n"
+                + "        second, \\\r\n"
+                + "        third\n"
+                + "split\\\n    key=joined\n"
+                + "dup=one\r"
+                + "dup=two\r\n"
+                + "\t\f tabbed=\\=value\n"
+                + "trailing=back\\\\\n"
+                + "long=" + "x".repeat(20_000) + "\\\n  continued\n"
+                + "last=no new line";
+        byte[] bytes = content.getBytes(StandardCharsets.ISO_8859_1);
+        Properties expected = new Properties();
+        expected.load(new ByteArrayInputStream(bytes));
+
+        // Read as a stream, and one character per read to cross every buffer boundary
+        assertEquals(expected, readAll(new PropertiesReader(new ByteArrayInputStream(bytes))));
+        assertEquals(expected, readAll(new PropertiesReader(new OneCharReader(new StringReader(content)))));
+    }
+
+    @Test
+    public void testMalformedUnicodeEscape() {
+        PropertiesReader reader = new PropertiesReader(new StringReader("good=1\nbad=\\u00g1\n"));
+
+        // The entries before the malformed one are read, then it is rejected like Properties.load does
+        assertDoesNotThrow(() -> assertTrue(reader.next()));
+        assertEquals("good", reader.key());
+        assertThrows(IllegalArgumentException.class, reader::next);
+    }
+
+    private static Properties readAll(PropertiesReader reader) throws IOException {
+        Properties properties = new Properties();
+        while (reader.next()) {
+            properties.setProperty(reader.key(), reader.value());
+        }
+        assertFalse(reader.next());
+        return properties;
+    }
+
+    /**
+     * A reader returning a single character per read.
+     */
+    private static final class OneCharReader extends Reader {
+        private final Reader delegate;
+
+        private OneCharReader(Reader delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return delegate.read(buffer, offset, Math.min(length, 1));
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package xss.it.conf;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ */
+public class SharedFileTest {
+    private static final int PROCESSES = 4;
+    private static final int CHANGES = 50;
+
+    @Test
+    public void testVersionStamp() throws Exception {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        String basePath = tempFilePath.toString();
+        SharedFile first = new SharedFile(basePath);
+        SharedFile second = new SharedFile(basePath);
+        assertEquals(0, first.version());
+
+        // A published version is visible through every mapping of the lock file
+        SharedFile.Lock lock = first.lock(true);
+        try {
+            first.publish(first.version() + 1, false);
+        } finally {
+            lock.close();
+        }
+        assertEquals(1, second.version());
+
+        // Instances of one process take turns instead of overlapping their file locks
+        Thread other = new Thread(() -> {
+            try {
+                SharedFile.Lock exclusive = second.lock(true);
+                try {
+                    second.publish(second.version() + 1, false);
+                } finally {
+                    exclusive.close();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        lock = first.lock(false);
+        try {
+            other.start();
+            other.join(200);
+            assertTrue(other.isAlive());
+            assertEquals(1, first.version());
+        } finally {
+            lock.close();
+        }
+        other.join(10_000);
+        assertEquals(2, first.version());
+
+        first.close();
+        second.close();
+        Files.deleteIfExists(SharedFile.pathOf(basePath));
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testNoLostUpdatesAcrossProcesses() throws Exception {
+        Path dir = Files.createTempDirectory("jconfig-shared");
+        Path file = dir.resolve("shared.properties");
+        Path go = dir.resolve("go");
+
+        // Every process waits for the others to start, then saves its own keys to the same file
+        List<Process> processes = new ArrayList<>();
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        for (int id = 0; id < PROCESSES; id++) {
+            processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    SharedFileTest.class.getName(), file.toString(), go.toString(), String.valueOf(id))
+                    .inheritIO()
+                    .start());
+        }
+        Files.createFile(go);
+        for (Process process : processes) {
+            assertTrue(process.waitFor(2, TimeUnit.MINUTES));
+            assertEquals(0, process.exitValue());
+        }
+
+        // Every change of every process reached the file
+        Properties saved = new Properties();
+        try (InputStream inputStream = new FileInputStream(file.toFile())) {
+            saved.load(inputStream);
+        }
+        assertEquals(PROCESSES * CHANGES, saved.size());
+        for (int id = 0; id < PROCESSES; id++) {
+            for (int i = 0; i < CHANGES; i++) {
+                assertEquals(String.valueOf(i), saved.getProperty(key(id, i)));
+            }
+        }
+
+        for (Path path : List.of(file, go, SharedFile.pathOf(file.toString()), PropertiesJournal.pathOf(file.toString()))) {
+            Files.deleteIfExists(path);
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    /**
+     * Entry point of the processes started by {@link #testNoLostUpdatesAcrossProcesses()}.
+     * Exits with 0 once the process saved its keys and read back the keys of every other process.
+     */
+    public static void main(String[] args) throws Exception {
+        String filePath = args[0];
+        Path go = Paths.get(args[1]);
+        int id = Integer.parseInt(args[2]);
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        while (!Files.exists(go)) {
+            Thread.sleep(5);
+        }
+        JConfig config = new JConfig(filePath, null);
+        config.enableSharedFile();
+        for (int i = 0; i < CHANGES; i++) {
+            config.set(key(id, i), String.valueOf(i));
+        }
+        // Reads pick up the saves of the other processes through the version stamp
+        for (int other = 0; other < PROCESSES; other++) {
+            while (config.get(key(other, CHANGES - 1)) == null) {
+                if (System.nanoTime() > deadline) {
+                    System.exit(2);
+                }
+                Thread.sleep(5);
+            }
+        }
+        config.close();
+        System.exit(0);
+    }
+
+    private static String key(int process, int change) {
+        return "process." + process + ".key." + change;
+    }
+}
@@ -0,0 +1,68 @@
+package xss.it.conf;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ */
+public class StartupSnapshotTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        Files.write(tempFilePath, "name=John Doe\ncity=Caf\\u00e9\n".getBytes(StandardCharsets.ISO_8859_1));
+        String basePath = tempFilePath.toString();
+
+        // Parse the file and write its snapshot with an index
+        StartupSnapshot parsed = StartupSnapshot.parse(basePath);
+        assertEquals(Map.of("name", "John Doe", "city", "Caf\u00e9"), parsed.getEntries());
+        parsed.withEncryptedKeys(Map.of("password", "ENCRYPTED")).write(basePath);
+
+        // Read it back while the file did not change
+        StartupSnapshot read = StartupSnapshot.read(basePath);
+        assertNotNull(read);
+        assertEquals(parsed.getEntries(), read.getEntries());
+        assertEquals(Map.of("password", "ENCRYPTED"), read.getEncryptedKeys());
+
+        Files.deleteIfExists(StartupSnapshot.pathOf(basePath));
+        Files.deleteIfExists(tempFilePath);
+    }
+
+    @Test
+    public void testStaleOrCorruptedSnapshot() throws IOException {
+        Path tempFilePath = Files.createTempFile("jconfig", ".properties");
+        Files.write(tempFilePath, "name=John Doe\n".getBytes(StandardCharsets.ISO_8859_1));
+        String basePath = tempFilePath.toString();
+        StartupSnapshot.parse(basePath).write(basePath);
+        assertNotNull(StartupSnapshot.read(basePath));
+
+        // Same size and modification time, different content
+        FileTime modified = Files.getLastModifiedTime(tempFilePath);
+        Files.write(tempFilePath, "name=Jane Doe\n".getBytes(StandardCharsets.ISO_8859_1));
+        Files.setLastModifiedTime(tempFilePath, modified);
+        assertNull(StartupSnapshot.read(basePath));
+
+        // Torn snapshot
+        StartupSnapshot.parse(basePath).write(basePath);
+        byte[] bytes = Files.readAllBytes(StartupSnapshot.pathOf(basePath));
+        Files.write(StartupSnapshot.pathOf(basePath), Arrays.copyOf(bytes, bytes.length - 3));
+        assertNull(StartupSnapshot.read(basePath));
+
+        // Missing snapshot
+        StartupSnapshot.discard(basePath);
+        assertNull(StartupSnapshot.read(basePath));
+
+        Files.deleteIfExists(tempFilePath);
+    }
+}
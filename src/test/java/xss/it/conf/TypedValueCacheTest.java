@@ -0,0 +1,68 @@
+package xss.it.conf;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author XDSSWAR
+ * Created on 10/18/2026
+ */
+public class TypedValueCacheTest {
+
+    @Test
+    public void testParsesEveryKind() {
+        TypedValueCache cache = new TypedValueCache();
+        assertEquals(42, cache.getInt("int", "42", -1));
+        assertEquals(1625698800000L, cache.getLong("long", "1625698800000", -1L));
+        assertEquals(3.14159, cache.getDouble("double", "3.14159", -1d));
+        assertEquals(-2.5f, cache.getFloat("float", "-2.5", -1f));
+        assertTrue(cache.getBoolean("boolean", "true"));
+        assertFalse(cache.getBoolean("boolean", "nope"));
+    }
+
+    @Test
+    public void testFailuresAndKindChanges() {
+        TypedValueCache cache = new TypedValueCache();
+
+        // A value that cannot be parsed returns the fallback every time
+        assertEquals(-1, cache.getInt("key", "abc", -1));
+        assertEquals(-1, cache.getInt("key", "abc", -1));
+
+        // The same value read as another kind is parsed again
+        String value = "2.5";
+        assertEquals(-1, cache.getInt("key", value, -1));
+        assertEquals(2.5, cache.getDouble("key", value, -1d));
+        assertEquals(2.5f, cache.getFloat("key", value, -1f));
+    }
+
+    @Test
+    public void testNewValueAndInvalidation() {
+        TypedValueCache cache = new TypedValueCache();
+        assertEquals(1, cache.getInt("key", "1", -1));
+
+        // A new value string is parsed again
+        assertEquals(2, cache.getInt("key", "2", -1));
+
+        // Invalidated and cleared keys are parsed again
+        String value = "3";
+        assertEquals(3, cache.getInt("key", value, -1));
+        cache.invalidate("key");
+        assertEquals(3, cache.getInt("key", value, -1));
+        cache.clear();
+        assertEquals(3, cache.getInt("key", value, -1));
+    }
+
+    @Test
+    public void testGrowsWithManyKeys() {
+        TypedValueCache cache = new TypedValueCache();
+        String[] values = new String[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = String.valueOf(i);
+            assertEquals(i, cache.getInt("key." + i, values[i], -1));
+        }
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(i, cache.getInt("key." + i, values[i], -1));
+        }
+    }
+}